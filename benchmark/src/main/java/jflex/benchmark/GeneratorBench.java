@@ -0,0 +1,73 @@
+package jflex.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import jflex.core.OptionUtils;
+import jflex.generator.LexGenerator;
+import jflex.option.Options;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Scanner generation time for large specifications.
+ *
+ * <p>The specifications are read from the source tree, so this benchmark must be run from the
+ * {@code benchmark} directory.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1)
+public class GeneratorBench {
+
+  @State(Scope.Benchmark)
+  public static class SpecState {
+    /** The specification to generate a scanner for, relative to the {@code benchmark} directory. */
+    @Param({
+      "../jflex/examples/cup-java/src/main/jflex/java.flex",
+      "../testsuite/testcases/src/test/cases/unicode-line-break/UnicodeLineBreakAlgorithm_12_1.flex",
+      "../testsuite/testcases/src/test/cases/unicode-word-break/UnicodeWordBreakRules_12_1.flex"
+    })
+    public String spec;
+
+    /** The directory the generated scanners are written to. */
+    public File outputDir;
+
+    @Setup
+    public void setup() throws IOException {
+      outputDir = Files.createTempDirectory("jflex-bench").toFile();
+    }
+
+    @TearDown
+    public void tearDown() {
+      File[] files = outputDir.listFiles();
+      if (files != null) {
+        for (File f : files) f.delete();
+      }
+      outputDir.delete();
+    }
+  }
+
+  @Benchmark
+  public String generate(SpecState state) {
+    OptionUtils.setDefaultOptions();
+    OptionUtils.setDir(state.outputDir);
+    Options.get().no_backup = true;
+    Options.get().verbose = false;
+    Options.get().progress = false;
+    Options.get().unused_warning = false;
+    return new LexGenerator(new File(state.spec)).generate();
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    org.openjdk.jmh.runner.options.Options opt =
+        new OptionsBuilder().include(GeneratorBench.class.getSimpleName()).build();
+
+    new Runner(opt).run();
+  }
+}
@@ -67,6 +67,12 @@ public class JFlexBench {
     return new NoAction(state.reader).yylex();
   }
 
+  @Benchmark
+  public int noActionDirectLexer(LexerState state) throws IOException {
+    state.reader.reset();
+    return new NoActionDirect(state.reader).yylex();
+  }
+
   @Benchmark
   public int noAction17Lexer(LexerState state) throws IOException {
     state.reader.reset();
@@ -190,12 +190,12 @@ public class JFlexTestRunner extends BlockJUnit4ClassRunner {
   }
 
   private String invokeJflex() {
-    if (Options.encoding == null) {
+    if (Options.get().encoding == null) {
       OptionUtils.setDefaultOptions();
     }
-    Options.jlex = spec.jlexCompat();
-    Options.dump = spec.dump();
-    Options.verbose = !spec.quiet();
+    Options.get().jlex = spec.jlexCompat();
+    Options.get().dump = spec.dump();
+    Options.get().verbose = !spec.quiet();
     LexGenerator lexGenerator = new LexGenerator(new File(spec.lex()));
     String lexerJavaFileName = checkNotNull(lexGenerator.generate());
     if (spec.minimizedDfaStatesCount() > 0) {
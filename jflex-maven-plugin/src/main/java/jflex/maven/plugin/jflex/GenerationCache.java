@@ -0,0 +1,182 @@
+/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+ * JFlex Maven3 plugin                                                     *
+ * Copyright (c) 2007-2017  Régis Décamps <decamps@users.sf.net>           *
+ * All rights reserved.                                                    *
+ *                                                                         *
+ * License: BSD                                                            *
+ *                                                                         *
+ * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+package jflex.maven.plugin.jflex;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
+import com.google.common.io.MoreFiles;
+import com.google.common.io.RecursiveDeleteOption;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import javax.annotation.Nullable;
+import jflex.base.Build;
+
+/**
+ * Cache of generated scanners, keyed by a hash of everything that determines the generated code:
+ * the grammar file, its included files, the skeleton, the JFlex version, and the options.
+ *
+ * <p>Each entry is a directory named by its key, which contains the generated files. Entries are
+ * written to a temporary directory first and then renamed, so that several builds can share one
+ * cache directory.
+ */
+class GenerationCache {
+
+  /** Suffix of the binary table resource of scanners with {@code %tableresource}. */
+  private static final String TABLES_SUFFIX = ".tables";
+
+  private final File directory;
+
+  GenerationCache(File directory) {
+    this.directory = directory;
+  }
+
+  /**
+   * Computes the key of a grammar file.
+   *
+   * @param lexFile the grammar file
+   * @param path the path of the grammar file relative to the project, which is mentioned in the
+   *     generated code
+   * @param includedFiles the files included by the grammar file
+   * @param skeleton the skeleton file, or {@code null} for the default skeleton
+   * @param options the options that influence the generated code
+   * @return the key, a hex string
+   * @throws IOException if one of the files cannot be read
+   */
+  static String key(
+      File lexFile,
+      String path,
+      Iterable<File> includedFiles,
+      @Nullable File skeleton,
+      String options)
+      throws IOException {
+    Hasher hasher = Hashing.sha256().newHasher();
+    putString(hasher, Build.VERSION);
+    putString(hasher, options);
+    putString(hasher, path);
+    putBytes(hasher, Files.toByteArray(lexFile));
+
+    TreeSet<File> sorted = new TreeSet<>();
+    for (File file : includedFiles) {
+      sorted.add(file);
+    }
+    for (File file : sorted) {
+      putString(hasher, file.getPath());
+      if (file.isFile()) {
+        putBytes(hasher, Files.toByteArray(file));
+      } else {
+        hasher.putInt(-1);
+      }
+    }
+
+    if (skeleton == null) {
+      hasher.putInt(-1);
+    } else {
+      putBytes(hasher, Files.toByteArray(skeleton));
+    }
+    return hasher.hash().toString();
+  }
+
+  private static void putString(Hasher hasher, String s) {
+    putBytes(hasher, s.getBytes(UTF_8));
+  }
+
+  private static void putBytes(Hasher hasher, byte[] bytes) {
+    hasher.putInt(bytes.length);
+    hasher.putBytes(bytes);
+  }
+
+  /**
+   * Copies the files of an entry to a directory.
+   *
+   * @param key the key of the entry
+   * @param outputDir the directory to copy the files to
+   * @param backup whether to keep an existing file as a backup copy with {@code ~} appended to its
+   *     name, as JFlex does when it generates the file
+   * @return whether there is an entry for the key
+   * @throws IOException if the files cannot be copied
+   */
+  boolean restore(String key, File outputDir, boolean backup) throws IOException {
+    File[] files = new File(directory, key).listFiles();
+    if (files == null) {
+      return false;
+    }
+    if (!outputDir.isDirectory() && !outputDir.mkdirs()) {
+      throw new IOException("Cannot create directory " + outputDir);
+    }
+    for (File file : files) {
+      File outputFile = new File(outputDir, file.getName());
+      if (backup && outputFile.exists()) {
+        Files.move(outputFile, new File(outputDir, file.getName() + "~"));
+      }
+      Files.copy(file, outputFile);
+    }
+    return true;
+  }
+
+  /**
+   * Stores the files generated from a grammar file, unless there is an entry for the key already.
+   *
+   * @param key the key of the entry
+   * @param generatedFile the generated Java file
+   * @throws IOException if the entry cannot be written
+   */
+  void store(String key, File generatedFile) throws IOException {
+    File entry = new File(directory, key);
+    if (entry.isDirectory()) {
+      return;
+    }
+    if (!directory.isDirectory() && !directory.mkdirs()) {
+      throw new IOException("Cannot create directory " + directory);
+    }
+
+    File tmp = java.nio.file.Files.createTempDirectory(directory.toPath(), key).toFile();
+    for (File file : generatedFiles(generatedFile)) {
+      Files.copy(file, new File(tmp, file.getName()));
+    }
+    try {
+      java.nio.file.Files.move(tmp.toPath(), entry.toPath(), StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      // another build stored the same entry in the meantime
+      try {
+        MoreFiles.deleteRecursively(tmp.toPath(), RecursiveDeleteOption.ALLOW_INSECURE);
+      } catch (IOException cleanup) {
+        e.addSuppressed(cleanup);
+        throw e;
+      }
+      if (!entry.isDirectory()) {
+        throw e;
+      }
+    }
+  }
+
+  /**
+   * The files generated together with a Java file: the file itself and the table resource it loads,
+   * if any.
+   */
+  static List<File> generatedFiles(File generatedFile) throws IOException {
+    List<File> files = new ArrayList<>();
+    files.add(generatedFile);
+
+    String name = generatedFile.getName();
+    String tablesName = name.substring(0, name.lastIndexOf('.')) + TABLES_SUFFIX;
+    File tables = new File(generatedFile.getParentFile(), tablesName);
+    if (tables.isFile()
+        && Files.asCharSource(generatedFile, UTF_8).read().contains('"' + tablesName + '"')) {
+      files.add(tables);
+    }
+    return files;
+  }
+}
@@ -19,12 +19,17 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import javax.annotation.Nullable;
 import jflex.core.OptionUtils;
-import jflex.generator.LexGenerator;
+import jflex.generator.GeneratorContext;
+import jflex.generator.ParallelGenerator;
 import jflex.option.Options;
+import org.apache.maven.model.Resource;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
@@ -38,7 +43,7 @@ import org.apache.maven.project.MavenProject;
  *
  * @author Régis Décamps (decamps@users.sf.net)
  */
-@Mojo(name = "generate", defaultPhase = LifecyclePhase.GENERATE_SOURCES, threadSafe = false)
+@Mojo(name = "generate", defaultPhase = LifecyclePhase.GENERATE_SOURCES, threadSafe = true)
 public class JFlexMojo extends AbstractMojo {
   /** Name of the directory where to look for jflex files by default. */
   private static final String SRC_MAIN_JFLEX = "src/main/jflex";
@@ -103,6 +108,24 @@ public class JFlexMojo extends AbstractMojo {
   @Parameter(defaultValue = "true")
   private boolean minimize = true; // NOPMD
 
+  /** The number of threads for the NFA to DFA conversion. */
+  @Parameter(defaultValue = "1")
+  private int threads = 1;
+
+  /** The number of grammar files to generate in parallel. */
+  @Parameter(defaultValue = "1")
+  private int jobs = 1;
+
+  /**
+   * Directory of the generation cache. Generated files are stored there under a hash of the grammar
+   * file, its included files, the skeleton, the JFlex version and the options. When a grammar file
+   * needs regeneration, but the cache has an entry for its hash, the generated files are copied
+   * from the cache instead of running JFlex. Several projects can share one cache directory. The
+   * cache is not used if this is not set or {@link #dot} is true.
+   */
+  @Parameter(defaultValue = "${project.build.directory}/jflex-cache")
+  private File cacheDirectory;
+
   /**
    * A flag whether to enable the generation of a backup copy if the generated source file already
    * exists.
@@ -126,15 +149,25 @@ public class JFlexMojo extends AbstractMojo {
   /**
    * Generate java parsers from lexer definition files.
    *
-   * <p>This methods is checks parameters, sets options and calls JFlex.Main.generate()
+   * <p>This methods is checks parameters, sets options and generates all grammar files that are not
+   * up to date, on up to {@code jobs} threads.
    */
   public void execute() throws MojoExecutionException, MojoFailureException {
+    if (jobs < 1) {
+      throw new MojoExecutionException("jobs must be a positive number: " + jobs);
+    }
     this.outputDirectory = getAbsolutePath(this.outputDirectory);
 
     // compiling the generated source in target/generated-sources/ is
     // the whole point of this plugin compared to running the ant plugin
     project.addCompileSourceRoot(outputDirectory.getPath());
 
+    // binary tables of scanners with %tableresource are loaded from the class path
+    Resource tables = new Resource();
+    tables.setDirectory(outputDirectory.getPath());
+    tables.addInclude("**/*.tables");
+    project.addResource(tables);
+
     List<File> filesIt;
     if (lexDefinitions == null) {
       // use default lexfiles if none provided
@@ -154,10 +187,33 @@ public class JFlexMojo extends AbstractMojo {
                   + lexDefinitions.length
                   + " jflex files or directories given in configuration");
     }
+    GenerationCache cache = null;
+    if (cacheDirectory != null && !dot) {
+      cache = new GenerationCache(getAbsolutePath(cacheDirectory));
+    }
+
     // process all lexDefinitions
+    ParallelGenerator generator = new ParallelGenerator(jobs);
+    Map<File, String> generatedFiles = new LinkedHashMap<>();
     for (File lexDefinition : filesIt) {
       lexDefinition = getAbsolutePath(lexDefinition);
-      parseLexDefinition(lexDefinition);
+      parseLexDefinition(lexDefinition, cache, generator, generatedFiles);
+    }
+
+    try {
+      generator.generate();
+    } catch (Exception e) {
+      throw new MojoExecutionException(e.getMessage(), e);
+    }
+    for (Map.Entry<File, String> generated : generatedFiles.entrySet()) {
+      getLog().info("  generated " + generated.getKey());
+      if (cache != null && generated.getValue() != null) {
+        try {
+          cache.store(generated.getValue(), generated.getKey());
+        } catch (IOException e) {
+          getLog().warn("Cannot store " + generated.getKey().getName() + " in cache: " + e);
+        }
+      }
     }
   }
 
@@ -167,10 +223,17 @@ public class JFlexMojo extends AbstractMojo {
    * <p>If the {@code lexDefinition} is a directory, process all lexer files contained within.
    *
    * @param lexDefinition Lexer definiton file or directory to process.
+   * @param cache the generation cache, or {@code null}
+   * @param generator receives the lexer files that need to be generated
+   * @param generatedFiles receives the files that will be generated, with their cache keys
    * @throws MojoFailureException if the file is not found.
    * @throws MojoExecutionException if file could not be parsed
    */
-  private void parseLexDefinition(File lexDefinition)
+  private void parseLexDefinition(
+      File lexDefinition,
+      @Nullable GenerationCache cache,
+      ParallelGenerator generator,
+      Map<File, String> generatedFiles)
       throws MojoFailureException, MojoExecutionException {
     assert lexDefinition.isAbsolute() : lexDefinition;
 
@@ -182,14 +245,19 @@ public class JFlexMojo extends AbstractMojo {
               Files.fileTraverser().depthFirstPreOrder(lexDefinition),
               new ExtensionPredicate("jflex", "jlex", "lex", "flex"));
       for (File lexFile : files) {
-        parseLexFile(lexFile);
+        parseLexFile(lexFile, cache, generator, generatedFiles);
       }
     } else {
-      parseLexFile(lexDefinition);
+      parseLexFile(lexDefinition, cache, generator, generatedFiles);
     }
   }
 
-  private void parseLexFile(File lexFile) throws MojoFailureException, MojoExecutionException {
+  private void parseLexFile(
+      File lexFile,
+      @Nullable GenerationCache cache,
+      ParallelGenerator generator,
+      Map<File, String> generatedFiles)
+      throws MojoFailureException, MojoExecutionException {
     assert lexFile.isAbsolute() : lexFile;
 
     getLog().debug("Generating Java code from " + lexFile.getName());
@@ -209,40 +277,84 @@ public class JFlexMojo extends AbstractMojo {
       return;
     }
 
-    // set options. Very strange that JFlex expects this in a static way.
-    OptionUtils.setDefaultOptions();
-    OptionUtils.setDir(generatedFile.getParentFile());
-    Options.setRootDirectory(project.getBasedir());
-    Options.dump = dump;
-    Options.verbose = verbose;
-    Options.unused_warning = unusedWarning;
-    Options.dot = dot;
-    Options.legacy_dot = legacyDot;
-    if (skeleton != null) {
-      OptionUtils.setSkeleton(skeleton);
-    }
-    Options.jlex = jlex;
-
-    Options.no_minimize = !minimize; // NOPMD
-    Options.no_backup = !backup; // NOPMD
     if (!Objects.equals("pack", generationMethod)) {
       throw new MojoExecutionException("Illegal generation method: " + generationMethod);
     }
 
-    if (!isNullOrEmpty(encodingName)) {
+    // restore from cache if possible
+    String cacheKey = null;
+    if (cache != null) {
       try {
-        OptionUtils.setEncoding(encodingName);
-      } catch (Exception e) {
-        throw new MojoExecutionException(e.getMessage());
+        cacheKey = cacheKey(lexFile, specInfo);
+        if (cache.restore(cacheKey, generatedFile.getParentFile(), backup)) {
+          getLog().info("  " + generatedFile.getName() + " restored from cache.");
+          return;
+        }
+      } catch (IOException e) {
+        getLog().warn("Cannot use cache for " + lexFile.getName() + ": " + e);
+        cacheKey = null;
       }
     }
 
+    // set options in a context of their own, so that several files and several
+    // executions of this plugin can be generated at the same time
+    GeneratorContext context = new GeneratorContext();
     try {
-      new LexGenerator(lexFile).generate();
-      getLog().info("  generated " + generatedFile);
+      context.run(
+          () -> {
+            OptionUtils.setDefaultOptions();
+            OptionUtils.setDir(generatedFile.getParentFile());
+            Options.setRootDirectory(project.getBasedir());
+            Options.get().dump = dump;
+            Options.get().verbose = verbose;
+            Options.get().unused_warning = unusedWarning;
+            Options.get().dot = dot;
+            Options.get().legacy_dot = legacyDot;
+            if (skeleton != null) {
+              OptionUtils.setSkeleton(skeleton);
+            }
+            Options.get().jlex = jlex;
+
+            Options.get().no_minimize = !minimize; // NOPMD
+            OptionUtils.setThreads(threads);
+            Options.get().no_backup = !backup; // NOPMD
+
+            if (!isNullOrEmpty(encodingName)) {
+              OptionUtils.setEncoding(encodingName);
+            }
+          });
     } catch (Exception e) {
       throw new MojoExecutionException(e.getMessage(), e);
     }
+
+    generator.add(lexFile, context);
+    generatedFiles.put(generatedFile, cacheKey);
+  }
+
+  /**
+   * Computes the cache key of a lexer file from its content, the content of its included files and
+   * the skeleton, and the options that influence the generated code.
+   */
+  private String cacheKey(File lexFile, SpecInfo specInfo) throws IOException {
+    String path;
+    try {
+      path = project.getBasedir().toPath().relativize(lexFile.toPath()).toString();
+    } catch (IllegalArgumentException e) {
+      // different file system roots
+      path = lexFile.getPath();
+    }
+    String options =
+        "jlex="
+            + jlex
+            + ",legacyDot="
+            + legacyDot
+            + ",minimize="
+            + minimize
+            + ",encoding="
+            + encodingName
+            + ",generationMethod="
+            + generationMethod;
+    return GenerationCache.key(lexFile, path, specInfo.includedFiles, skeleton, options);
   }
 
   private SpecInfo findSpecInfo(File lexFile) throws MojoFailureException {
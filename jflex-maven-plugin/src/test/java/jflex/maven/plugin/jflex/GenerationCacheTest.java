@@ -0,0 +1,115 @@
+/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+ * JFlex Maven3 plugin                                                     *
+ * Copyright (c) 2007-2017  Régis Décamps <decamps@users.sf.net>           *
+ * All rights reserved.                                                    *
+ *                                                                         *
+ * License: BSD                                                            *
+ *                                                                         *
+ * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+package jflex.maven.plugin.jflex;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.Files;
+import java.io.File;
+import java.io.IOException;
+import org.junit.Before;
+import org.junit.Test;
+
+public class GenerationCacheTest {
+
+  private File dir;
+  private File spec;
+  private File include;
+
+  @Before
+  public void setUp() throws IOException {
+    dir = java.nio.file.Files.createTempDirectory("jflex-cache-test").toFile();
+    spec = write("spec.flex", "%%\n%include inc.flexh\n%%\n");
+    include = write("inc.flexh", "%int\n");
+  }
+
+  private File write(String name, String content) throws IOException {
+    File file = new File(dir, name);
+    file.getParentFile().mkdirs();
+    Files.asCharSink(file, UTF_8).write(content);
+    return file;
+  }
+
+  private String key() throws IOException {
+    return GenerationCache.key(spec, "spec.flex", ImmutableList.of(include), null, "jlex=false");
+  }
+
+  @Test
+  public void keyDependsOnAllInputs() throws IOException {
+    String key = key();
+    assertThat(key()).isEqualTo(key);
+    assertThat(
+            GenerationCache.key(spec, "other.flex", ImmutableList.of(include), null, "jlex=false"))
+        .isNotEqualTo(key);
+    assertThat(GenerationCache.key(spec, "spec.flex", ImmutableList.of(include), null, "jlex=true"))
+        .isNotEqualTo(key);
+    assertThat(
+            GenerationCache.key(spec, "spec.flex", ImmutableList.of(include), spec, "jlex=false"))
+        .isNotEqualTo(key);
+
+    write("inc.flexh", "%char\n");
+    String includeChanged = key();
+    assertThat(includeChanged).isNotEqualTo(key);
+
+    write("spec.flex", "%%\n%%\n");
+    assertThat(key()).isNotEqualTo(includeChanged);
+  }
+
+  @Test
+  public void storeAndRestore() throws IOException {
+    GenerationCache cache = new GenerationCache(new File(dir, "cache"));
+    File java = write("out/Scanner.java", "class Scanner { String r = \"Scanner.tables\"; }");
+    File tables = write("out/Scanner.tables", "tables");
+    write("out/Other.java", "class Other {}");
+
+    assertThat(cache.restore("k", new File(dir, "restored"), false)).isFalse();
+    cache.store("k", java);
+    // a second store of the same key keeps the entry
+    cache.store("k", java);
+
+    File restored = new File(dir, "restored");
+    assertThat(cache.restore("k", restored, false)).isTrue();
+    assertThat(restored.list()).asList().containsExactly("Scanner.java", "Scanner.tables");
+    assertThat(Files.asCharSource(new File(restored, "Scanner.tables"), UTF_8).read())
+        .isEqualTo("tables");
+    assertThat(GenerationCache.generatedFiles(java)).containsExactly(java, tables);
+  }
+
+  @Test
+  public void restoreKeepsBackup() throws IOException {
+    GenerationCache cache = new GenerationCache(new File(dir, "cache"));
+    File java = write("out/Scanner.java", "class Scanner {}");
+    cache.store("k", java);
+    write("restored/Scanner.java", "class Old {}");
+    write("restored/Scanner.java~", "class Older {}");
+
+    File restored = new File(dir, "restored");
+    assertThat(cache.restore("k", restored, true)).isTrue();
+    assertThat(Files.asCharSource(new File(restored, "Scanner.java"), UTF_8).read())
+        .isEqualTo("class Scanner {}");
+    assertThat(Files.asCharSource(new File(restored, "Scanner.java~"), UTF_8).read())
+        .isEqualTo("class Old {}");
+
+    write("restored/Scanner.java", "class Old {}");
+    assertThat(cache.restore("k", restored, false)).isTrue();
+    assertThat(Files.asCharSource(new File(restored, "Scanner.java~"), UTF_8).read())
+        .isEqualTo("class Old {}");
+    assertThat(Files.asCharSource(new File(restored, "Scanner.java"), UTF_8).read())
+        .isEqualTo("class Scanner {}");
+  }
+
+  @Test
+  public void tablesOnlyIfReferenced() throws IOException {
+    File java = write("out/Scanner.java", "class Scanner {}");
+    write("out/Scanner.tables", "stale");
+    assertThat(GenerationCache.generatedFiles(java)).containsExactly(java);
+  }
+}
@@ -10,8 +10,10 @@ package jflex.maven.plugin.jflex;
 
 import static com.google.common.truth.Truth.assertThat;
 import static com.google.common.truth.Truth.assertWithMessage;
+import static java.nio.charset.StandardCharsets.UTF_8;
 
 import com.google.common.base.Predicate;
+import com.google.common.io.Files;
 import java.io.File;
 import java.io.IOException;
 import org.apache.maven.plugin.testing.MojoRule;
@@ -68,8 +70,8 @@ public class JFlexMojoTest {
      * terminator. For this reason, the generated output will be longer on a
      * Windows platform ("\r\n") than on a Unix platform ("\n").
      */
-    boolean correctSize = (size > 26624) && (size < 36696);
-    assertWithMessage("size of produced file between 26k and 36k. Actual is " + size)
+    boolean correctSize = (size > 26624) && (size < 40960);
+    assertWithMessage("size of produced file between 26k and 40k. Actual is " + size)
         .that(correctSize)
         .isTrue();
   }
@@ -94,6 +96,33 @@ public class JFlexMojoTest {
     assertWithMessage("produced file is a file: " + produced).that(produced.isFile()).isTrue();
   }
 
+  /** Tests that a generated file is restored from the cache instead of generated again. */
+  @Test
+  public void testCache() throws Exception {
+    JFlexMojo mojo = newMojo("single-file-test");
+    File cacheDir = java.nio.file.Files.createTempDirectory("jflex-cache").toFile();
+    mojoRule.setVariableValueToObject(mojo, "cacheDirectory", cacheDir);
+    File produced = getExpectedOutputFile(mojo);
+    produced.delete();
+    mojo.execute();
+
+    File[] entries = cacheDir.listFiles();
+    assertThat(entries).hasLength(1);
+    File cached = new File(entries[0], "JAMWikiPreProcessor.java");
+    assertThat(cached.isFile()).isTrue();
+
+    // mark the cache entry to tell a restored file from a generated one
+    Files.asCharSink(cached, UTF_8).write("// cached");
+    assertThat(produced.delete()).isTrue();
+
+    mojo = newMojo("single-file-test");
+    mojoRule.setVariableValueToObject(mojo, "cacheDirectory", cacheDir);
+    mojo.execute();
+    assertThat(Files.asCharSource(produced, UTF_8).read()).isEqualTo("// cached");
+    // the output directory is shared with the other tests
+    produced.delete();
+  }
+
   @Test
   public void extensionPredicate() {
     Predicate<File> predicate = new JFlexMojo.ExtensionPredicate("bar", "baz");
@@ -27,6 +27,7 @@ import jflex.core.unicode.UnicodeProperties;
 import jflex.exceptions.GeneratorException;
 import jflex.exceptions.SilentExit;
 import jflex.generator.LexGenerator;
+import jflex.generator.ParallelGenerator;
 import jflex.gui.MainFrame;
 import jflex.l10n.ErrorMessages;
 import jflex.logging.Out;
@@ -87,49 +88,79 @@ public class Main {
         continue;
       }
 
+      if (Objects.equals(argv[i], "--threads")) {
+        if (++i >= argv.length) {
+          Out.error(ErrorMessages.NO_THREADS);
+          throw new GeneratorException();
+        }
+
+        try {
+          OptionUtils.setThreads(Integer.parseInt(argv[i]));
+        } catch (NumberFormatException e) {
+          Out.error(ErrorMessages.NO_THREADS);
+          throw new GeneratorException(e);
+        }
+        continue;
+      }
+
+      if (Objects.equals(argv[i], "--jobs")) {
+        if (++i >= argv.length) {
+          Out.error(ErrorMessages.NO_JOBS);
+          throw new GeneratorException();
+        }
+
+        try {
+          OptionUtils.setJobs(Integer.parseInt(argv[i]));
+        } catch (NumberFormatException e) {
+          Out.error(ErrorMessages.NO_JOBS);
+          throw new GeneratorException(e);
+        }
+        continue;
+      }
+
       if (Objects.equals(argv[i], "-jlex")
           || Objects.equals(argv[i], "--jlex")) { // $NON-NLS-1$ //$NON-NLS-2$
-        Options.jlex = true;
+        Options.get().jlex = true;
         continue;
       }
 
       if (Objects.equals(argv[i], "-v")
           || Objects.equals(argv[i], "--verbose")
           || Objects.equals(argv[i], "-verbose")) { // $NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
-        Options.verbose = true;
-        Options.progress = true;
-        Options.unused_warning = true;
+        Options.get().verbose = true;
+        Options.get().progress = true;
+        Options.get().unused_warning = true;
         continue;
       }
 
       if (Objects.equals(argv[i], "-q")
           || Objects.equals(argv[i], "--quiet")
           || Objects.equals(argv[i], "-quiet")) { // $NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
-        Options.verbose = false;
-        Options.progress = false;
-        Options.unused_warning = false;
+        Options.get().verbose = false;
+        Options.get().progress = false;
+        Options.get().unused_warning = false;
         continue;
       }
 
       if (Objects.equals(argv[i], "--warn-unused")) { // $NON-NLS-1$
-        Options.unused_warning = true;
+        Options.get().unused_warning = true;
         continue;
       }
 
       if (Objects.equals(argv[i], "--no-warn-unused")) { // $NON-NLS-1$
-        Options.unused_warning = false;
+        Options.get().unused_warning = false;
         continue;
       }
 
       if (Objects.equals(argv[i], "--dump")
           || Objects.equals(argv[i], "-dump")) { // $NON-NLS-1$ //$NON-NLS-2$
-        Options.dump = true;
+        Options.get().dump = true;
         continue;
       }
 
       if (Objects.equals(argv[i], "--time")
           || Objects.equals(argv[i], "-time")) { // $NON-NLS-1$ //$NON-NLS-2$
-        Options.time = true;
+        Options.get().time = true;
         continue;
       }
 
@@ -141,7 +172,7 @@ public class Main {
 
       if (Objects.equals(argv[i], "--dot")
           || Objects.equals(argv[i], "-dot")) { // $NON-NLS-1$ //$NON-NLS-2$
-        Options.dot = true;
+        Options.get().dot = true;
         continue;
       }
 
@@ -160,7 +191,7 @@ public class Main {
 
       if (Objects.equals(argv[i], "--nomin")
           || Objects.equals(argv[i], "-nomin")) { // $NON-NLS-1$ //$NON-NLS-2$
-        Options.no_minimize = true;
+        Options.get().no_minimize = true;
         continue;
       }
 
@@ -172,13 +203,13 @@ public class Main {
 
       if (Objects.equals(argv[i], "--nobak")
           || Objects.equals(argv[i], "-nobak")) { // $NON-NLS-1$ //$NON-NLS-2$
-        Options.no_backup = true;
+        Options.get().no_backup = true;
         continue;
       }
 
       if (Objects.equals(argv[i], "--legacydot")
           || Objects.equals(argv[i], "-legacydot")) { // $NON-NLS-1$ //$NON-NLS-2$
-        Options.legacy_dot = true;
+        Options.get().legacy_dot = true;
         continue;
       }
 
@@ -288,6 +319,8 @@ public class Main {
     Out.println("--legacydot        dot (.) metachar matches [^\\n] instead of");
     Out.println("                   [^\\n\\r\\u000B\\u000C\\u0085\\u2028\\u2029]");
     Out.println("--nomin            skip minimization step");
+    Out.println("--threads <n>      use <n> threads for the NFA to DFA conversion");
+    Out.println("--jobs <n>         generate up to <n> input files in parallel");
     Out.println("--nobak            don't create backup files");
     Out.println("--dump             display transition tables");
     Out.println("--dot              write graphviz .dot files for the generated automata (alpha)");
@@ -315,7 +348,13 @@ public class Main {
   public static void generate(String[] argv) throws SilentExit {
     List<File> files = parseOptions(argv);
 
-    if (files.size() > 0) {
+    if (files.size() > 1 && Options.get().jobs > 1) {
+      ParallelGenerator generator = new ParallelGenerator(Options.get().jobs);
+      for (File file : files) {
+        generator.add(file);
+      }
+      generator.generate();
+    } else if (files.size() > 0) {
       for (File file : files) {
         new LexGenerator(file).generate();
       }
@@ -20,8 +20,8 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import jflex.core.OptionUtils;
 import jflex.exceptions.GeneratorException;
+import jflex.generator.GeneratorContext;
 import jflex.generator.LexGenerator;
-import jflex.option.Options;
 import org.apache.tools.ant.BuildException;
 import org.apache.tools.ant.Task;
 
@@ -47,13 +47,16 @@ public class JFlexTask extends Task {
   /** the actual output directory (outputDir = destinationDir + package)) */
   private File outputDir = null;
 
+  /** options, skeleton and messages of this task */
+  private final GeneratorContext context = new GeneratorContext(System.out);
+
   /** Constructor for JFlexTask. */
   public JFlexTask() {
-    OptionUtils.setDefaultOptions();
+    context.run(OptionUtils::setDefaultOptions);
     // ant default is different from the rest of JFlex
     setVerbose(false);
     setUnusedWarning(true);
-    Options.progress = false;
+    context.getOptions().progress = false;
   }
 
   /**
@@ -75,8 +78,8 @@ public class JFlexTask extends Task {
         File destFile = new File(outputDir, className + ".java");
 
         if (inputFile.lastModified() > destFile.lastModified()) {
-          new LexGenerator(inputFile).generate();
-          if (!Options.verbose) System.out.println("Generated: " + destFile.getName());
+          context.run(() -> new LexGenerator(inputFile).generate());
+          if (!context.getOptions().verbose) System.out.println("Generated: " + destFile.getName());
         }
       } catch (IOException e1) {
         throw new BuildException(e1);
@@ -175,6 +178,16 @@ public class JFlexTask extends Task {
     return className;
   }
 
+  /**
+   * Getter for the field {@code context}. Each task has its own options, so several tasks can run
+   * in parallel.
+   *
+   * @return options, skeleton and messages of this task
+   */
+  public GeneratorContext getContext() {
+    return context;
+  }
+
   /**
    * setDestdir.
    *
@@ -191,7 +204,7 @@ public class JFlexTask extends Task {
    */
   public void setOutdir(File outDir) {
     this.outputDir = outDir;
-    OptionUtils.setDir(outputDir);
+    context.run(() -> OptionUtils.setDir(outputDir));
   }
 
   /**
@@ -218,7 +231,7 @@ public class JFlexTask extends Task {
    * @param displayTime a boolean.
    */
   public void setTimeStatistics(boolean displayTime) {
-    Options.time = displayTime;
+    context.getOptions().time = displayTime;
   }
 
   /**
@@ -236,8 +249,8 @@ public class JFlexTask extends Task {
    * @param verbose a boolean.
    */
   public final void setVerbose(boolean verbose) {
-    Options.verbose = verbose;
-    Options.unused_warning = verbose;
+    context.getOptions().verbose = verbose;
+    context.getOptions().unused_warning = verbose;
   }
 
   /**
@@ -246,7 +259,7 @@ public class JFlexTask extends Task {
    * @param warn a boolean.
    */
   public final void setUnusedWarning(boolean warn) {
-    Options.unused_warning = warn;
+    context.getOptions().unused_warning = warn;
   }
 
   /**
@@ -255,7 +268,7 @@ public class JFlexTask extends Task {
    * @param skeleton a {@link java.io.File} object.
    */
   public void setSkeleton(File skeleton) {
-    OptionUtils.setSkeleton(skeleton);
+    context.run(() -> OptionUtils.setSkeleton(skeleton));
   }
 
   /**
@@ -282,7 +295,16 @@ public class JFlexTask extends Task {
    * @param b a boolean.
    */
   public void setNomin(boolean b) {
-    Options.no_minimize = b;
+    context.getOptions().no_minimize = b;
+  }
+
+  /**
+   * setThreads.
+   *
+   * @param threads the number of threads for the NFA to DFA conversion.
+   */
+  public void setThreads(int threads) {
+    context.run(() -> OptionUtils.setThreads(threads));
   }
 
   /**
@@ -291,7 +313,7 @@ public class JFlexTask extends Task {
    * @param b a boolean.
    */
   public void setNobak(boolean b) {
-    Options.no_backup = b;
+    context.getOptions().no_backup = b;
   }
 
   /**
@@ -309,7 +331,7 @@ public class JFlexTask extends Task {
    * @param b a boolean.
    */
   public void setDot(boolean b) {
-    Options.dot = b;
+    context.getOptions().dot = b;
   }
 
   /**
@@ -318,7 +340,7 @@ public class JFlexTask extends Task {
    * @param b a boolean.
    */
   public void setDump(boolean b) {
-    Options.dump = b;
+    context.getOptions().dump = b;
   }
 
   /**
@@ -327,7 +349,7 @@ public class JFlexTask extends Task {
    * @param b a boolean.
    */
   public void setJLex(boolean b) {
-    Options.jlex = b;
+    context.getOptions().jlex = b;
   }
 
   /**
@@ -336,7 +358,7 @@ public class JFlexTask extends Task {
    * @param b a boolean.
    */
   public void setLegacyDot(boolean b) {
-    Options.legacy_dot = b;
+    context.getOptions().legacy_dot = b;
   }
 
   /**
@@ -345,6 +367,6 @@ public class JFlexTask extends Task {
    * @param encodingName the name of the encoding to set (e.g. "utf-8").
    */
   public void setEncoding(String encodingName) {
-    OptionUtils.setEncoding(encodingName);
+    context.run(() -> OptionUtils.setEncoding(encodingName));
   }
 }
@@ -8,6 +8,7 @@ import java.util.Deque;
 import java.util.List;
 import java.util.Set;
 import java_cup.runtime.Symbol;
+import jflex.core.unicode.CMapBlock;
 import jflex.core.unicode.CharClasses;
 import jflex.core.unicode.ILexScan;
 import jflex.core.unicode.UnicodeProperties;
@@ -56,6 +57,17 @@ public abstract class AbstractLexScan implements ILexScan {
   boolean standalone;
   boolean debugOption;
   boolean eofclose;
+  boolean utf8;
+  boolean tableResource;
+  boolean batch;
+  boolean push;
+  boolean parallel;
+  boolean incremental;
+
+  CodeGenMethod codeGen = CodeGenMethod.TABLE;
+
+  /** Block size of the character map in bits, or 0 to pick the one with the smallest tables. */
+  int cmapBits = CMapBlock.BLOCK_BITS;
 
   String isImplementing;
   String isExtending;
@@ -312,6 +324,38 @@ public abstract class AbstractLexScan implements ILexScan {
     return eofclose;
   };
 
+  public boolean utf8() {
+    return utf8;
+  }
+
+  public boolean tableResource() {
+    return tableResource;
+  }
+
+  public boolean batch() {
+    return batch;
+  }
+
+  public boolean push() {
+    return push;
+  }
+
+  public boolean parallel() {
+    return parallel;
+  }
+
+  public boolean incremental() {
+    return incremental;
+  }
+
+  public CodeGenMethod codeGen() {
+    return codeGen;
+  }
+
+  public int cmapBits() {
+    return cmapBits;
+  }
+
   public String isImplementing() {
     return isImplementing;
   };
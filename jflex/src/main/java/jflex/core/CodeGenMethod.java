@@ -0,0 +1,29 @@
+/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+ * JFlex 1.9.0-SNAPSHOT                                                    *
+ * Copyright (C) 1998-2018  Gerwin Klein <lsf@jflex.de>                    *
+ * All rights reserved.                                                    *
+ *                                                                         *
+ * License: BSD                                                            *
+ *                                                                         *
+ * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+package jflex.core;
+
+/**
+ * How the transition function of the DFA is coded in the generated scanner.
+ *
+ * <p>Selected by the {@code %codegen} option in the specification.
+ *
+ * @version JFlex 1.9.0-SNAPSHOT
+ */
+public enum CodeGenMethod {
+  /** Packed transition table {@code ZZ_TRANS}, indexed via {@code ZZ_ROWMAP}. (default) */
+  TABLE,
+  /** Nested {@code switch} statements over states and character classes. */
+  DIRECT,
+  /**
+   * Comb vector {@code ZZ_NEXT} of overlaid rows, indexed via {@code ZZ_BASE} and {@code ZZ_CHECK},
+   * with a default target per state in {@code ZZ_DEFAULT}.
+   */
+  COMB
+}
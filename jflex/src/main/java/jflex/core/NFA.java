@@ -15,6 +15,7 @@ import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -30,6 +31,7 @@ import jflex.logging.Out;
 import jflex.option.Options;
 import jflex.state.StateSet;
 import jflex.state.StateSetEnumerator;
+import jflex.state.StateSetPool;
 
 /**
  * Non-deterministic finite automata representation in JFlex.
@@ -42,10 +44,16 @@ import jflex.state.StateSetEnumerator;
 public final class NFA {
 
   /**
-   * table[current_state][next_char] is the set of states that can be reached from current_state
-   * with an input next_char
+   * The transitions of each state as triples {@code (first input, last input, target)}: state
+   * {@code s} has the triples {@code edges[s][3*i], edges[s][3*i+1], edges[s][3*i+2]} for {@code 0
+   * <= i < numEdges[s]}, sorted by first input. A transition on a range of consecutive inputs to
+   * the same target is one triple. {@code edges[s]} is {@code null} if {@code s} has no
+   * transitions.
    */
-  private StateSet[][] table;
+  private int[][] edges;
+
+  /** numEdges[state] is the number of transition triples of state */
+  private int[] numEdges;
 
   /**
    * epsilon[current_state] is the set of states that can be reached from current_state via epsilon
@@ -74,9 +82,6 @@ public final class NFA {
    */
   private int numLexStates;
 
-  /** estimated size of the NFA (before actual construction) */
-  private final int estSize;
-
   private CharClasses classes;
 
   private LexScan scanner;
@@ -85,16 +90,17 @@ public final class NFA {
   // will be reused by several methods (avoids excessive object creation)
   private final StateSetEnumerator states = new StateSetEnumerator();
   private final StateSet tempStateSet = new StateSet();
+  private final StateSet closureStateSet = new StateSet();
 
   /** Constructor for NFA. */
   public NFA(int numInput, int estSize) {
     this.numInput = numInput;
-    this.estSize = estSize;
     numStates = 0;
     epsilon = new StateSet[estSize];
     action = new Action[estSize];
     isFinal = new boolean[estSize];
-    table = new StateSet[estSize][numInput];
+    edges = new int[estSize][];
+    numEdges = new int[estSize];
   }
 
   /**
@@ -144,9 +150,116 @@ public final class NFA {
     return numStates;
   }
 
-  /** Returns the set of states that can be reached from currentState with an input nextChar. */
-  public StateSet reachableStates(int currentState, int nextChar) {
-    return table[currentState][nextChar];
+  /**
+   * Computes the transitions of a set of states for all inputs at once.
+   *
+   * @param set the states to start from
+   * @param moves the buffer to store the transitions in, replacing its previous content
+   */
+  public void moves(StateSet set, Moves moves) {
+    int[] count = moves.count;
+    int[] start = moves.start;
+    int[] inputs = moves.inputs;
+
+    for (int i = 0; i < moves.numInputs; i++) count[inputs[i]] = 0;
+    int numInputs = 0;
+    int total = 0;
+
+    // count the targets per input
+    StateSetEnumerator enumerator = moves.states;
+    enumerator.reset(set);
+    while (enumerator.hasMoreElements()) {
+      int s = enumerator.nextElement();
+      int[] e = edges[s];
+      for (int k = 0; k < 3 * numEdges[s]; k += 3) {
+        for (int c = e[k]; c <= e[k + 1]; c++) {
+          if (count[c]++ == 0) inputs[numInputs++] = c;
+        }
+        total += e[k + 1] - e[k] + 1;
+      }
+    }
+
+    Arrays.sort(inputs, 0, numInputs);
+    int pos = 0;
+    for (int i = 0; i < numInputs; i++) {
+      start[inputs[i]] = pos;
+      pos += count[inputs[i]];
+    }
+    if (moves.targets.length < total)
+      moves.targets = new int[Math.max(total, 2 * moves.targets.length)];
+
+    // store the targets, using start[] as fill pointer
+    int[] targets = moves.targets;
+    enumerator.reset(set);
+    while (enumerator.hasMoreElements()) {
+      int s = enumerator.nextElement();
+      int[] e = edges[s];
+      for (int k = 0; k < 3 * numEdges[s]; k += 3) {
+        for (int c = e[k]; c <= e[k + 1]; c++) targets[start[c]++] = e[k + 2];
+      }
+    }
+    for (int i = 0; i < numInputs; i++) start[inputs[i]] -= count[inputs[i]];
+
+    moves.numInputs = numInputs;
+  }
+
+  /**
+   * The transitions of a set of NFA states grouped by input, without epsilon closure, see {@link
+   * #moves(StateSet, Moves)}.
+   *
+   * <p>A {@code Moves} object is a buffer that is reused for many sets. It must not be used by
+   * several threads at the same time.
+   */
+  public static final class Moves {
+    /** count[input] is the number of targets of input, 0 for all inputs not in {@code inputs} */
+    private final int[] count;
+
+    /** the targets of input c are targets[start[c]] .. targets[start[c]+count[c]-1] */
+    private final int[] start;
+
+    private int[] targets = new int[16];
+
+    /** the inputs with transitions, ascending */
+    private final int[] inputs;
+
+    private int numInputs;
+
+    private final StateSetEnumerator states = new StateSetEnumerator();
+
+    /**
+     * Creates an empty buffer.
+     *
+     * @param numInput the number of inputs of the NFA
+     */
+    public Moves(int numInput) {
+      count = new int[numInput];
+      start = new int[numInput];
+      inputs = new int[numInput];
+    }
+
+    /** @return the number of inputs with transitions */
+    public int numInputs() {
+      return numInputs;
+    }
+
+    /**
+     * @param i an index {@code 0 <= i < numInputs()}
+     * @return the i-th input with transitions, in ascending order
+     */
+    public int input(int i) {
+      return inputs[i];
+    }
+
+    /**
+     * Adds the targets of the i-th input to a set.
+     *
+     * @param i an index {@code 0 <= i < numInputs()}
+     * @param set the set to add the targets to
+     */
+    public void addTargets(int i, StateSet set) {
+      int c = inputs[i];
+      for (int k = start[c]; k < start[c] + count[c]; k++) set.addState(targets[k]);
+    }
   }
 
   public StateSetEnumerator states() {
@@ -290,18 +403,17 @@ public final class NFA {
 
     boolean[] newFinal = new boolean[newStatesLength];
     Action[] newAction = new Action[newStatesLength];
-    StateSet[][] newTable = new StateSet[newStatesLength][numInput];
     StateSet[] newEpsilon = new StateSet[newStatesLength];
 
     System.arraycopy(isFinal, 0, newFinal, 0, numStates);
     System.arraycopy(action, 0, newAction, 0, numStates);
     System.arraycopy(epsilon, 0, newEpsilon, 0, numStates);
-    System.arraycopy(table, 0, newTable, 0, numStates);
 
     isFinal = newFinal;
     action = newAction;
     epsilon = newEpsilon;
-    table = newTable;
+    edges = Arrays.copyOf(edges, newStatesLength);
+    numEdges = Arrays.copyOf(numEdges, newStatesLength);
   }
 
   public void addTransition(int start, int input, int dest) {
@@ -313,8 +425,53 @@ public final class NFA {
 
     if (maxS > numStates) numStates = maxS;
 
-    if (table[start][input] != null) table[start][input].addState(dest);
-    else table[start][input] = new StateSet(estSize, dest);
+    int[] e = edges[start];
+    int n = 3 * numEdges[start];
+
+    for (int k = 0; k < n; k += 3) {
+      if (e[k + 2] == dest && e[k] <= input && input <= e[k + 1]) return;
+    }
+
+    // extend a range of consecutive inputs to the same target
+    for (int k = 0; k < n; k += 3) {
+      if (e[k + 2] == dest && e[k + 1] == input - 1) {
+        e[k + 1] = input;
+        return;
+      }
+    }
+
+    if (e == null) {
+      e = edges[start] = new int[6];
+    } else if (n == e.length) {
+      e = edges[start] = Arrays.copyOf(e, 2 * n);
+    }
+
+    // insert sorted by first input
+    int k = n;
+    while (k > 0 && e[k - 3] > input) {
+      e[k] = e[k - 3];
+      e[k + 1] = e[k - 2];
+      e[k + 2] = e[k - 1];
+      k -= 3;
+    }
+    e[k] = input;
+    e[k + 1] = input;
+    e[k + 2] = dest;
+    numEdges[start]++;
+  }
+
+  /** Returns the number of edges of {@code state}, each for a range of consecutive inputs. */
+  int numEdges(int state) {
+    return numEdges[state];
+  }
+
+  /** Returns whether {@code state} has a transition on {@code input}. */
+  private boolean hasTransition(int state, int input) {
+    int[] e = edges[state];
+    for (int k = 0; k < 3 * numEdges[state]; k += 3) {
+      if (e[k] <= input && input <= e[k + 1]) return true;
+    }
+    return false;
   }
 
   public void addEpsilonTransition(int start, int dest) {
@@ -322,8 +479,29 @@ public final class NFA {
     ensureCapacity(max);
     if (max > numStates) numStates = max;
 
-    if (epsilon[start] != null) epsilon[start].addState(dest);
-    else epsilon[start] = new StateSet(estSize, dest);
+    epsilon[start] = addState(epsilon[start], dest);
+  }
+
+  /**
+   * Adds {@code state} to a set of transition targets.
+   *
+   * <p>Most states have at most one target per input, so new sets are frozen singletons that do not
+   * allocate a bitset up to {@code state}. They are copied once more targets are added.
+   *
+   * @param set the targets so far, may be {@code null}
+   * @param state the target to add
+   * @return the set with {@code state} added, {@code set} itself if it was modifiable
+   */
+  private static StateSet addState(StateSet set, int state) {
+    if (set == null) return StateSet.singleton(state);
+    StateSet result = mutable(set);
+    result.addState(state);
+    return result;
+  }
+
+  /** Returns {@code set}, or a modifiable copy of it if it is frozen. */
+  private static StateSet mutable(StateSet set) {
+    return set.isFrozen() ? new StateSet(set) : set;
   }
 
   /**
@@ -366,69 +544,117 @@ public final class NFA {
   }
 
   /**
-   * Calculates the epsilon closure for a specified set of states.
+   * Replaces the epsilon transitions of each state by its epsilon closure.
    *
-   * <p>The epsilon closure for set a is the set of states that can be reached by epsilon edges from
-   * a.
+   * <p>The epsilon closure of a state is the set of states that can be reached from it by epsilon
+   * edges, including the state itself. All states of a strongly connected component of the epsilon
+   * graph have the same closure: the component plus the closures of the components it has edges to.
+   * Tarjan's algorithm finishes a component only after all components reachable from it, so each
+   * closure is computed once, in a single depth-first pass, from closures that are already final.
+   * The search is iterative, because long epsilon chains (e.g. large keyword alternatives) would
+   * overflow the call stack.
    *
-   * @param startState the start state for the set of states to calculate the epsilon closure for
-   * @return the epsilon closure of the specified set of states in this NFA
+   * <p>The closures are frozen and equal closures are shared.
    */
-  private StateSet closure(int startState) {
-
-    // Out.debug("Calculating closure of "+set);
-
-    StateSet notvisited = tempStateSet;
-    StateSet closure = new StateSet(numStates, startState);
-
-    notvisited.clear();
-    notvisited.addState(startState);
-
-    while (notvisited.containsElements()) {
-      // Out.debug("closure is now "+closure);
-      // Out.debug("notvisited is "+notvisited);
-      int state = notvisited.getAndRemoveElement();
-      // Out.debug("removed element "+state+" of "+notvisited);
-      // Out.debug("epsilon[states] = "+epsilon[state]);
-      notvisited.add(closure.complement(epsilon[state]));
-      closure.add(epsilon[state]);
+  public void epsilonFill() {
+    // epsilon successors in compressed form, epsilon[] is overwritten with closures below
+    int[] first = new int[numStates + 1];
+    int[] succ = new int[numStates];
+    int numSucc = 0;
+    for (int i = 0; i < numStates; i++) {
+      if (epsilon[i] != null) {
+        for (int t : epsilon[i]) {
+          if (numSucc == succ.length) succ = Arrays.copyOf(succ, 2 * numSucc);
+          succ[numSucc++] = t;
+        }
+      }
+      first[i + 1] = numSucc;
     }
 
-    // Out.debug("Closure is : "+closure);
-
-    return closure;
-  }
+    StateSetPool closures = new StateSetPool();
+    StateSet closure = closureStateSet;
+
+    int[] index = new int[numStates]; // dfs number + 1, 0 = not visited yet
+    int[] low = new int[numStates];
+    int[] component = new int[numStates]; // component number + 1, 0 = on stack or not visited
+    int[] stack = new int[numStates]; // Tarjan's stack of states without component
+    int[] path = new int[numStates]; // the dfs path
+    int[] next = new int[numStates]; // next successor to visit for each state on the path
+    int nextIndex = 1;
+    int numComponents = 0;
+
+    for (int root = 0; root < numStates; root++) {
+      if (index[root] != 0) continue;
+
+      int sp = 0;
+      int depth = 0;
+      path[depth++] = root;
+      next[root] = first[root];
+      index[root] = low[root] = nextIndex++;
+      stack[sp++] = root;
+
+      while (depth > 0) {
+        int v = path[depth - 1];
+        if (next[v] < first[v + 1]) {
+          int w = succ[next[v]++];
+          if (index[w] == 0) {
+            path[depth++] = w;
+            next[w] = first[w];
+            index[w] = low[w] = nextIndex++;
+            stack[sp++] = w;
+          } else if (component[w] == 0) {
+            low[v] = Math.min(low[v], index[w]);
+          }
+          continue;
+        }
 
-  public void epsilonFill() {
-    for (int i = 0; i < numStates; i++) {
-      epsilon[i] = closure(i);
+        depth--;
+        if (depth > 0) {
+          int parent = path[depth - 1];
+          low[parent] = Math.min(low[parent], low[v]);
+        }
+        if (low[v] != index[v]) continue;
+
+        // v is the root of a component; its members are on the stack down to v
+        int c = ++numComponents;
+        int bottom = sp;
+        do {
+          component[stack[--bottom]] = c;
+        } while (stack[bottom] != v);
+
+        closure.clear();
+        for (int k = bottom; k < sp; k++) {
+          int s = stack[k];
+          closure.addState(s);
+          for (int j = first[s]; j < first[s + 1]; j++) {
+            int t = succ[j];
+            if (component[t] != c) closure.add(epsilon[t]);
+          }
+        }
+        StateSet result = closures.intern(closure);
+        for (int k = bottom; k < sp; k++) epsilon[stack[k]] = result;
+        sp = bottom;
+      }
     }
   }
 
   /**
-   * Calculates the set of states that can be reached from another set of states {@code start} with
-   * an specified input character {@code input}
+   * Calculates the set of states that can be reached from a set of states with the i-th input of
+   * {@code moves}, including epsilon closure.
    *
-   * @param start the set of states to start from
-   * @param input the input character for which to search the next states
-   * @return the set of states that are reached from {@code start</code> via <code>input}
+   * @param moves the transitions of the set of states to start from
+   * @param i the index of the input in {@code moves}
+   * @return the set of states that are reached with the input
    */
-  private StateSet DFAEdge(StateSet start, int input) {
-    // Out.debug(String.format("Calculating DFAEdge for state set "+start+" and input U+04X"),
-    // input);
-
+  private StateSet DFAEdge(Moves moves, int i) {
     tempStateSet.clear();
-
-    states.reset(start);
-    while (states.hasMoreElements()) tempStateSet.add(table[states.nextElement()][input]);
+    moves.addTargets(i, tempStateSet);
 
     StateSet result = new StateSet(tempStateSet);
 
     states.reset(tempStateSet);
     while (states.hasMoreElements()) result.add(epsilon[states.nextElement()]);
 
-    // Out.debug("DFAEdge is : "+result);
-
     return result;
   }
 
@@ -439,6 +665,7 @@ public final class NFA {
   @Override
   public String toString() {
     StringBuilder result = new StringBuilder();
+    Moves moves = new Moves(numInput);
 
     for (int i = 0; i < numStates; i++) {
       result.append("State");
@@ -453,14 +680,16 @@ public final class NFA {
       }
       result.append(" ").append(i).append(Out.NL);
 
-      for (int input = 0; input < numInput; input++) {
-        if (table[i][input] != null && table[i][input].containsElements())
-          result
-              .append("  with ")
-              .append(input)
-              .append(" in ")
-              .append(table[i][input])
-              .append(Out.NL);
+      moves(StateSet.singleton(i), moves);
+      for (int k = 0; k < moves.numInputs(); k++) {
+        StateSet targets = new StateSet();
+        moves.addTargets(k, targets);
+        result
+            .append("  with ")
+            .append(moves.input(k))
+            .append(" in ")
+            .append(targets)
+            .append(Out.NL);
       }
 
       if (epsilon[i] != null && epsilon[i].containsElements())
@@ -498,9 +727,10 @@ public final class NFA {
     }
 
     for (int i = 0; i < numStates; i++) {
-      for (int input = 0; input < numInput; input++) {
-        for (int s : table[i][input]) {
-          result.append(i).append(" -> ").append(s);
+      int[] e = edges[i];
+      for (int k = 0; k < 3 * numEdges[i]; k += 3) {
+        for (int input = e[k]; input <= e[k + 1]; input++) {
+          result.append(i).append(" -> ").append(e[k + 2]);
           result.append(" [label=\"").append(classes.toString(input)).append("\"]").append(Out.NL);
         }
       }
@@ -586,6 +816,7 @@ public final class NFA {
     int currentDFAState = 0;
 
     StateSet currentState, newState;
+    Moves moves = new Moves(numInput);
 
     newState = epsilon[nfa.start()];
     dfaStates.put(newState, numDFAStates);
@@ -607,8 +838,10 @@ public final class NFA {
 
       currentState = dfaList.get(currentDFAState);
 
-      for (int input = 0; input < numInput; input++) {
-        newState = DFAEdge(currentState, input);
+      moves(currentState, moves);
+      for (int i = 0; i < moves.numInputs(); i++) {
+        int input = moves.input(i);
+        newState = DFAEdge(moves, i);
 
         if (newState.containsElements()) {
 
@@ -622,7 +855,7 @@ public final class NFA {
             // Out.debug("FOUND!");
             addTransition(dfaStart + currentDFAState, input, dfaStart + nextDFAState);
           } else {
-            if (Options.dump) {
+            if (Options.get().dump) {
               Out.print("+");
               // Out.debug("NOT FOUND!");
               // Out.debug("Table was "+dfaStates);
@@ -668,7 +901,7 @@ public final class NFA {
       // all inputs not present (formerly leading to an implicit error)
       // now lead to an explicit (final) state accepting everything.
       for (int i = 0; i < numInput; i++)
-        if (table[currentDFAState][i] == null) addTransition(currentDFAState, i, error);
+        if (!hasTransition(currentDFAState, i)) addTransition(currentDFAState, i, error);
     }
 
     // eliminate transitions that cannot reach final states
@@ -712,9 +945,12 @@ public final class NFA {
       int state = notvisited.getAndRemoveElement();
       notvisited.add(reachable.complement(epsilon[state]));
       reachable.add(epsilon[state]);
-      for (int i = 0; i < numInput; i++) {
-        notvisited.add(reachable.complement(table[state][i]));
-        reachable.add(table[state][i]);
+      int[] e = edges[state];
+      for (int k = 0; k < 3 * numEdges[state]; k += 3) {
+        if (!reachable.hasElement(e[k + 2])) {
+          reachable.addState(e[k + 2]);
+          notvisited.addState(e[k + 2]);
+        }
       }
     }
 
@@ -730,14 +966,11 @@ public final class NFA {
       changed = false;
       Out.debug("live: " + live);
       for (int s : live.complement(reachable)) {
-        for (int i = 0; i < numInput; i++) {
-          if (table[s][i] != null) {
-            for (int state : table[s][i]) {
-              if (live.hasElement(state)) {
-                changed = true;
-                live.addState(s);
-              }
-            }
+        int[] e = edges[s];
+        for (int k = 0; k < 3 * numEdges[s]; k += 3) {
+          if (live.hasElement(e[k + 2])) {
+            changed = true;
+            live.addState(s);
           }
         }
         if (epsilon[s] != null) {
@@ -758,8 +991,19 @@ public final class NFA {
     // now remove all transitions to non-live states (unless everything is live)
     if (!reachable.equals(live)) {
       for (int s : reachable) {
-        for (int i = 0; i < numInput; i++) if (table[s][i] != null) table[s][i].intersect(live);
-        if (epsilon[s] != null) epsilon[s].intersect(live);
+        int[] e = edges[s];
+        int n = 0;
+        for (int k = 0; k < 3 * numEdges[s]; k += 3) {
+          if (live.hasElement(e[k + 2])) {
+            System.arraycopy(e, k, e, n, 3);
+            n += 3;
+          }
+        }
+        numEdges[s] = n / 3;
+        if (epsilon[s] != null) {
+          epsilon[s] = mutable(epsilon[s]);
+          epsilon[s].intersect(live);
+        }
       }
     }
 
@@ -14,7 +14,7 @@ public class OptionUtils {
   /** Sets encoding for input files, and check availability of encoding on this JVM. */
   public static void setEncoding(String encodingName) {
     if (Charset.isSupported(encodingName)) {
-      Options.encoding = Charset.forName(encodingName);
+      Options.get().encoding = Charset.forName(encodingName);
     } else {
       Out.error(ErrorMessages.CHARSET_NOT_SUPPORTED, encodingName);
       throw new GeneratorException();
@@ -23,23 +23,51 @@ public class OptionUtils {
 
   /** Sets all options back to default values. */
   public static void setDefaultOptions() {
-    Options.directory = null;
+    Options.get().directory = null;
     // System.getProperty("user.dir"), the directory where java was run from.
     Options.resetRootDirectory();
-    Options.jlex = false;
-    Options.no_minimize = false;
-    Options.no_backup = false;
-    Options.verbose = true;
-    Options.progress = true;
-    Options.unused_warning = true;
-    Options.time = false;
-    Options.dot = false;
-    Options.dump = false;
-    Options.legacy_dot = false;
-    Options.encoding = Charset.defaultCharset();
+    Options.get().jlex = false;
+    Options.get().no_minimize = false;
+    Options.get().no_backup = false;
+    Options.get().verbose = true;
+    Options.get().progress = true;
+    Options.get().unused_warning = true;
+    Options.get().time = false;
+    Options.get().dot = false;
+    Options.get().dump = false;
+    Options.get().legacy_dot = false;
+    Options.get().encoding = Charset.defaultCharset();
+    Options.get().threads = 1;
+    Options.get().jobs = 1;
     Skeleton.readDefault();
   }
 
+  /**
+   * Sets the number of threads for the NFA to DFA conversion.
+   *
+   * @param threads the number of threads, a positive number
+   */
+  public static void setThreads(int threads) {
+    if (threads < 1) {
+      Out.error(ErrorMessages.NO_THREADS);
+      throw new GeneratorException();
+    }
+    Options.get().threads = threads;
+  }
+
+  /**
+   * Sets the number of specifications that are generated in parallel.
+   *
+   * @param jobs the number of specifications, a positive number
+   */
+  public static void setJobs(int jobs) {
+    if (jobs < 1) {
+      Out.error(ErrorMessages.NO_JOBS);
+      throw new GeneratorException();
+    }
+    Options.get().jobs = jobs;
+  }
+
   public static void setSkeleton(File skel) {
     Skeleton.readSkelFile(skel);
   }
@@ -60,7 +88,7 @@ public class OptionUtils {
       throw new GeneratorException();
     }
 
-    Options.directory = d;
+    Options.get().directory = d;
   }
 
   /**
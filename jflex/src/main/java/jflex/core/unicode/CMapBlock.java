@@ -13,12 +13,12 @@ import java.util.Arrays;
 
 /** Immutable second-level blocks for constructing the two-level character map table. */
 public class CMapBlock {
-  /** How many bits the second-level char map tables translate */
+  /** How many bits the second-level char map tables translate by default */
   public static final int BLOCK_BITS = 8;
-  /** Size of the second-level char map arrays */
+  /** Default size of the second-level char map arrays */
   public static final int BLOCK_SIZE = 1 << BLOCK_BITS;
 
-  /** array of BLOCK_SIZE; reference immutable; contents intended to be as well */
+  /** array of a power of two size; reference immutable; contents intended to be as well */
   public final int[] block;
   /** pre-computed hash, since we will compare often */
   private final int hash;
@@ -26,10 +26,10 @@ public class CMapBlock {
   /**
    * Constructs new CMapBlock and pre-computes its hash
    *
-   * @param block an int array of size @{link BLOCK_SIZE}.
+   * @param block an int array of size @{link BLOCK_SIZE}, or another power of two.
    */
   public CMapBlock(int[] block) {
-    assert block.length == BLOCK_SIZE : block;
+    assert Integer.bitCount(block.length) == 1 : block;
     this.block = block;
     this.hash = Arrays.hashCode(block);
   }
@@ -10,10 +10,11 @@
 package jflex.core.unicode;
 
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
 import jflex.base.Pair;
 import jflex.chars.Interval;
 import jflex.logging.Out;
@@ -21,6 +22,12 @@ import jflex.logging.Out;
 /**
  * Character Classes.
  *
+ * <p>The partition of the input characters is stored as a sorted array of interval boundaries: the
+ * characters from {@code starts[k]} to {@code starts[k+1]-1} all belong to class {@code ids[k]}.
+ * Neighbouring intervals always belong to different classes, so each interval is a maximal interval
+ * of its class. {@link #makeClass(IntCharSet, boolean)} refines the partition in one merge pass
+ * over the boundaries and {@link #getClassCode(int)} is a binary search.
+ *
  * @author Gerwin Klein
  * @version JFlex 1.9.0-SNAPSHOT
  */
@@ -29,14 +36,29 @@ public class CharClasses {
   /** debug flag (for char classes only) */
   private static final boolean DEBUG = false;
 
-  /** for sorting disjoint IntCharSets */
-  private static final Comparator<IntCharSet> INT_CHAR_SET_COMPARATOR = new IntCharSetComparator();
-
   /** the largest character that can be used in char classes */
   public static final int maxChar = 0x10FFFF;
 
-  /** the char classes */
-  private List<IntCharSet> classes;
+  /** smallest block size (in bits) {@link #smallestBlockBits()} tries */
+  public static final int MIN_BLOCK_BITS = 4;
+
+  /** largest block size (in bits) {@link #smallestBlockBits()} tries */
+  public static final int MAX_BLOCK_BITS = 12;
+
+  /** start of each interval of the partition, ascending; {@code starts[0] == 0} */
+  private int[] starts;
+
+  /** class code of each interval of the partition */
+  private int[] ids;
+
+  /** number of intervals in the partition */
+  private int numIntervals;
+
+  /** the number of char classes */
+  private int numClasses;
+
+  /** the last character covered by the partition */
+  private int lastChar;
 
   /** the largest character actually used in a specification */
   private int maxCharUsed;
@@ -74,8 +96,11 @@ public class CharClasses {
 
     maxCharUsed = maxCharCode;
     this.unicodeProps = scanner.getUnicodeProperties();
-    classes = new ArrayList<>();
-    classes.add(IntCharSet.ofCharacterRange(0, maxCharCode));
+    lastChar = maxCharCode;
+    starts = new int[] {0};
+    ids = new int[] {0};
+    numIntervals = 1;
+    numClasses = 1;
   }
 
   /**
@@ -113,18 +138,48 @@ public class CharClasses {
    * @return number of character classes.
    */
   public int getNumClasses() {
-    return classes.size();
+    return numClasses;
   }
 
   /** @return a deep-copy list of all char class partions. */
   public List<IntCharSet> allClasses() {
-    List<IntCharSet> result = new ArrayList<>();
-    for (IntCharSet ccl : classes) {
-      result.add(IntCharSet.copyOf(ccl));
+    List<IntCharSet> result = new ArrayList<>(numClasses);
+    for (int i = 0; i < numClasses; i++) {
+      result.add(new IntCharSet());
+    }
+    for (int k = 0; k < numIntervals; k++) {
+      result.get(ids[k]).add(new Interval(starts[k], end(k)));
     }
     return result;
   }
 
+  /** The last character of interval {@code k} of the partition. */
+  private int end(int k) {
+    return k + 1 < numIntervals ? starts[k + 1] - 1 : lastChar;
+  }
+
+  /**
+   * Returns the index of the interval of the partition that contains {@code c}.
+   *
+   * @param c a character between 0 and {@link #lastChar}
+   * @return the index k with {@code starts[k] <= c < starts[k+1]}
+   */
+  private int indexOf(int c) {
+    int lo = 0;
+    int hi = numIntervals - 1;
+
+    while (lo < hi) {
+      int mid = (lo + hi + 1) >>> 1;
+      if (starts[mid] <= c) {
+        lo = mid;
+      } else {
+        hi = mid - 1;
+      }
+    }
+
+    return lo;
+  }
+
   /**
    * Updates the current partition, so that the specified set of characters gets a new character
    * class.
@@ -132,12 +187,14 @@ public class CharClasses {
    * <p>Characters that are elements of {@code set} are not in the same equivalence class with
    * characters that are not elements of {@code set}.
    *
+   * <p>Each class that contains characters both in and outside of {@code set} is split: the
+   * characters outside keep the old code, the characters in {@code set} get a new code. New codes
+   * are handed out in the order of the old codes.
+   *
    * @param set the set of characters to distinguish from the rest
    * @param caseless if true upper/lower/title case are considered equivalent
    */
   public void makeClass(IntCharSet set, boolean caseless) {
-    set = IntCharSet.copyOf(set); // avoid destructively updating the original
-
     if (caseless) set = set.getCaseless(unicodeProps);
 
     if (DEBUG) {
@@ -145,37 +202,66 @@ public class CharClasses {
       dump();
     }
 
-    int oldSize = classes.size();
-    for (int i = 0; i < oldSize; i++) {
-      IntCharSet x = classes.get(i);
-
-      if (Objects.equals(x, set)) return;
-
-      IntCharSet and = x.and(set);
-
-      if (and.containsElements()) {
-        if (Objects.equals(x, and)) {
-          set.sub(and);
-          continue;
-        } else if (Objects.equals(set, and)) {
-          x.sub(and);
-          classes.add(and);
-          if (DEBUG) {
-            Out.dump("makeClass(..) finished");
-            dump();
-          }
-          return;
+    if (!set.containsElements()) return;
+
+    // split the intervals at the borders of set, marking the pieces inside set
+    int capacity = numIntervals + 2 * set.numIntervals();
+    int[] newStarts = new int[capacity];
+    int[] newIds = new int[capacity];
+    boolean[] inside = new boolean[capacity];
+    boolean[] hasInside = new boolean[numClasses];
+    boolean[] hasOutside = new boolean[numClasses];
+    int n = 0;
+
+    Iterator<Interval> setIntervals = set.intervalIterator();
+    Interval current = setIntervals.next();
+
+    for (int k = 0; k < numIntervals; k++) {
+      int id = ids[k];
+      int end = end(k);
+      int pos = starts[k];
+      while (pos <= end) {
+        while (current != null && current.end < pos) {
+          current = setIntervals.hasNext() ? setIntervals.next() : null;
+        }
+        boolean in = current != null && current.start <= pos;
+        int pieceEnd;
+        if (in) {
+          pieceEnd = Math.min(end, current.end);
+          hasInside[id] = true;
+        } else {
+          pieceEnd = current == null ? end : Math.min(end, current.start - 1);
+          hasOutside[id] = true;
         }
+        newStarts[n] = pos;
+        newIds[n] = id;
+        inside[n] = in;
+        n++;
+        pos = pieceEnd + 1;
+      }
+    }
+
+    // classes with characters on both sides get a new code for the inside part
+    int[] newCode = new int[hasInside.length];
+    int oldNumClasses = numClasses;
+    for (int i = 0; i < oldNumClasses; i++) {
+      newCode[i] = hasInside[i] && hasOutside[i] ? numClasses++ : i;
+    }
 
-        set.sub(and);
-        x.sub(and);
-        classes.add(and);
+    if (numClasses > oldNumClasses) {
+      for (int k = 0; k < n; k++) {
+        if (inside[k]) newIds[k] = newCode[newIds[k]];
       }
     }
 
+    starts = newStarts;
+    ids = newIds;
+    numIntervals = n;
+
     if (DEBUG) {
       Out.dump("makeClass(..) finished");
       dump();
+      assert invariants();
     }
   }
 
@@ -186,11 +272,10 @@ public class CharClasses {
    * @return code of the character class.
    */
   public int getClassCode(int codePoint) {
-    int i = -1;
-    while (true) {
-      IntCharSet x = classes.get(++i);
-      if (x.contains(codePoint)) return i;
+    if (codePoint < 0 || codePoint > lastChar) {
+      throw new IndexOutOfBoundsException("code point " + codePoint + " is not in any class");
     }
+    return ids[indexOf(codePoint)];
   }
 
   /**
@@ -200,7 +285,11 @@ public class CharClasses {
    * @return a copy of the char class with the specified code.
    */
   public IntCharSet getCharClass(int code) {
-    return IntCharSet.copyOf(classes.get(code));
+    IntCharSet result = new IntCharSet();
+    for (int k = 0; k < numIntervals; k++) {
+      if (ids[k] == code) result.add(new Interval(starts[k], end(k)));
+    }
+    return result;
   }
 
   /** Dumps charclasses to the dump output stream. */
@@ -215,7 +304,7 @@ public class CharClasses {
    * @return a {@link java.lang.String} object.
    */
   public String toString(int theClass) {
-    return classes.get(theClass).toString();
+    return getCharClass(theClass).toString();
   }
 
   @Override
@@ -224,6 +313,7 @@ public class CharClasses {
 
     result.append(Out.NL);
 
+    List<IntCharSet> classes = allClasses();
     for (int i = 0; i < classes.size(); i++)
       result
           .append("class ")
@@ -271,31 +361,26 @@ public class CharClasses {
       if (negate) Out.dump("[negated]");
     }
 
-    int size = classes.size();
+    boolean[] hit = new boolean[numClasses];
+    for (Iterator<Interval> i = set.intervalIterator(); i.hasNext(); ) {
+      Interval interval = i.next();
+      if (interval.start > lastChar) break;
+      for (int k = indexOf(interval.start); k < numIntervals && starts[k] <= interval.end; k++) {
+        hit[ids[k]] = true;
+      }
+    }
 
-    // [fixme: optimize]
-    int[] temp = new int[size];
+    int[] temp = new int[numClasses];
     int length = 0;
 
-    for (int i = 0; i < size; i++) {
-      IntCharSet x = classes.get(i);
-      if (negate) {
-        if (!set.and(x).containsElements()) {
-          temp[length++] = i;
-          if (DEBUG) Out.dump("code " + i);
-        }
-      } else {
-        if (set.and(x).containsElements()) {
-          temp[length++] = i;
-          if (DEBUG) Out.dump("code " + i);
-        }
+    for (int i = 0; i < numClasses; i++) {
+      if (hit[i] != negate) {
+        temp[length++] = i;
+        if (DEBUG) Out.dump("code " + i);
       }
     }
 
-    int[] result = new int[length];
-    System.arraycopy(temp, 0, result, 0, length);
-
-    return result;
+    return Arrays.copyOf(temp, length);
   }
 
   /**
@@ -306,19 +391,24 @@ public class CharClasses {
    * @return true when the invariants of this objects hold.
    */
   public boolean invariants() {
-    for (int i = 0; i < classes.size(); i++)
-      for (int j = i + 1; j < classes.size(); j++) {
-        if (classes.get(i).and(classes.get(j)).containsElements()) {
-          return false;
-        }
+    if (numIntervals < 1 || starts[0] != 0 || starts[numIntervals - 1] > lastChar) {
+      return false;
+    }
+
+    boolean[] used = new boolean[numClasses];
+    for (int k = 0; k < numIntervals; k++) {
+      if (ids[k] < 0 || ids[k] >= numClasses) return false;
+      used[ids[k]] = true;
+      if (k > 0 && (starts[k - 1] >= starts[k] || ids[k - 1] == ids[k])) {
+        return false;
       }
+    }
 
-    IntCharSet union = new IntCharSet();
-    for (IntCharSet i : classes) {
-      union.add(i);
+    for (boolean u : used) {
+      if (!u) return false;
     }
 
-    return IntCharSet.allChars().equals(union);
+    return true;
   }
 
   /**
@@ -331,9 +421,18 @@ public class CharClasses {
    *
    * <p>This is not needed for correctness, but it makes the comparison of output DFAs (e.g. in the
    * test suite) for equivalence more robust.
+   *
+   * <p>The classes are numbered in the order of their first character.
    */
   public void normalise() {
-    classes.sort(INT_CHAR_SET_COMPARATOR);
+    int[] newCode = new int[numClasses];
+    Arrays.fill(newCode, -1);
+    int next = 0;
+    for (int k = 0; k < numIntervals; k++) {
+      int id = ids[k];
+      if (newCode[id] < 0) newCode[id] = next++;
+      ids[k] = newCode[id];
+    }
   }
 
   /**
@@ -346,7 +445,11 @@ public class CharClasses {
     CharClasses result = new CharClasses();
     result.maxCharUsed = c.maxCharUsed;
     result.unicodeProps = c.unicodeProps;
-    result.classes = c.allClasses();
+    result.lastChar = c.lastChar;
+    result.starts = Arrays.copyOf(c.starts, c.numIntervals);
+    result.ids = Arrays.copyOf(c.ids, c.numIntervals);
+    result.numIntervals = c.numIntervals;
+    result.numClasses = c.numClasses;
     return result;
   }
 
@@ -359,26 +462,10 @@ public class CharClasses {
    * @return an array of all {@link CharClassInterval} in this char class collection.
    */
   public CharClassInterval[] getIntervals() {
-    int i, c;
-    int size = classes.size();
-    int numIntervals = 0;
-
-    for (i = 0; i < size; i++) numIntervals += classes.get(i).numIntervals();
-
-    List<Iterator<Interval>> iterators = new ArrayList<>();
-    for (IntCharSet set : classes) iterators.add(set.intervalIterator());
-
     CharClassInterval[] result = new CharClassInterval[numIntervals];
-
-    i = 0;
-    c = 0;
-    while (i < numIntervals) {
-      int code = getClassCode(c);
-      Interval iv = iterators.get(code).next(); // must have enough elements
-      result[i++] = new CharClassInterval(iv.start, iv.end, code);
-      c = iv.end + 1;
+    for (int k = 0; k < numIntervals; k++) {
+      result[k] = new CharClassInterval(starts[k], end(k), ids[k]);
     }
-
     return result;
   }
 
@@ -391,32 +478,47 @@ public class CharClasses {
    *     object.
    */
   Pair<int[], List<CMapBlock>> computeTables() {
-    CharClassInterval[] intervals = getIntervals();
-    int intervalIndex = 0;
-    int curClass = intervals[intervalIndex].charClass;
+    return computeTables(CMapBlock.BLOCK_BITS);
+  }
+
+  /**
+   * Computes the two-level table structure for second-level blocks of {@code 1 << blockBits}
+   * characters.
+   *
+   * @param blockBits how many bits of a character the second-level blocks translate
+   * @return a pair of a top-level table, and a list of second-level blocks for this char class
+   *     object.
+   * @see #computeTables()
+   */
+  Pair<int[], List<CMapBlock>> computeTables(int blockBits) {
+    int blockSize = 1 << blockBits;
+    int k = 0; // current interval
     int codePoint = 0;
 
-    int topLevelSize = (maxCharUsed + 1) >> CMapBlock.BLOCK_BITS;
+    int topLevelSize = (maxCharUsed + 1) >> blockBits;
     int[] topLevel = new int[topLevelSize];
     List<CMapBlock> blocks = new ArrayList<>();
+    Map<CMapBlock, Integer> blockIndex = new HashMap<>();
 
     for (int topIndex = 0; topIndex < topLevelSize; topIndex++) {
-      int[] block = new int[CMapBlock.BLOCK_SIZE];
-      for (int i = 0; i < CMapBlock.BLOCK_SIZE; i++, codePoint++) {
-        // if maxCharUsed doesn't align to CMapBlock.BLOCK_BITS, we leave the
-        // rest of the highest block equal to 0.
-        if (maxCharUsed < codePoint) break;
-        if (!intervals[intervalIndex].contains(codePoint)) {
-          curClass = intervals[++intervalIndex].charClass;
-        }
-        block[i] = curClass;
+      int[] block = new int[blockSize];
+      // if maxCharUsed doesn't align to blockBits, we leave the
+      // rest of the highest block equal to 0.
+      int blockEnd = Math.min(codePoint + blockSize - 1, maxCharUsed);
+      while (codePoint <= blockEnd) {
+        while (k + 1 < numIntervals && starts[k + 1] <= codePoint) k++;
+        int runEnd = k + 1 < numIntervals ? Math.min(blockEnd, starts[k + 1] - 1) : blockEnd;
+        Arrays.fill(block, codePoint & (blockSize - 1), (runEnd & (blockSize - 1)) + 1, ids[k]);
+        codePoint = runEnd + 1;
       }
+      codePoint = (topIndex + 1) << blockBits;
       // find earliest equal block (if any)
       CMapBlock b = new CMapBlock(block);
-      int idx = blocks.indexOf(b);
-      if (idx < 0) {
+      Integer idx = blockIndex.get(b);
+      if (idx == null) {
         idx = blocks.size();
         blocks.add(b);
+        blockIndex.put(b, idx);
       }
       topLevel[topIndex] = idx;
     }
@@ -424,11 +526,12 @@ public class CharClasses {
   }
 
   /** Turn a list of second-level blocks into a flat array. */
-  private static int[] flattenBlocks(List<CMapBlock> blocks) {
-    int[] result = new int[blocks.size() * CMapBlock.BLOCK_SIZE];
+  private static int[] flattenBlocks(List<CMapBlock> blocks, int blockBits) {
+    int blockSize = 1 << blockBits;
+    int[] result = new int[blocks.size() * blockSize];
     for (int i = 0; i < blocks.size(); i++) {
       int[] block = blocks.get(i).block;
-      System.arraycopy(block, 0, result, i << CMapBlock.BLOCK_BITS, CMapBlock.BLOCK_SIZE);
+      System.arraycopy(block, 0, result, i << blockBits, blockSize);
     }
     return result;
   }
@@ -443,11 +546,43 @@ public class CharClasses {
    * @see CMapBlock#BLOCK_SIZE
    */
   public Pair<int[], int[]> getTables() {
-    Pair<int[], List<CMapBlock>> p = computeTables();
+    return getTables(CMapBlock.BLOCK_BITS);
+  }
+
+  /**
+   * Returns the two-level table structure of {@link #getTables()} for second-level blocks of {@code
+   * 1 << blockBits} characters instead of {@link CMapBlock#BLOCK_SIZE}.
+   *
+   * @param blockBits how many bits of a character the second-level blocks translate
+   * @return a pair of the (shifted) top-level table and the flat second-level blocks
+   */
+  public Pair<int[], int[]> getTables(int blockBits) {
+    Pair<int[], List<CMapBlock>> p = computeTables(blockBits);
     int[] shifted = new int[p.fst.length];
     for (int i = 0; i < p.fst.length; i++) {
-      shifted[i] = p.fst[i] << CMapBlock.BLOCK_BITS;
+      shifted[i] = p.fst[i] << blockBits;
+    }
+    return new Pair<int[], int[]>(shifted, flattenBlocks(p.snd, blockBits));
+  }
+
+  /**
+   * Finds the block size between {@link #MIN_BLOCK_BITS} and {@link #MAX_BLOCK_BITS} bits for which
+   * the two tables of {@link #getTables(int)} have the fewest entries together.
+   *
+   * @return the number of block bits for the smallest tables; the smaller one on ties.
+   */
+  public int smallestBlockBits() {
+    int best = MIN_BLOCK_BITS;
+    long bestSize = Long.MAX_VALUE;
+    for (int bits = MIN_BLOCK_BITS; bits <= MAX_BLOCK_BITS; bits++) {
+      Pair<int[], List<CMapBlock>> p = computeTables(bits);
+      long size = p.fst.length + ((long) p.snd.size() << bits);
+      if (DEBUG) Out.dump("block bits " + bits + ": " + size + " table entries");
+      if (size < bestSize) {
+        best = bits;
+        bestSize = size;
+      }
     }
-    return new Pair<int[], int[]>(shifted, flattenBlocks(p.snd));
+    return best;
   }
 }
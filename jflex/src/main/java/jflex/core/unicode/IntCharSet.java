@@ -13,17 +13,21 @@ import static java.lang.Math.max;
 import static java.lang.Math.min;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Objects;
+import java.util.NoSuchElementException;
 import java.util.PrimitiveIterator;
 import jflex.chars.Interval;
-import jflex.chars.Interval.IntervalIterator;
 import jflex.logging.Out;
 
 /**
  * Mutable Char Set implemented with intervals.
  *
+ * <p>The intervals are stored as a packed array of boundaries: interval {@code k} starts at {@code
+ * bounds[2*k]} and ends at {@code bounds[2*k+1]} (inclusive). Union, intersection, and difference
+ * merge these arrays linearly without creating {@link Interval} objects.
+ *
  * @author Gerwin Klein
  * @author Régis Décamps
  * @version JFlex 1.9.0-SNAPSHOT
@@ -32,13 +36,32 @@ public final class IntCharSet implements Iterable<Integer> {
 
   private static final boolean DEBUG = false;
 
-  /* invariant: all intervals are disjoint, ordered */
-  private final List<Interval> intervals = new ArrayList<>();
+  /** Initial capacity of {@link #bounds}, in array entries. */
+  private static final int INITIAL_CAPACITY = 8;
+
+  /*
+   * invariant: bounds[0..length) holds start/end pairs of intervals that are
+   * non-empty, disjoint, ordered, and not adjacent
+   */
+  private int[] bounds;
+
+  /** Number of used entries in {@link #bounds}, i.e. twice the number of intervals. */
+  private int length;
+
+  /** Creates an empty charset. */
+  public IntCharSet() {
+    this(new int[INITIAL_CAPACITY], 0);
+  }
+
+  private IntCharSet(int[] bounds, int length) {
+    this.bounds = bounds;
+    this.length = length;
+  }
 
   /** Creates a charset that contains only one interval. */
   public static IntCharSet of(Interval interval) {
     IntCharSet charset = new IntCharSet();
-    charset.intervals.add(interval);
+    charset.append(interval.start, interval.end);
     if (DEBUG) assert charset.invariants();
     return charset;
   }
@@ -87,63 +110,92 @@ public final class IntCharSet implements Iterable<Integer> {
    */
   public static IntCharSet nlChars() {
     IntCharSet set = new IntCharSet();
-    set.intervals.add(new Interval('\n', '\r'));
-    set.intervals.add(Interval.ofCharacter('\u0085'));
-    set.intervals.add(new Interval('\u2028', '\u2029'));
+    set.append('\n', '\r');
+    set.append('\u0085', '\u0085');
+    set.append('\u2028', '\u2029');
     return set;
   }
 
   /**
-   * Returns the index of the interval that contains the character {@code c}.
+   * Appends an interval after all intervals of this set, without merging.
    *
-   * <p>Binary search which interval contains the given character.
+   * @param start start of the interval, must be larger than the end of the last interval plus one
+   * @param end end of the interval
+   */
+  private void append(int start, int end) {
+    if (length + 2 > bounds.length) {
+      bounds = Arrays.copyOf(bounds, max(INITIAL_CAPACITY, 2 * bounds.length));
+    }
+    bounds[length++] = start;
+    bounds[length++] = end;
+  }
+
+  /**
+   * Returns the position in {@link #bounds} of the first interval that ends at or after {@code c}.
+   *
+   * <p>Binary search over the interval ends.
    *
    * @param c the character to search for
-   * @return the index of the enclosing interval, or -1 if no such interval
+   * @return the even index of the start of the interval, or {@link #length} if there is none
    */
-  private int indexOf(int c) {
-    int start = 0;
-    int end = intervals.size() - 1;
-
-    while (start <= end) {
-      int check = (start + end) / 2;
-      Interval i = intervals.get(check);
-
-      if (start == end) {
-        return i.contains(c) ? start : -1;
-      }
-
-      if (c < i.start) {
-        end = check - 1;
-        continue;
+  private int indexOfEnd(int c) {
+    int lo = 0;
+    int hi = length >> 1;
+
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (bounds[2 * mid + 1] < c) {
+        lo = mid + 1;
+      } else {
+        hi = mid;
       }
-
-      if (c > i.end) {
-        start = check + 1;
-        continue;
-      }
-
-      if (DEBUG) assert intervals.get(check).contains(c);
-      return check;
     }
 
-    if (DEBUG) {
-      for (Interval i : intervals) assert (!i.contains(c));
-    }
-    return -1;
+    return 2 * lo;
   }
 
   /** Merges the given set into this one. */
-  @SuppressWarnings("ReferenceEquality")
   public void add(IntCharSet set) {
     if (DEBUG) {
       assert invariants();
       assert set.invariants();
-      assert this != set; // reference comparison intended, must supply different object
     }
-    for (Interval interval : set.intervals) {
-      add(interval);
+
+    if (set.length == 0) return;
+
+    int[] other = set.bounds;
+    int otherLength = set.length;
+    int[] result = new int[max(INITIAL_CAPACITY, length + otherLength)];
+    int n = 0;
+
+    int i = 0; // index in this.bounds
+    int j = 0; // index in set.bounds
+
+    while (i < length || j < otherLength) {
+      int start;
+      int end;
+      if (j >= otherLength || (i < length && bounds[i] <= other[j])) {
+        start = bounds[i];
+        end = bounds[i + 1];
+        i += 2;
+      } else {
+        start = other[j];
+        end = other[j + 1];
+        j += 2;
+      }
+
+      if (n > 0 && start <= result[n - 1] + 1) {
+        if (end > result[n - 1]) result[n - 1] = end;
+      } else {
+        result[n++] = start;
+        result[n++] = end;
+      }
     }
+
+    bounds = result;
+    length = n;
+
+    if (DEBUG) assert invariants();
   }
 
   /**
@@ -151,61 +203,9 @@ public final class IntCharSet implements Iterable<Integer> {
    *
    * @param interval a {@link jflex.chars.Interval} object.
    */
-  @SuppressWarnings("IncrementInForLoopAndHeader")
   public void add(Interval interval) {
     if (DEBUG) assert interval.invariants();
-
-    int size = intervals.size();
-
-    for (int i = 0; i < size; i++) {
-      Interval elem = intervals.get(i);
-
-      if (elem.end + 1 >= interval.start) {
-        if (elem.contains(interval)) {
-          if (DEBUG) assert invariants();
-          return;
-        }
-
-        if (elem.start > interval.end + 1) {
-          intervals.add(i, Interval.copyOf(interval));
-          if (DEBUG) assert invariants();
-          return;
-        }
-
-        if (interval.start < elem.start) {
-          elem.start = interval.start;
-        }
-
-        if (interval.end <= elem.end) {
-          if (DEBUG) assert invariants();
-          return;
-        }
-
-        elem.end = interval.end;
-
-        i++;
-        // delete all x with x.contains( interval.end )
-        while (i < size) {
-          Interval x = intervals.get(i);
-          if (x.start > elem.end + 1) {
-            if (DEBUG) assert invariants();
-            return;
-          }
-
-          if (x.end > elem.end) {
-            elem.end = x.end;
-          }
-          intervals.remove(i);
-          size--;
-        }
-
-        if (DEBUG) assert invariants();
-        return;
-      }
-    }
-
-    intervals.add(Interval.copyOf(interval));
-    if (DEBUG) assert invariants();
+    add(interval.start, interval.end);
   }
 
   /**
@@ -214,51 +214,40 @@ public final class IntCharSet implements Iterable<Integer> {
    * @param c Character to add.
    */
   public void add(int c) {
-    int size = intervals.size();
-
-    for (int i = 0; i < size; i++) {
-      Interval elem = intervals.get(i);
-      if (elem.end + 1 < c) continue;
-
-      if (elem.contains(c)) return; // already there, nothing to do
-
-      if (DEBUG) assert (elem.end + 1 >= c && (elem.start > c || elem.end < c));
-
-      if (elem.start > c + 1) {
-        intervals.add(i, Interval.ofCharacter(c));
-        if (DEBUG) assert invariants();
-        return;
-      }
-
-      if (DEBUG)
-        assert (elem.end + 1 >= c && elem.start <= c + 1 && (elem.start > c || elem.end < c));
-
-      if (c + 1 == elem.start) {
-        elem.start = c;
-        if (DEBUG) assert invariants();
-        return;
-      }
-
-      if (DEBUG) assert (elem.end + 1 == c);
-      elem.end = c;
+    add(c, c);
+  }
 
-      // merge with next interval if it contains c
-      if (i + 1 >= size) {
-        if (DEBUG) assert invariants();
-        return;
-      }
-      Interval x = intervals.get(i + 1);
-      if (x.start <= c + 1) {
-        elem.end = x.end;
-        intervals.remove(i + 1);
+  /**
+   * Adds the interval from {@code start} to {@code end}, merging it with all overlapping and
+   * adjacent intervals.
+   */
+  private void add(int start, int end) {
+    // first interval that overlaps or touches [start,end]
+    int i = indexOfEnd(start - 1);
+    // first interval after i that is strictly behind [start,end]
+    int j = i;
+    while (j < length && bounds[j] <= end + 1) j += 2;
+
+    if (i == j) {
+      if (i == length) {
+        append(start, end);
+      } else {
+        if (length + 2 > bounds.length) {
+          bounds = Arrays.copyOf(bounds, 2 * bounds.length);
+        }
+        System.arraycopy(bounds, i, bounds, i + 2, length - i);
+        bounds[i] = start;
+        bounds[i + 1] = end;
+        length += 2;
       }
-
-      if (DEBUG) assert invariants();
-      return;
+    } else {
+      // merge intervals i .. j-1 into one
+      bounds[i] = min(start, bounds[i]);
+      bounds[i + 1] = max(end, bounds[j - 1]);
+      System.arraycopy(bounds, j, bounds, i + 2, length - j);
+      length -= j - i - 2;
     }
 
-    // end reached but nothing found -> append at end
-    intervals.add(Interval.ofCharacter(c));
     if (DEBUG) assert invariants();
   }
 
@@ -269,7 +258,8 @@ public final class IntCharSet implements Iterable<Integer> {
    * @return true iff singleChar is contained in the set.
    */
   public boolean contains(int singleChar) {
-    return indexOf(singleChar) >= 0;
+    int i = indexOfEnd(singleChar);
+    return i < length && bounds[i] <= singleChar;
   }
 
   /**
@@ -283,10 +273,16 @@ public final class IntCharSet implements Iterable<Integer> {
     if (other == null) {
       return true;
     }
-    IntCharSet set = IntCharSet.copyOf(other);
-    IntCharSet inter = this.and(other);
-    set.sub(inter);
-    return !set.containsElements();
+
+    // intervals are not adjacent, so each interval of other must lie within one of ours
+    int i = 0;
+    for (int j = 0; j < other.length; j += 2) {
+      while (i < length && bounds[i + 1] < other.bounds[j]) i += 2;
+      if (i >= length || bounds[i] > other.bounds[j] || bounds[i + 1] < other.bounds[j + 1]) {
+        return false;
+      }
+    }
+    return true;
   }
 
   @Override
@@ -296,15 +292,30 @@ public final class IntCharSet implements Iterable<Integer> {
     }
     IntCharSet set = (IntCharSet) o;
 
-    return Objects.equals(intervals, set.intervals);
+    if (length != set.length) {
+      return false;
+    }
+    for (int i = 0; i < length; i++) {
+      if (bounds[i] != set.bounds[i]) {
+        return false;
+      }
+    }
+    return true;
   }
 
   @Override
   public int hashCode() {
     int h = 1;
-    for (Interval interval : intervals) {
+    for (int i = 0; i < length; i += 2) {
+      // same as Interval.hashCode()
+      int ih = 1;
+      ih *= 1000003;
+      ih ^= bounds[i];
+      ih *= 1000003;
+      ih ^= bounds[i + 1];
+
       h *= 1000003;
-      h ^= interval.hashCode();
+      h ^= ih;
     }
     return h;
   }
@@ -322,50 +333,51 @@ public final class IntCharSet implements Iterable<Integer> {
       Out.dump("other : " + set);
     }
 
-    IntCharSet result = new IntCharSet();
+    int[] other = set.bounds;
+    int otherLength = set.length;
+    int[] result = new int[max(INITIAL_CAPACITY, length + otherLength)];
+    int n = 0;
 
-    int i = 0; // index in this.intervals
-    int j = 0; // index in set.intervals
+    int i = 0; // index in this.bounds
+    int j = 0; // index in set.bounds
 
-    int size = intervals.size();
-    int setSize = set.intervals.size();
+    while (i < length && j < otherLength) {
+      int xEnd = bounds[i + 1];
+      int yEnd = other[j + 1];
 
-    while (i < size && j < setSize) {
-      Interval x = this.intervals.get(i);
-      Interval y = set.intervals.get(j);
-
-      if (x.end < y.start) {
-        i++;
+      if (xEnd < other[j]) {
+        i += 2;
         continue;
       }
 
-      if (y.end < x.start) {
-        j++;
+      if (yEnd < bounds[i]) {
+        j += 2;
         continue;
       }
 
-      result.intervals.add(new Interval(max(x.start, y.start), min(x.end, y.end)));
+      result[n++] = max(bounds[i], other[j]);
+      result[n++] = min(xEnd, yEnd);
 
-      if (x.end >= y.end) j++;
-      if (y.end >= x.end) i++;
+      if (xEnd >= yEnd) j += 2;
+      if (yEnd >= xEnd) i += 2;
     }
 
+    IntCharSet intersection = new IntCharSet(result, n);
+
     if (DEBUG) {
-      Out.dump("result: " + result);
-      assert result.invariants();
+      Out.dump("result: " + intersection);
+      assert intersection.invariants();
     }
 
-    return result;
+    return intersection;
   }
 
   /**
-   * Returns the relative complement of this set relative to the provided set.
-   *
-   * <p>Assumes that {@code set} is non-null, and contained in this IntCharSet.
+   * Removes all characters of the provided set from this set, i.e. replaces this set by its
+   * relative complement with respect to {@code set}.
    *
-   * @param set a {@link IntCharSet} to substract from this set.
+   * @param set a non-null {@link IntCharSet} to substract from this set.
    */
-  @SuppressWarnings("ReferenceEquality")
   public void sub(IntCharSet set) {
     if (DEBUG) {
       Out.dump("complement");
@@ -374,68 +386,41 @@ public final class IntCharSet implements Iterable<Integer> {
       assert invariants();
       // not asserting non-null, because we'll already get an exception and it confuses lgtm.com
       assert set.invariants();
-      assert isSubSet(set, this);
-      assert set != this; // reference comparison intended, must supply different object
     }
 
-    int i = 0; // index in this.intervals
-    int j = 0; // index in set.intervals
+    int[] other = set.bounds;
+    int otherLength = set.length;
+    // every interval of this set is split at most once per interval of the other set
+    int[] result = new int[max(INITIAL_CAPACITY, length + otherLength)];
+    int n = 0;
 
-    int setSize = set.intervals.size();
+    int j = 0; // index in set.bounds
 
-    while (i < intervals.size() && j < setSize) {
-      Interval x = this.intervals.get(i);
-      Interval y = set.intervals.get(j);
+    for (int i = 0; i < length; i += 2) {
+      int start = bounds[i];
+      int end = bounds[i + 1];
 
-      if (DEBUG) {
-        Out.dump("this      : " + this);
-        Out.dump("this  [" + i + "] : " + x);
-        Out.dump("other [" + j + "] : " + y);
-      }
+      while (j < otherLength && other[j + 1] < start) j += 2;
 
-      if (x.end < y.start) {
-        i++;
-        continue;
-      }
-
-      if (y.end < x.start) {
-        j++;
-        continue;
-      }
-
-      // x.end >= y.start && y.end >= x.start ->
-      // x.end <= y.end && x.start >= y.start (prec)
-
-      if (x.start == y.start && x.end == y.end) {
-        intervals.remove(i);
-        j++;
-        continue;
-      }
-
-      // x.end <= y.end && x.start >= y.start &&
-      // (x.end < y.end || x.start > y.start) ->
-      // x.start < x.end
-
-      if (x.start == y.start) {
-        x.start = y.end + 1;
-        j++;
-        continue;
+      // cut out all intervals of set that overlap [start,end]
+      for (int k = j; k < otherLength && other[k] <= end; k += 2) {
+        if (other[k] > start) {
+          result[n++] = start;
+          result[n++] = other[k] - 1;
+        }
+        start = other[k + 1] + 1;
+        if (start > end) break;
       }
 
-      if (x.end == y.end) {
-        x.end = y.start - 1;
-        i++;
-        j++;
-        continue;
+      if (start <= end) {
+        result[n++] = start;
+        result[n++] = end;
       }
-
-      intervals.add(i, new Interval(x.start, y.start - 1));
-      x.start = y.end + 1;
-
-      i++;
-      j++;
     }
 
+    bounds = result;
+    length = n;
+
     if (DEBUG) {
       Out.dump("result: " + this);
       assert invariants();
@@ -450,10 +435,23 @@ public final class IntCharSet implements Iterable<Integer> {
    * @return the complement of x
    */
   public static IntCharSet complementOf(IntCharSet x) {
-    IntCharSet result = allChars();
-    if (x != null) {
-      result.sub(x);
+    if (x == null) {
+      return allChars();
+    }
+
+    IntCharSet result = new IntCharSet(new int[max(INITIAL_CAPACITY, x.length + 2)], 0);
+    int next = 0; // first character not yet covered by x or result
+    for (int i = 0; i < x.length && next <= CharClasses.maxChar; i += 2) {
+      if (x.bounds[i] > next) {
+        result.append(next, min(x.bounds[i] - 1, CharClasses.maxChar));
+      }
+      next = x.bounds[i + 1] + 1;
     }
+    if (next <= CharClasses.maxChar) {
+      result.append(next, CharClasses.maxChar);
+    }
+
+    if (DEBUG) assert result.invariants();
     return result;
   }
 
@@ -463,7 +461,7 @@ public final class IntCharSet implements Iterable<Integer> {
    * @return Whether the set is non-empty.
    */
   public boolean containsElements() {
-    return intervals.size() > 0;
+    return length > 0;
   }
 
   /**
@@ -472,21 +470,40 @@ public final class IntCharSet implements Iterable<Integer> {
    * @return number of intervals.
    */
   public int numIntervals() {
-    return intervals.size();
+    return length >> 1;
   }
 
   /**
    * Returns the intervals.
    *
-   * @return a {@link java.util.List} object.
+   * @return a new {@link java.util.List} of the intervals; changing it does not affect this set.
    */
   public List<Interval> getIntervals() {
-    return intervals;
+    List<Interval> result = new ArrayList<>(length >> 1);
+    for (int i = 0; i < length; i += 2) {
+      result.add(new Interval(bounds[i], bounds[i + 1]));
+    }
+    return result;
   }
 
   /** @return an iterator over the intervals in this set */
   public Iterator<Interval> intervalIterator() {
-    return intervals.iterator();
+    return new Iterator<Interval>() {
+      private int i = 0;
+
+      @Override
+      public boolean hasNext() {
+        return i < length;
+      }
+
+      @Override
+      public Interval next() {
+        if (i >= length) throw new NoSuchElementException();
+        Interval result = new Interval(bounds[i], bounds[i + 1]);
+        i += 2;
+        return result;
+      }
+    };
   }
 
   /**
@@ -502,8 +519,8 @@ public final class IntCharSet implements Iterable<Integer> {
   public IntCharSet getCaseless(UnicodeProperties unicodeProperties) {
     IntCharSet n = copyOf(this);
 
-    for (Interval elem : intervals) {
-      for (int c = elem.start; c <= elem.end; c++) {
+    for (int i = 0; i < length; i += 2) {
+      for (int c = bounds[i]; c <= bounds[i + 1]; c++) {
         IntCharSet equivalenceClass = unicodeProperties.getCaselessMatches(c);
         if (null != equivalenceClass) {
           n.add(equivalenceClass);
@@ -518,8 +535,8 @@ public final class IntCharSet implements Iterable<Integer> {
   public String toString() {
     StringBuilder result = new StringBuilder("{ ");
 
-    for (Interval interval : intervals) {
-      result.append(interval);
+    for (int i = 0; i < length; i += 2) {
+      result.append(new Interval(bounds[i], bounds[i + 1]));
     }
 
     result.append(" }");
@@ -533,10 +550,10 @@ public final class IntCharSet implements Iterable<Integer> {
    * @return a (deep) copy of the char set.
    */
   public static IntCharSet copyOf(IntCharSet intCharSet) {
-    IntCharSet result = new IntCharSet();
-    for (Interval interval : intCharSet.intervals) {
-      result.intervals.add(Interval.copyOf(interval));
-    }
+    IntCharSet result =
+        new IntCharSet(
+            Arrays.copyOf(intCharSet.bounds, max(INITIAL_CAPACITY, intCharSet.length)),
+            intCharSet.length);
     if (DEBUG) assert result.invariants();
     return result;
   }
@@ -548,7 +565,7 @@ public final class IntCharSet implements Iterable<Integer> {
    */
   public int size() {
     int charCount = 0;
-    for (Interval i : intervals) charCount += i.size();
+    for (int i = 0; i < length; i += 2) charCount += bounds[i + 1] - bounds[i] + 1;
     return charCount;
   }
 
@@ -558,15 +575,16 @@ public final class IntCharSet implements Iterable<Integer> {
    * @return true when the invariants of this objects hold.
    */
   boolean invariants() {
-    for (Interval i : intervals) {
-      if (!i.invariants()) {
-        return false;
-      }
+    if ((length & 1) != 0 || length > bounds.length) {
+      return false;
     }
 
-    for (int j = 0; j < intervals.size() - 1; j++) {
-      // disjoint and ordered
-      if (intervals.get(j).end >= intervals.get(j + 1).start) {
+    for (int i = 0; i < length; i += 2) {
+      if (bounds[i] < 0 || bounds[i] > bounds[i + 1]) {
+        return false;
+      }
+      // disjoint, ordered, and not adjacent
+      if (i + 2 < length && bounds[i + 1] + 1 >= bounds[i + 2]) {
         return false;
       }
     }
@@ -597,31 +615,38 @@ public final class IntCharSet implements Iterable<Integer> {
   }
 
   Interval getFirstInterval() {
-    return intervals.get(0);
+    if (length == 0) throw new IndexOutOfBoundsException("empty set");
+    return new Interval(bounds[0], bounds[1]);
   }
 
   /** Iterator for enumerating the elements of this IntCharSet */
   public class IntCharSetIterator implements PrimitiveIterator.OfInt {
-    /** Iterator over the Interval list */
-    private final Iterator<Interval> intervalsIterator;
-    /** Iterator within the current Interval */
-    private IntervalIterator current;
+    /** Index of the start of the current interval in {@link #bounds} */
+    private int index;
+    /** Next character to return */
+    private int next;
 
     /** New iterator for this IntCharSet */
     private IntCharSetIterator() {
-      intervalsIterator = intervals.iterator();
-      if (intervalsIterator.hasNext()) current = intervalsIterator.next().iterator();
+      if (length > 0) next = bounds[0];
     }
 
     @Override
     public boolean hasNext() {
-      return current != null && (current.hasNext() || intervalsIterator.hasNext());
+      return index < length;
     }
 
     @Override
     public int nextInt() {
-      if (!current.hasNext()) current = intervalsIterator.next().iterator();
-      return current.nextInt();
+      if (index >= length) throw new NoSuchElementException();
+      int c = next;
+      if (c == bounds[index + 1]) {
+        index += 2;
+        if (index < length) next = bounds[index];
+      } else {
+        next++;
+      }
+      return c;
     }
   }
 }
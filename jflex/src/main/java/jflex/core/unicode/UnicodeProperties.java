@@ -9,7 +9,11 @@
 
 package jflex.core.unicode;
 
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
@@ -28,8 +32,28 @@ public class UnicodeProperties {
   private static final String DEFAULT_UNICODE_VERSION = "12.1";
   private static final Pattern WORD_SEP_PATTERN = Pattern.compile("[-_\\s()]");
 
+  /** Upper bound for the number of intervals in {@link #cachedIntervals}. */
+  private static final int MAX_CACHED_INTERVALS = 0x10000;
+
   private int maximumCodePoint;
-  private final Map<String, IntCharSet> propertyValueIntervals = new HashMap<>();
+  private String[] intervals;
+
+  /**
+   * Maps property values and aliases to the indexes of their packed {@link #intervals}. Single
+   * letter general categories map to all two letter categories they contain. Aliases share the
+   * array of their target.
+   */
+  private final Map<String, int[]> propertyValueIndex = new HashMap<>();
+
+  /** Intervals of \p{ASCII} and \p{Any}, which do not depend on the Unicode data. */
+  private final Map<String, IntCharSet> invariantIntervals = new HashMap<>();
+
+  /** Unpacked intervals by entry of {@link #propertyValueIndex}, least recently used first. */
+  private final Map<int[], IntCharSet> cachedIntervals = new LinkedHashMap<>(16, 0.75f, true);
+
+  /** Number of intervals in {@link #cachedIntervals}. */
+  private int numCachedIntervals;
+
   private String caselessMatchPartitions;
   private int caselessMatchPartitionSize;
   private IntCharSet[] caselessMatches;
@@ -73,7 +97,44 @@ public class UnicodeProperties {
    *     exists, and null otherwise.
    */
   public IntCharSet getIntCharSet(String propertyValue) {
-    return propertyValueIntervals.get(normalize(propertyValue));
+    String normalized = normalize(propertyValue);
+    IntCharSet set = invariantIntervals.get(normalized);
+    if (null != set) return set;
+    int[] indexes = propertyValueIndex.get(normalized);
+    if (null == indexes) return null;
+    set = cachedIntervals.get(indexes);
+    if (null == set) {
+      set = unpack(indexes);
+      cachedIntervals.put(indexes, set);
+      numCachedIntervals += set.numIntervals();
+      Iterator<IntCharSet> eldest = cachedIntervals.values().iterator();
+      while (numCachedIntervals > MAX_CACHED_INTERVALS && cachedIntervals.size() > 1) {
+        numCachedIntervals -= eldest.next().numIntervals();
+        eldest.remove();
+      }
+    }
+    return set;
+  }
+
+  /**
+   * Unpacks the union of the given packed intervals.
+   *
+   * @param indexes indexes into {@link #intervals}
+   * @return the unpacked character set
+   */
+  private IntCharSet unpack(int[] indexes) {
+    IntCharSet set = new IntCharSet();
+    for (int n : indexes) {
+      String propertyIntervals = intervals[n];
+      for (int index = 0; index < propertyIntervals.length(); ) {
+        int start = propertyIntervals.codePointAt(index);
+        index += Character.charCount(start);
+        int end = propertyIntervals.codePointAt(index);
+        index += Character.charCount(end);
+        set.add(new Interval(start, end));
+      }
+    }
+    return set;
   }
 
   /**
@@ -83,7 +144,9 @@ public class UnicodeProperties {
    * @return The set of all properties supported by the specified Unicode version
    */
   public Set<String> getPropertyValues() {
-    return propertyValueIntervals.keySet();
+    Set<String> propertyValues = new HashSet<>(propertyValueIndex.keySet());
+    propertyValues.addAll(invariantIntervals.keySet());
+    return propertyValues;
   }
 
   /**
@@ -337,7 +400,8 @@ public class UnicodeProperties {
   }
 
   /**
-   * Unpacks data for the selected Unicode version, populating {@link #propertyValueIntervals}.
+   * Indexes data for the selected Unicode version, populating {@link #propertyValueIndex}. The
+   * intervals are only unpacked when first requested by {@link #getIntCharSet(String)}.
    *
    * @param propertyValues The list of property values, in same order as the packed data
    *     corresponding to them, in the given intervals, for the selected Unicode version.
@@ -362,46 +426,41 @@ public class UnicodeProperties {
     this.caselessMatchPartitions = caselessMatchPartitions;
     this.caselessMatchPartitionSize = caselessMatchPartitionSize;
     this.maximumCodePoint = maximumCodePoint;
+    this.intervals = intervals;
+    Map<String, int[]> singleLetters = new HashMap<>();
     for (int n = 0; n < propertyValues.length; ++n) {
       String propertyValue = propertyValues[n];
-      String propertyIntervals = intervals[n];
-      IntCharSet set = new IntCharSet();
-      for (int index = 0; index < propertyIntervals.length(); ) {
-        int start = propertyIntervals.codePointAt(index);
-        index += Character.charCount(start);
-        int end = propertyIntervals.codePointAt(index);
-        index += Character.charCount(end);
-        set.add(new Interval(start, end));
-      }
-      propertyValueIntervals.put(propertyValue, set);
+      propertyValueIndex.put(propertyValue, new int[] {n});
       if (2 == propertyValue.length()) {
         String singleLetter = propertyValue.substring(0, 1);
-        IntCharSet singleLetterPropValueSet = propertyValueIntervals.get(singleLetter);
-        if (null == singleLetterPropValueSet) {
-          singleLetterPropValueSet = new IntCharSet();
-          propertyValueIntervals.put(singleLetter, singleLetterPropValueSet);
+        int[] indexes = singleLetters.get(singleLetter);
+        if (null == indexes) {
+          indexes = new int[0];
         }
-        singleLetterPropValueSet.add(set);
+        indexes = Arrays.copyOf(indexes, indexes.length + 1);
+        indexes[indexes.length - 1] = n;
+        singleLetters.put(singleLetter, indexes);
       }
     }
+    propertyValueIndex.putAll(singleLetters);
     for (int n = 0; n < propertyValueAliases.length; n += 2) {
       String alias = propertyValueAliases[n];
       String propertyValue = propertyValueAliases[n + 1];
-      IntCharSet targetSet = propertyValueIntervals.get(propertyValue);
-      if (null != targetSet) {
-        propertyValueIntervals.put(alias, targetSet);
+      int[] targetIndexes = propertyValueIndex.get(propertyValue);
+      if (null != targetIndexes) {
+        propertyValueIndex.put(alias, targetIndexes);
       }
     }
     bindInvariantIntervals();
   }
 
-  /** Adds intervals for \p{ASCII} and \p{Any} to {@link #propertyValueIntervals}. */
+  /** Adds intervals for \p{ASCII} and \p{Any} to {@link #invariantIntervals}. */
   private void bindInvariantIntervals() {
     IntCharSet asciiSet = IntCharSet.ofCharacterRange(0, 0x7F);
-    propertyValueIntervals.put(normalize("ASCII"), asciiSet);
+    invariantIntervals.put(normalize("ASCII"), asciiSet);
 
     IntCharSet anySet = IntCharSet.ofCharacterRange(0, maximumCodePoint);
-    propertyValueIntervals.put(normalize("Any"), anySet);
+    invariantIntervals.put(normalize("Any"), anySet);
   }
 
   /**
@@ -46,11 +46,14 @@ public class DFA {
   static final boolean DFA_DEBUG = false;
 
   /**
-   * {@code table[current_state][character]} is the next state for {@code current_state} with input
-   * {@code character}, {@code NO_TARGET} if there is no transition for this input in {@code
-   * current_state}
+   * {@code table[current_state * numInput + character]} is the next state for {@code current_state}
+   * with input {@code character}, {@code NO_TARGET} if there is no transition for this input in
+   * {@code current_state}.
+   *
+   * <p>The rows of all states are stored in one array, which avoids an array object per state and
+   * keeps the transitions of consecutive states next to each other.
    */
-  int[][] table;
+  int[] table;
 
   /** {@code isFinal[state] == true} if the state {@code state} is a final state. */
   boolean[] isFinal;
@@ -94,16 +97,12 @@ public class DFA {
 
     int statesNeeded = Math.max(numEntryStates, STATES);
 
-    table = new int[statesNeeded][numInput];
+    table = new int[tableSize(statesNeeded)];
     isFinal = new boolean[statesNeeded];
     action = new Action[statesNeeded];
     entryState = new int[numEntryStates];
 
-    for (int i = 0; i < statesNeeded; i++) {
-      for (int j = 0; j < numInput; j++) {
-        table[i][j] = NO_TARGET;
-      }
-    }
+    Arrays.fill(table, NO_TARGET);
   }
 
   /**
@@ -127,19 +126,11 @@ public class DFA {
 
     boolean[] newFinal = new boolean[newLength];
     Action[] newAction = new Action[newLength];
-    int[][] newTable = new int[newLength][numInput];
+    int[] newTable = Arrays.copyOf(table, tableSize(newLength));
 
     System.arraycopy(isFinal, 0, newFinal, 0, numStates);
     System.arraycopy(action, 0, newAction, 0, numStates);
-    System.arraycopy(table, 0, newTable, 0, oldLength);
-
-    int i, j;
-
-    for (i = oldLength; i < newLength; i++) {
-      for (j = 0; j < numInput; j++) {
-        newTable[i][j] = NO_TARGET;
-      }
-    }
+    Arrays.fill(newTable, table.length, newTable.length, NO_TARGET);
 
     isFinal = newFinal;
     action = newAction;
@@ -147,6 +138,22 @@ public class DFA {
     minimized = false;
   }
 
+  /**
+   * The size of a transition table for a number of states.
+   *
+   * @param states the number of states
+   * @return {@code states * numInput}
+   * @throws OutOfMemoryError if the table would have more than {@code Integer.MAX_VALUE} entries
+   */
+  private int tableSize(int states) {
+    long size = (long) states * numInput;
+    if (size > Integer.MAX_VALUE - 8) {
+      throw new OutOfMemoryError(
+          "DFA transition table for " + states + " states and " + numInput + " inputs");
+    }
+    return (int) size;
+  }
+
   /**
    * Sets the action.
    *
@@ -187,7 +194,7 @@ public class DFA {
 
     // Out.debug("Adding DFA transition (" + start + ", " + (int) input + ", " + dest + ")");
 
-    table[start][input] = dest;
+    table[start * numInput + input] = dest;
     minimized = false;
   }
 
@@ -213,8 +220,8 @@ public class DFA {
       result.append(i).append(":").append(Out.NL);
 
       for (int j = 0; j < numInput; j++) {
-        if (table[i][j] >= 0)
-          result.append("  with ").append(j).append(" in ").append(table[i][j]).append(Out.NL);
+        int t = table[i * numInput + j];
+        if (t >= 0) result.append("  with ").append(j).append(" in ").append(t).append(Out.NL);
       }
     }
 
@@ -223,7 +230,7 @@ public class DFA {
 
   @Override
   public int hashCode() {
-    return Arrays.deepHashCode(table);
+    return Arrays.hashCode(table);
   }
 
   @Override
@@ -235,16 +242,7 @@ public class DFA {
         && Arrays.equals(entryState, ((DFA) obj).entryState)
         && Arrays.equals(action, ((DFA) obj).action)
         && Objects.equals(usedActions, ((DFA) obj).usedActions)
-        && tableEquals(table, ((DFA) obj).table);
-  }
-
-  private static boolean tableEquals(int[][] a, int[][] b) {
-    for (int i = 0; i < a.length; i++) {
-      if (!Arrays.equals(a[i], b[i])) {
-        return false;
-      }
-    }
-    return true;
+        && Arrays.equals(table, ((DFA) obj).table);
   }
 
   /**
@@ -286,8 +284,9 @@ public class DFA {
 
     for (int i = 0; i < numStates; i++) {
       for (int input = 0; input < numInput; input++) {
-        if (table[i][input] >= 0) {
-          result.append(i).append(" -> ").append(table[i][input]);
+        int t = table[i * numInput + input];
+        if (t >= 0) {
+          result.append(i).append(" -> ").append(t);
           result.append(" [label=\"[").append(input).append("]\"]").append(Out.NL);
           // result.append(" [label=\"[").append(classes.toString(input)).append("]\"]\n");
         }
@@ -309,10 +308,16 @@ public class DFA {
   }
 
   /**
-   * Implementation of Hopcroft's O(n log n) minimization algorithm, follows description by D.
-   * Gries.
+   * Implementation of Hopcroft's O(n log n) minimization algorithm on the partial transition
+   * function, with the refinable partition data structure of A. Valmari.
+   *
+   * <p>Only real transitions are stored: the inverse of the transition table is kept as one array
+   * of incoming transitions per state (in compressed sparse row form), and the worklist contains
+   * blocks, which are split by all inputs at once. There is no need for an error state, because a
+   * missing transition is treated like a transition into a block of its own.
    *
-   * <p>Time: {@code O(n log n)} Space: {@code O(c n), size < 4*(5*c*n + 13*n + 3*c) byte}
+   * <p>Time: {@code O(m log n)} Space: {@code O(n + m), size < 4*(3*m + 10*n + 3*c) byte}, where
+   * {@code m} is the number of transitions that have a target state.
    */
   public void minimize() {
     if (minimized) {
@@ -325,376 +330,194 @@ public class DFA {
       throw new GeneratorException(new IllegalStateException("DFA has 0 states"));
     }
 
-    if (Options.no_minimize) {
+    if (Options.get().no_minimize) {
       Out.println("minimization skipped.");
       return;
     }
 
-    // the algorithm needs the DFA to be total, so we add an error state 0,
-    // and translate the rest of the states by +1
-    final int n = numStates + 1;
-
-    // block information:
-    // [0..n-1] stores which block a state belongs to,
-    // [n..2*n-1] stores how many elements each block has
-    int[] block = new int[2 * n];
-
-    // implements a doubly linked list of states (these are the actual blocks)
-    int[] b_forward = new int[2 * n];
-    int[] b_backward = new int[2 * n];
-
-    // the last of the blocks currently in use (in [n..2*n-1])
-    // (end of list marker, points to the last used block)
-    int lastBlock = n; // at first we start with one empty block
-    final int b0 = n; // the first block
-
-    // the circular doubly linked list L of pairs (B_i, c)
-    // (B_i, c) in L iff l_forward[(B_i-n)*numInput+c] > 0 // numeric value of block 0 = n!
-    int[] l_forward = new int[n * numInput + 1];
-    int[] l_backward = new int[n * numInput + 1];
-    int anchorL = n * numInput; // list anchor
-
-    // inverse of the transition table
-    // if t = inv_delta[s][c] then { inv_delta_set[t], inv_delta_set[t+1], .. inv_delta_set[k] }
-    // is the set of states, with inv_delta_set[k] = -1 and inv_delta_set[j] >= 0 for t <= j < k
-    int[][] inv_delta = new int[n][numInput];
-    int[] inv_delta_set = new int[2 * n * numInput];
-
-    // twin stores two things:
-    // twin[0]..twin[numSplit-1] is the list of blocks that have been split
-    // twin[B_i] is the twin of block B_i
-    int[] twin = new int[2 * n];
-    int numSplit;
-
-    // SD[B_i] is the the number of states s in B_i with delta(s,a) in B_j
-    // if SD[B_i] == block[B_i], there is no need to split
-    int[] SD = new int[2 * n]; // [only SD[n..2*n-1] is used]
-
-    // for fixed (B_j,a), the D[0]..D[numD-1] are the inv_delta(B_j,a)
-    int[] D = new int[n];
-    int numD;
-
-    // initialize inverse of transition table
-    int lastDelta = 0;
-    int[] inv_lists = new int[n]; // holds a set of lists of states
-    int[] inv_list_last = new int[n]; // the last element
-    for (int c = 0; c < numInput; c++) {
-      // clear "head" and "last element" pointers
-      for (int s = 0; s < n; s++) {
-        inv_list_last[s] = -1;
-        inv_delta[s][c] = -1;
-      }
-
-      // the error state has a transition for each character into itself
-      inv_delta[0][c] = 0;
-      inv_list_last[0] = 0;
-
-      // accumulate states of inverse delta into lists (inv_delta serves as head of list)
-      for (int s = 1; s < n; s++) {
-        int t = table[s - 1][c] + 1;
+    final int n = numStates;
 
-        if (inv_list_last[t] == -1) { // if there are no elements in the list yet
-          inv_delta[t][c] = s; // mark t as first and last element
-          inv_list_last[t] = s;
-        } else {
-          inv_lists[inv_list_last[t]] = s; // link t into chain
-          inv_list_last[t] = s; // and mark as last element
-        }
-      }
+    // inverse of the transition table: the states with a transition into state t are
+    // inSource[inStart[t]] .. inSource[inStart[t+1]-1], inInput[k] is the input of transition k
+    int[] inStart = new int[n + 1];
+    for (int k = 0; k < n * numInput; k++) {
+      if (table[k] != NO_TARGET) inStart[table[k] + 1]++;
+    }
+    for (int t = 0; t < n; t++) inStart[t + 1] += inStart[t];
 
-      // now move them to inv_delta_set in sequential order,
-      // and update inv_delta accordingly
-      for (int s = 0; s < n; s++) {
-        int i = inv_delta[s][c];
-        inv_delta[s][c] = lastDelta;
-        int j = inv_list_last[s];
-        boolean go_on = (i != -1);
-        while (go_on) {
-          go_on = (i != j);
-          inv_delta_set[lastDelta++] = i;
-          i = inv_lists[i];
+    final int m = inStart[n];
+    int[] inSource = new int[m];
+    int[] inInput = new int[m];
+    // inStart[t] is used as fill pointer for state t, which moves it to the start of t+1 ..
+    for (int s = 0, row = 0; s < n; s++, row += numInput) {
+      for (int c = 0; c < numInput; c++) {
+        int t = table[row + c];
+        if (t != NO_TARGET) {
+          int k = inStart[t]++;
+          inSource[k] = s;
+          inInput[k] = c;
         }
-        inv_delta_set[lastDelta++] = -1;
       }
-    } // of initialize inv_delta
-
-    if (DFA_DEBUG) {
-      printInvDelta(inv_delta, inv_delta_set);
     }
-    // initialize blocks
-
-    // make b0 = {0}  where 0 = the additional error state
-    b_forward[b0] = 0;
-    b_backward[b0] = 0;
-    b_forward[0] = b0;
-    b_backward[0] = b0;
-    block[0] = b0;
-    block[b0] = 1;
-
-    for (int s = 1; s < n; s++) {
-      // System.out.println("Checking state ["+(s-1)+"]");
-      // search the blocks if it fits in somewhere
-      // (fit in = same pushback behavior, same finalness, same lookahead behavior, same action)
-      int b = b0 + 1; // no state can be equivalent to the error state
-      boolean found = false;
-      while (!found && b <= lastBlock) {
-        // get some state out of the current block
-        int t = b_forward[b];
-        // System.out.println("  picking state ["+(t-1)+"]");
-
-        // check, if s could be equivalent with t
-        if (isFinal[s - 1]) {
-          found = isFinal[t - 1] && action[s - 1].isEquiv(action[t - 1]);
+    // .. so we shift it back
+    System.arraycopy(inStart, 0, inStart, 1, n);
+    inStart[0] = 0;
+
+    // the partition: block b consists of the states elements[first[b]] .. elements[end[b]-1],
+    // the states at positions first[b] .. mid[b]-1 are marked for splitting
+    int[] elements = new int[n];
+    int[] location = new int[n]; // elements[location[s]] == s
+    int[] blockOf = new int[n];
+    int[] first = new int[n];
+    int[] end = new int[n];
+    int[] mid = new int[n];
+    int numBlocks = 0;
+
+    // initial partition: all non-final states, and the final states with equivalent actions
+    // (same pushback behavior, same lookahead behavior, same action)
+    Map<Action, Integer> finalBlocks = new HashMap<>();
+    int nonFinalBlock = -1;
+    for (int s = 0; s < n; s++) {
+      int b;
+      if (isFinal[s]) {
+        Integer found = finalBlocks.get(action[s]);
+        if (found == null) {
+          b = numBlocks++;
+          finalBlocks.put(action[s], b);
         } else {
-          found = !isFinal[t - 1];
+          b = found;
         }
-
-        if (found) { // found -> add state s to block b
-          // System.out.println("Found! Adding to block "+(b-b0));
-          // update block information
-          block[s] = b;
-          block[b]++;
-
-          // chain in the new element
-          int last = b_backward[b];
-          b_forward[last] = s;
-          b_forward[s] = b;
-          b_backward[b] = s;
-          b_backward[s] = last;
-        }
-
-        b++;
-      }
-
-      if (!found) { // fits in nowhere -> create new block
-        // System.out.println("not found, lastBlock = "+lastBlock);
-
-        // update block information
-        block[s] = b;
-        block[b]++;
-
-        // chain in the new element
-        b_forward[b] = s;
-        b_forward[s] = b;
-        b_backward[b] = s;
-        b_backward[s] = b;
-
-        lastBlock++;
+      } else {
+        if (nonFinalBlock < 0) nonFinalBlock = numBlocks++;
+        b = nonFinalBlock;
       }
-    } // of initialize blocks
-
-    if (DFA_DEBUG) {
-      printBlocks(block, b_forward, b_backward, lastBlock);
+      blockOf[s] = b;
+      end[b]++;
+    }
+    for (int b = 1; b < numBlocks; b++) end[b] += end[b - 1];
+    for (int s = n - 1; s >= 0; s--) {
+      int i = --end[blockOf[s]];
+      elements[i] = s;
+      location[s] = i;
+    }
+    for (int b = 0; b < numBlocks; b++) {
+      first[b] = end[b];
+      mid[b] = end[b];
+      end[b] = b + 1 < numBlocks ? end[b + 1] : n;
     }
 
-    // initialize worklist L
-    // first, find the largest block B_max, then, all other (B_i,c) go into the list
-    int B_max = b0;
-    int B_i;
-    for (B_i = b0 + 1; B_i <= lastBlock; B_i++) if (block[B_max] < block[B_i]) B_max = B_i;
-
-    // L = empty
-    l_forward[anchorL] = anchorL;
-    l_backward[anchorL] = anchorL;
-
-    // set up the first list element
-    if (B_max == b0) B_i = b0 + 1;
-    else B_i = b0; // there must be at least two blocks
-
-    int index = (B_i - b0) * numInput; // (B_i, 0)
-    while (index < (B_i + 1 - b0) * numInput) {
-      int last = l_backward[anchorL];
-      l_forward[last] = index;
-      l_forward[index] = anchorL;
-      l_backward[index] = last;
-      l_backward[anchorL] = index;
-      index++;
+    if (DFA_DEBUG) {
+      printBlocks(elements, first, end, numBlocks);
     }
 
-    // now do the rest of L
-    while (B_i <= lastBlock) {
-      if (B_i != B_max) {
-        index = (B_i - b0) * numInput;
-        while (index < (B_i + 1 - b0) * numInput) {
-          int last = l_backward[anchorL];
-          l_forward[last] = index;
-          l_forward[index] = anchorL;
-          l_backward[index] = last;
-          l_backward[anchorL] = index;
-          index++;
-        }
-      }
-      B_i++;
+    // the worklist of splitters; it contains each block at most once.
+    // The DFA is partial, so it has to start with all blocks, not all but the largest.
+    int[] worklist = new int[n];
+    boolean[] inWorklist = new boolean[n];
+    int numWork = 0;
+    for (int b = 0; b < numBlocks; b++) {
+      worklist[numWork++] = b;
+      inWorklist[b] = true;
     }
-    // end of setup L
 
-    // start of "real" algorithm
-    // int step = 0;
-    // System.out.println("max_steps = "+(n*numInput));
-    // while L not empty
-    while (l_forward[anchorL] != anchorL) {
-      if (DFA_DEBUG) {
-        // System.out.println("step : "+(step++));
-        printL(l_forward, l_backward, anchorL);
-      }
+    // for a splitter B, the states with a transition on input c into B are
+    // D[inputStart[c]] .. D[inputEnd[c]-1]
+    int[] D = new int[m];
+    int[] inputStart = new int[numInput];
+    int[] inputEnd = new int[numInput];
+    int[] inputs = new int[numInput]; // the inputs with transitions into B
+    int numInputs;
 
-      // pick and delete (B_j, a) in L:
+    int[] touched = new int[n]; // the blocks with marked states
+    int numTouched;
 
-      // pick
-      int B_j_a = l_forward[anchorL];
-      // delete
-      l_forward[anchorL] = l_forward[B_j_a];
-      l_backward[l_forward[anchorL]] = anchorL;
-      l_forward[B_j_a] = 0;
-      // take B_j_a = (B_j-b0)*numInput+c apart into (B_j, a)
-      int B_j = b0 + B_j_a / numInput;
-      int a = B_j_a % numInput;
+    while (numWork > 0) {
+      int B = worklist[--numWork];
+      inWorklist[B] = false;
 
       if (DFA_DEBUG) {
-        printL(l_forward, l_backward, anchorL);
-
-        System.out.println("picked (" + B_j + "," + a + ")");
-        printL(l_forward, l_backward, anchorL);
+        Out.dump("picked block " + B);
       }
 
-      // determine splittings of all blocks wrt (B_j, a)
-      // i.e. D = inv_delta(B_j,a)
-      numD = 0;
-      int s = b_forward[B_j];
-      while (s != B_j) {
-        // System.out.println("splitting wrt. state "+s);
-        int t = inv_delta[s][a];
-        // System.out.println("inv_delta chunk "+t);
-        while (inv_delta_set[t] != -1) {
-          // System.out.println("D+= state "+inv_delta_set[t]);
-          D[numD++] = inv_delta_set[t++];
+      // collect the incoming transitions of B, sorted by input (counting sort)
+      numInputs = 0;
+      for (int i = first[B]; i < end[B]; i++) {
+        int t = elements[i];
+        for (int k = inStart[t]; k < inStart[t + 1]; k++) {
+          int c = inInput[k];
+          if (inputEnd[c]++ == 0) inputs[numInputs++] = c;
         }
-        s = b_forward[s];
-      }
-
-      // clear the twin list
-      numSplit = 0;
-
-      if (DFA_DEBUG) {
-        System.out.println("splitting blocks according to D");
       }
-
-      // clear SD and twins (only those B_i that occur in D)
-      for (int indexD = 0; indexD < numD; indexD++) { // for each s in D
-        s = D[indexD];
-        B_i = block[s];
-        SD[B_i] = -1;
-        twin[B_i] = 0;
+      int size = 0;
+      for (int j = 0; j < numInputs; j++) {
+        int c = inputs[j];
+        inputStart[c] = size;
+        size += inputEnd[c];
+        inputEnd[c] = inputStart[c];
       }
-
-      // count how many states of each B_i occurring in D go with a into B_j
-      // Actually we only check, if *all* t in B_i go with a into B_j.
-      // In this case SD[B_i] == block[B_i] will hold.
-      for (int indexD = 0; indexD < numD; indexD++) { // for each s in D
-        s = D[indexD];
-        B_i = block[s];
-
-        // only count, if we haven't checked this block already
-        if (SD[B_i] < 0) {
-          SD[B_i] = 0;
-          int t = b_forward[B_i];
-          while (t != B_i
-              && (t != 0 || block[0] == B_j)
-              && (t == 0 || block[table[t - 1][a] + 1] == B_j)) {
-            SD[B_i]++;
-            t = b_forward[t];
-          }
+      for (int i = first[B]; i < end[B]; i++) {
+        int t = elements[i];
+        for (int k = inStart[t]; k < inStart[t + 1]; k++) {
+          D[inputEnd[inInput[k]]++] = inSource[k];
         }
       }
 
-      // split each block according to D
-      for (int indexD = 0; indexD < numD; indexD++) { // for each s in D
-        s = D[indexD];
-        B_i = block[s];
-
-        // System.out.println("checking if block "+(B_i-b0)+" must be split because of state "+s);
-
-        if (SD[B_i] != block[B_i]) {
-          // System.out.println("state "+(s-1)+" must be moved");
-          int B_k = twin[B_i];
-          if (B_k == 0) {
-            // no twin for B_i yet -> generate new block B_k, make it B_i's twin
-            B_k = ++lastBlock;
-            // System.out.println("creating block "+(B_k-n));
-            // printBlocks(block,b_forward,b_backward,lastBlock-1);
-            b_forward[B_k] = B_k;
-            b_backward[B_k] = B_k;
-
-            twin[B_i] = B_k;
-
-            // mark B_i as split
-            twin[numSplit++] = B_i;
-          }
-          // move s from B_i to B_k
-
-          // remove s from B_i
-          b_forward[b_backward[s]] = b_forward[s];
-          b_backward[b_forward[s]] = b_backward[s];
-
-          // add s to B_k
-          int last = b_backward[B_k];
-          b_forward[last] = s;
-          b_forward[s] = B_k;
-          b_backward[s] = last;
-          b_backward[B_k] = s;
-
-          block[s] = B_k;
-          block[B_k]++;
-          block[B_i]--;
-
-          SD[B_i]--; // there is now one state less in B_i that goes with a into B_j
-          // printBlocks(block, b_forward, b_backward, lastBlock);
-          // System.out.println("finished move");
+      // split all blocks wrt (B, c) for each input c. B itself may be split on the way,
+      // which is fine because D was computed from all of B.
+      for (int j = 0; j < numInputs; j++) {
+        int c = inputs[j];
+
+        // mark the states in D (each state occurs at most once per input)
+        numTouched = 0;
+        for (int d = inputStart[c]; d < inputEnd[c]; d++) {
+          int s = D[d];
+          int b = blockOf[s];
+          if (mid[b] == first[b]) touched[numTouched++] = b;
+          int i = location[s];
+          int k = mid[b]++;
+          int other = elements[k];
+          elements[k] = s;
+          location[s] = k;
+          elements[i] = other;
+          location[other] = i;
         }
-      } // of block splitting
 
-      if (DFA_DEBUG) {
-        printBlocks(block, b_forward, b_backward, lastBlock);
+        // split the touched blocks into marked and unmarked states
+        for (int i = 0; i < numTouched; i++) {
+          int b = touched[i];
+          if (mid[b] == end[b]) {
+            // all states are marked, no split
+            mid[b] = first[b];
+            continue;
+          }
 
-        System.out.println("updating L");
-      }
-      // update L
-      for (int indexTwin = 0; indexTwin < numSplit; indexTwin++) {
-        B_i = twin[indexTwin];
-        int B_k = twin[B_i];
-        for (int c = 0; c < numInput; c++) {
-          int B_i_c = (B_i - b0) * numInput + c;
-          int B_k_c = (B_k - b0) * numInput + c;
-          if (l_forward[B_i_c] > 0) {
-            // (B_i,c) already in L --> put (B_k,c) in L
-            int last = l_backward[anchorL];
-            l_backward[anchorL] = B_k_c;
-            l_forward[last] = B_k_c;
-            l_backward[B_k_c] = last;
-            l_forward[B_k_c] = anchorL;
+          // the smaller part becomes the new block
+          int newBlock = numBlocks++;
+          if (mid[b] - first[b] <= end[b] - mid[b]) {
+            first[newBlock] = first[b];
+            end[newBlock] = mid[b];
+            first[b] = mid[b];
           } else {
-            // put the smaller block in L
-            if (block[B_i] <= block[B_k]) {
-              int last = l_backward[anchorL];
-              l_backward[anchorL] = B_i_c;
-              l_forward[last] = B_i_c;
-              l_backward[B_i_c] = last;
-              l_forward[B_i_c] = anchorL;
-            } else {
-              int last = l_backward[anchorL];
-              l_backward[anchorL] = B_k_c;
-              l_forward[last] = B_k_c;
-              l_backward[B_k_c] = last;
-              l_forward[B_k_c] = anchorL;
-            }
+            first[newBlock] = mid[b];
+            end[newBlock] = end[b];
+            end[b] = mid[b];
           }
+          mid[b] = first[b];
+          mid[newBlock] = first[newBlock];
+          for (int k = first[newBlock]; k < end[newBlock]; k++) blockOf[elements[k]] = newBlock;
+
+          // if b is in the worklist, both parts must be; otherwise the smaller part is enough
+          worklist[numWork++] = newBlock;
+          inWorklist[newBlock] = true;
         }
       }
+
+      for (int j = 0; j < numInputs; j++) inputEnd[inputs[j]] = 0;
     }
 
     if (DFA_DEBUG) {
-      System.out.println("Result");
-      printBlocks(block, b_forward, b_backward, lastBlock);
+      Out.dump("Result");
+      printBlocks(elements, first, end, numBlocks);
     }
 
     // transform the transition table
@@ -711,15 +534,13 @@ public class DFA {
     int[] move = new int[numStates];
 
     // fill arrays trans[] and kill[] (in O(n))
-    for (int b = n + 1; b <= lastBlock; b++) { // b0 contains the error state
+    for (int b = 0; b < numBlocks; b++) {
       // get the state with smallest value in current block
-      int s = b_forward[b];
-      int min_s = s; // there are no empty blocks!
-      for (; s != b; s = b_forward[s]) if (min_s > s) min_s = s;
+      int min_s = elements[first[b]]; // there are no empty blocks!
+      for (int i = first[b] + 1; i < end[b]; i++) if (min_s > elements[i]) min_s = elements[i];
       // now fill trans[] and kill[] for this block
-      // (and translate states back to partial DFA)
-      min_s--;
-      for (s = b_forward[b] - 1; s != b - 1; s = b_forward[s + 1] - 1) {
+      for (int i = first[b]; i < end[b]; i++) {
+        int s = elements[i];
         trans[s] = min_s;
         kill[s] = s != min_s;
       }
@@ -741,13 +562,15 @@ public class DFA {
       if (!kill[i]) {
 
         // translate the target states
+        int from = i * numInput;
+        int to = j * numInput;
         for (int c = 0; c < numInput; c++) {
-          if (table[i][c] >= 0) {
-            table[j][c] = trans[table[i][c]];
-            table[j][c] -= move[table[j][c]];
-          } else {
-            table[j][c] = table[i][c];
+          int t = table[from + c];
+          if (t >= 0) {
+            t = trans[t];
+            t -= move[t];
           }
+          table[to + c] = t;
         }
 
         isFinal[j] = isFinal[i];
@@ -784,76 +607,18 @@ public class DFA {
     return r.toString();
   }
 
-  private void printBlocks(int[] b, int[] b_f, int[] b_b, int last) {
-    Out.dump("block     : " + toString(b));
-    Out.dump("b_forward : " + toString(b_f));
-    Out.dump("b_backward: " + toString(b_b));
-    Out.dump("lastBlock : " + last);
-    final int n = numStates + 1;
-    for (int i = n; i <= last; i++) {
-      Out.dump("Block " + (i - n) + " (size " + b[i] + "):");
-      String line = "{";
-      int s = b_f[i];
-      while (s != i) {
-        line = line + (s - 1);
-        int t = s;
-        s = b_f[s];
-        if (s != i) {
-          line = line + ",";
-          if (b[s] != i)
-            Out.dump("consistency error for state " + (s - 1) + " (block " + b[s] + ")");
-        }
-        if (b_b[s] != t)
-          Out.dump(
-              "consistency error for b_back in state "
-                  + (s - 1)
-                  + " (back = "
-                  + b_b[s]
-                  + ", should be = "
-                  + t
-                  + ")");
+  private void printBlocks(int[] elements, int[] first, int[] end, int numBlocks) {
+    for (int b = 0; b < numBlocks; b++) {
+      StringBuilder line =
+          new StringBuilder("Block " + b + " (size " + (end[b] - first[b]) + "): {");
+      for (int i = first[b]; i < end[b]; i++) {
+        line.append(elements[i]);
+        if (i + 1 < end[b]) line.append(",");
       }
       Out.dump(line + "}");
     }
   }
 
-  private void printL(int[] l_f, int[] l_b, int anchor) {
-    String l = "L = {";
-    int bc = l_f[anchor];
-    while (bc != anchor) {
-      int b = bc / numInput;
-      int c = bc % numInput;
-      l += "(" + b + "," + c + ")";
-      int old_bc = bc;
-      bc = l_f[bc];
-      if (bc != anchor) l += ",";
-      if (l_b[bc] != old_bc) Out.dump("consistency error for (" + b + "," + c + ")");
-    }
-    Out.dump(l + "}");
-  }
-
-  /**
-   * Prints the inverse of transition table.
-   *
-   * @param inv_delta an array of int.
-   * @param inv_delta_set an array of int.
-   */
-  private void printInvDelta(int[][] inv_delta, int[] inv_delta_set) {
-    Out.dump("Inverse of transition table: ");
-    for (int s = 0; s < numStates + 1; s++) {
-      Out.dump("State [" + (s - 1) + "]");
-      for (int c = 0; c < numInput; c++) {
-        String line = "With <" + c + "> in {";
-        int t = inv_delta[s][c];
-        while (inv_delta_set[t] != -1) {
-          line += inv_delta_set[t++] - 1;
-          if (inv_delta_set[t] != -1) line += ",";
-        }
-        if (inv_delta_set[inv_delta[s][c]] != -1) Out.dump(line + "}");
-      }
-    }
-  }
-
   public int numInput() {
     return numInput;
   }
@@ -875,7 +640,7 @@ public class DFA {
   }
 
   public int table(int i, int j) {
-    return table[i][j];
+    return table[i * numInput + j];
   }
 
   public Action action(int i) {
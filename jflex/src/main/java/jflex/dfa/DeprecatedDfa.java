@@ -33,9 +33,9 @@ public class DeprecatedDfa extends DFA {
       throw new GeneratorException(new IllegalStateException("DFA has no states"));
     }
 
-    if (Options.no_minimize) {
+    if (Options.get().no_minimize) {
       throw new UnsupportedOperationException(
-          "Options.no_minimize is set. Minimization is not allowed in this case");
+          "Options.get().no_minimize is set. Minimization is not allowed in this case");
     }
 
     // equiv[i][j] == true <=> state i and state j are equivalent
@@ -74,8 +74,8 @@ public class DeprecatedDfa extends DFA {
 
             if (equiv[i][j]) {
 
-              int p = table[i][c];
-              int q = table[j][c];
+              int p = table[i * numInput() + c];
+              int q = table[j * numInput() + c];
               if (p < q) {
                 int t = p;
                 p = q;
@@ -99,8 +99,8 @@ public class DeprecatedDfa extends DFA {
 
             for (c = 0; c < numInput(); c++) {
 
-              int p = table[i][c];
-              int q = table[j][c];
+              int p = table[i * numInput() + c];
+              int q = table[j * numInput() + c];
               if (p < q) {
                 int t = p;
                 p = q;
@@ -152,10 +152,7 @@ public class DeprecatedDfa extends DFA {
     DeprecatedDfa copy =
         new DeprecatedDfa(
             dfa.entryState.length, dfa.numInput(), dfa.numLexStates(), dfa.numStates());
-    copy.table = new int[dfa.table.length][dfa.numInput()];
-    for (int i = 0; i < dfa.table.length; i++) {
-      System.arraycopy(dfa.table[i], 0, copy.table[i], 0, copy.numInput());
-    }
+    copy.table = Arrays.copyOf(dfa.table, dfa.table.length);
     copy.isFinal = Arrays.copyOf(dfa.isFinal, dfa.isFinal.length);
     copy.entryState = Arrays.copyOf(dfa.entryState, dfa.entryState.length);
     // Sets action and usedActions
@@ -4,6 +4,9 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import jflex.core.NFA;
 import jflex.logging.Out;
 import jflex.option.Options;
@@ -11,14 +14,38 @@ import jflex.state.StateSet;
 import jflex.state.StateSetEnumerator;
 
 public class DfaFactory {
+
+  /** Number of DFA states whose transitions are computed in one parallel batch. */
+  private static final int BATCH_SIZE = 256;
+
+  /** Number of DFA states below which a parallel task does not split further. */
+  private static final int TASK_SIZE = 8;
+
   /**
    * Returns a DFA that accepts the same language as the NFA.
    *
-   * <p>This DFA is usually not minimal.
+   * <p>This DFA is usually not minimal. Uses {@link Options#threads} threads.
    *
    * @return a DFA that accepts the same language as the NFA.
    */
   public static DFA createFromNfa(NFA nfa) {
+    return createFromNfa(nfa, Options.get().threads);
+  }
+
+  /**
+   * Returns a DFA that accepts the same language as the NFA.
+   *
+   * <p>This DFA is usually not minimal. The result, including the numbering of states, does not
+   * depend on the number of threads.
+   *
+   * @param nfa the NFA to convert
+   * @param threads the number of threads to compute DFA transitions with
+   * @return a DFA that accepts the same language as the NFA.
+   */
+  public static DFA createFromNfa(NFA nfa, int threads) {
+    if (threads > 1) {
+      return createFromNfaParallel(nfa, threads);
+    }
 
     int numStates = nfa.numStates();
     Map<StateSet, Integer> dfaStates = new HashMap<>(numStates);
@@ -66,12 +93,16 @@ public class DfaFactory {
 
     StateSet tempStateSet = nfa.tempStateSet();
     StateSetEnumerator states = nfa.states();
+    NFA.Moves moves = new NFA.Moves(nfa.numInput());
     newState = new StateSet(numStates);
     while (currentDFAState <= numDFAStates) {
 
       currentState = dfaList.get(currentDFAState);
 
-      for (int input = 0; input < nfa.numInput(); input++) {
+      // only the inputs with transitions from currentState
+      nfa.moves(currentState, moves);
+      for (int i = 0; i < moves.numInputs(); i++) {
+        int input = moves.input(i);
 
         // newState = DFAEdge(currentState, input);
 
@@ -80,9 +111,7 @@ public class DfaFactory {
         // Out.debug("Calculating DFAEdge for state set "+currentState+" and input '"+input+"'");
 
         tempStateSet.clear();
-        states.reset(currentState);
-        while (states.hasMoreElements())
-          tempStateSet.add(nfa.reachableStates(states.nextElement(), input));
+        moves.addTargets(i, tempStateSet);
 
         newState.copy(tempStateSet);
 
@@ -102,12 +131,12 @@ public class DfaFactory {
           if (nextDFAState != null) {
             dfa.addTransition(currentDFAState, input, nextDFAState);
           } else {
-            if (Options.progress) Out.print(".");
+            if (Options.get().progress) Out.print(".");
             // Out.debug("Table was "+dfaStates);
             numDFAStates++;
 
-            // make a new copy of newState to store in dfaStates
-            StateSet storeState = new StateSet(newState);
+            // make a frozen copy of newState to store in dfaStates
+            StateSet storeState = newState.frozenCopy();
 
             dfaStates.put(storeState, numDFAStates);
             dfaList.add(storeState);
@@ -122,9 +151,169 @@ public class DfaFactory {
       currentDFAState++;
     }
 
-    if (Options.verbose) Out.println("");
+    if (Options.get().verbose) Out.println("");
+    return dfa;
+  }
+
+  /**
+   * The subset construction with DFA transitions computed in parallel.
+   *
+   * <p>Unprocessed DFA states are taken in batches. The transitions of a batch are computed by
+   * fork-join tasks, which intern the target state sets in a concurrent table. Numbers are then
+   * assigned to new states sequentially in the order of (source state, input), which is the order
+   * in which the sequential construction discovers them. So both produce the same DFA.
+   */
+  private static DFA createFromNfaParallel(NFA nfa, int threads) {
+    DFA dfa = new DFA(nfa.numEntryStates(), nfa.numInput(), nfa.numLexStates());
+    Map<StateSet, DfaState> dfaStates = new ConcurrentHashMap<>(nfa.numStates());
+    List<DfaState> dfaList = new ArrayList<>(nfa.numStates());
+
+    Out.println("Converting NFA to DFA : ");
+    nfa.epsilonFill();
+
+    // create the initial states of the DFA
+    for (int i = 0; i < nfa.numEntryStates(); i++) {
+      StateSet newState = nfa.epsilon(i);
+      DfaState state = new DfaState(newState);
+      state.number = i;
+
+      dfaStates.put(newState, state);
+      dfaList.add(state);
+
+      dfa.setEntryState(i, i);
+      dfa.setFinal(i, nfa.containsFinal(newState));
+      dfa.setAction(i, nfa.getAction(newState));
+    }
+
+    ForkJoinPool pool = new ForkJoinPool(threads);
+    try {
+      int currentDFAState = 0;
+      while (currentDFAState < dfaList.size()) {
+        int end = Math.min(currentDFAState + BATCH_SIZE, dfaList.size());
+        DfaState[][] targets = new DfaState[end - currentDFAState][];
+        pool.invoke(
+            new EdgeTask(
+                nfa, dfaStates, dfaList, targets, currentDFAState, 0, end - currentDFAState));
+
+        for (int i = 0; i < targets.length; i++, currentDFAState++) {
+          for (int input = 0; input < nfa.numInput(); input++) {
+            DfaState target = targets[i][input];
+            if (target == null) continue;
+
+            if (target.number < 0) {
+              if (Options.get().progress) Out.print(".");
+              target.number = dfaList.size();
+              dfaList.add(target);
+
+              dfa.addTransition(currentDFAState, input, target.number);
+              dfa.setFinal(target.number, nfa.containsFinal(target.set));
+              dfa.setAction(target.number, nfa.getAction(target.set));
+            } else {
+              dfa.addTransition(currentDFAState, input, target.number);
+            }
+          }
+        }
+      }
+    } finally {
+      pool.shutdown();
+    }
+
+    if (Options.get().verbose) Out.println("");
     return dfa;
   }
 
+  /** A state of the DFA under construction, numbered when it is first reached in order. */
+  private static final class DfaState {
+    /** The NFA states of this DFA state */
+    final StateSet set;
+    /** The number in the DFA, -1 if not yet assigned */
+    int number = -1;
+
+    DfaState(StateSet set) {
+      this.set = set;
+    }
+  }
+
+  /** Computes the transitions of a range of DFA states of the current batch. */
+  private static final class EdgeTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final transient NFA nfa;
+    private final transient Map<StateSet, DfaState> dfaStates;
+    private final transient List<DfaState> dfaList;
+    private final transient DfaState[][] targets;
+    private final int offset;
+    private final int from;
+    private final int to;
+
+    /**
+     * @param targets {@code targets[i]} receives the transitions of DFA state {@code offset + i}
+     * @param from the first index into {@code targets} to compute
+     * @param to the index after the last one to compute
+     */
+    EdgeTask(
+        NFA nfa,
+        Map<StateSet, DfaState> dfaStates,
+        List<DfaState> dfaList,
+        DfaState[][] targets,
+        int offset,
+        int from,
+        int to) {
+      this.nfa = nfa;
+      this.dfaStates = dfaStates;
+      this.dfaList = dfaList;
+      this.targets = targets;
+      this.offset = offset;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from > TASK_SIZE) {
+        int mid = (from + to) >>> 1;
+        invokeAll(
+            new EdgeTask(nfa, dfaStates, dfaList, targets, offset, from, mid),
+            new EdgeTask(nfa, dfaStates, dfaList, targets, offset, mid, to));
+        return;
+      }
+
+      // scratch sets of this task: nfa.tempStateSet() and nfa.states() are shared by all tasks
+      StateSet tempStateSet = new StateSet(nfa.numStates());
+      StateSet newState = new StateSet(nfa.numStates());
+      StateSetEnumerator states = new StateSetEnumerator();
+      NFA.Moves moves = new NFA.Moves(nfa.numInput());
+
+      for (int i = from; i < to; i++) {
+        StateSet currentState = dfaList.get(offset + i).set;
+        DfaState[] row = new DfaState[nfa.numInput()];
+
+        nfa.moves(currentState, moves);
+        for (int m = 0; m < moves.numInputs(); m++) {
+          int input = moves.input(m);
+          tempStateSet.clear();
+          moves.addTargets(m, tempStateSet);
+
+          newState.copy(tempStateSet);
+
+          states.reset(tempStateSet);
+          while (states.hasMoreElements()) newState.add(nfa.epsilon(states.nextElement()));
+
+          if (newState.containsElements()) {
+            DfaState target = dfaStates.get(newState);
+            if (target == null) {
+              // make a frozen copy of newState to store in dfaStates
+              DfaState fresh = new DfaState(newState.frozenCopy());
+              target = dfaStates.putIfAbsent(fresh.set, fresh);
+              if (target == null) target = fresh;
+            }
+            row[input] = target;
+          }
+        }
+        targets[i] = row;
+      }
+    }
+  }
+
   private DfaFactory() {}
 }
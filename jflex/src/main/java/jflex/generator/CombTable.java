@@ -0,0 +1,172 @@
+/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+ * JFlex 1.9.0-SNAPSHOT                                                    *
+ * Copyright (C) 1998-2018  Gerwin Klein <lsf@jflex.de>                    *
+ * All rights reserved.                                                    *
+ *                                                                         *
+ * License: BSD                                                            *
+ *                                                                         *
+ * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+package jflex.generator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import jflex.dfa.DFA;
+
+/**
+ * Compresses the transition table of a DFA into a comb vector (row displacement).
+ *
+ * <p>Each row {@code r} has a default target {@link #defaultTarget(int) defaultTarget(r)}, its most
+ * frequent entry. The other entries of the rows are overlaid in one vector {@link #next()}, each
+ * row {@code r} shifted by {@link #base(int) base(r)}, such that the entries of different rows do
+ * not collide. The vector {@link #check()} records the column of each stored entry, {@code -1} for
+ * unused entries. The transition from row {@code r} under column {@code c} is
+ *
+ * <pre>
+ *   int i = base(r) + c;
+ *   int target = check[i] == c ? next[i] : defaultTarget(r);
+ * </pre>
+ *
+ * <p>All rows have distinct bases, so an entry {@code i} with {@code check[i] == c} can only belong
+ * to the row with base {@code i - c}. Both vectors are long enough that {@code base(r) + c} is a
+ * valid index for every row and column.
+ *
+ * <p>Rows are placed first fit, rows with more transitions first.
+ *
+ * @version JFlex 1.9.0-SNAPSHOT
+ */
+final class CombTable {
+
+  /** base[r] is the displacement of row r */
+  private final int[] base;
+
+  /** defaultTarget[r] is the target of row r for all columns not stored in next */
+  private final int[] defaultTarget;
+
+  private final int[] next;
+
+  private final int[] check;
+
+  /**
+   * Compresses a row and column reduced transition table.
+   *
+   * @param rows the transition table, {@code rows[r][c]} is the target state for row {@code r} and
+   *     column {@code c}, {@link DFA#NO_TARGET} for none.
+   */
+  CombTable(int[][] rows) {
+    int numCols = rows.length > 0 ? rows[0].length : 0;
+    base = new int[rows.length];
+    defaultTarget = new int[rows.length];
+
+    // columns with other than the default target per row
+    int[][] columns = new int[rows.length][];
+    List<Integer> order = new ArrayList<>();
+    for (int r = 0; r < rows.length; r++) {
+      defaultTarget[r] = mostFrequent(rows[r]);
+      int n = 0;
+      int[] cols = new int[numCols];
+      for (int c = 0; c < numCols; c++) {
+        if (rows[r][c] != defaultTarget[r]) cols[n++] = c;
+      }
+      columns[r] = Arrays.copyOf(cols, n);
+      order.add(r);
+    }
+    order.sort((r1, r2) -> columns[r2].length - columns[r1].length);
+
+    BitSet occupied = new BitSet();
+    BitSet usedBase = new BitSet();
+    int size = numCols;
+    for (int r : order) {
+      int[] cols = columns[r];
+      int b;
+      if (cols.length == 0) {
+        b = usedBase.nextClearBit(0);
+      } else {
+        b = occupied.nextClearBit(cols[0]) - cols[0];
+        while (!fits(cols, b, occupied, usedBase)) {
+          b = occupied.nextClearBit(b + cols[0] + 1) - cols[0];
+        }
+        for (int c : cols) occupied.set(b + c);
+      }
+      usedBase.set(b);
+      base[r] = b;
+      size = Math.max(size, b + numCols);
+    }
+
+    next = new int[size];
+    check = new int[size];
+    Arrays.fill(next, DFA.NO_TARGET);
+    Arrays.fill(check, -1);
+    for (int r = 0; r < rows.length; r++) {
+      for (int c : columns[r]) {
+        next[base[r] + c] = rows[r][c];
+        check[base[r] + c] = c;
+      }
+    }
+  }
+
+  /** The most frequent value in {@code row}, the smallest one of those if there are several. */
+  private static int mostFrequent(int[] row) {
+    int[] sorted = row.clone();
+    Arrays.sort(sorted);
+    int result = DFA.NO_TARGET;
+    int maxCount = 0;
+    for (int i = 0, j; i < sorted.length; i = j) {
+      j = i;
+      while (j < sorted.length && sorted[j] == sorted[i]) j++;
+      if (j - i > maxCount) {
+        maxCount = j - i;
+        result = sorted[i];
+      }
+    }
+    return result;
+  }
+
+  private static boolean fits(int[] cols, int b, BitSet occupied, BitSet usedBase) {
+    if (usedBase.get(b)) return false;
+    for (int c : cols) {
+      if (occupied.get(b + c)) return false;
+    }
+    return true;
+  }
+
+  /**
+   * The displacement of a row.
+   *
+   * @param row the row in the reduced table
+   * @return the index in {@link #next()} of column 0 of the row
+   */
+  int base(int row) {
+    return base[row];
+  }
+
+  /**
+   * The target of a row for all columns without entry in {@link #next()}.
+   *
+   * @param row the row in the reduced table
+   * @return the most frequent target state of the row
+   */
+  int defaultTarget(int row) {
+    return defaultTarget[row];
+  }
+
+  /**
+   * The comb vector of target states.
+   *
+   * @return the non-default target states of all rows, {@link DFA#NO_TARGET} for unused entries
+   */
+  int[] next() {
+    return next;
+  }
+
+  /**
+   * The column of each entry in {@link #next()}.
+   *
+   * @return the column each entry belongs to, {@code -1} for unused entries
+   */
+  int[] check() {
+    return check;
+  }
+}
@@ -0,0 +1,289 @@
+/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+ * JFlex 1.9.0-SNAPSHOT                                                    *
+ * Copyright (C) 1998-2018  Gerwin Klein <lsf@jflex.de>                    *
+ * All rights reserved.                                                    *
+ *                                                                         *
+ * License: BSD                                                            *
+ *                                                                         *
+ * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+package jflex.generator;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import jflex.dfa.DFA;
+import jflex.logging.Out;
+
+/**
+ * Emits the transition function of a DFA as nested {@code switch} statements instead of a table.
+ *
+ * <p>The generated code switches over the DFA state in the outer and over the (reduced) character
+ * class in the inner statement. States with identical rows share one case, rows without any
+ * transition fall into the outer default. The code is emitted either inline for the scanning loop
+ * or as static method {@code zzTransition(state, input)} for lookahead resolution.
+ *
+ * <p>Also estimates the size of the resulting code in bytecode, so that the caller can move the
+ * transitions out of the scanning method or fall back to table-driven code if a method would become
+ * too large for the JVM.
+ *
+ * @version JFlex 1.9.0-SNAPSHOT
+ */
+final class DirectEmitter {
+
+  /** Name of the generated method. */
+  static final String METHOD = "zzTransition";
+
+  /** The JVM limit for the bytecode size of one method. */
+  static final int MAX_METHOD_SIZE = 0xFFFF;
+
+  /** Methods larger than this are not JIT compiled by default (HotSpot HugeMethodLimit). */
+  static final int HUGE_METHOD_SIZE = 8000;
+
+  /**
+   * Upper bound of the bytecode of the scanning method of the skeleton, without transition code and
+   * actions. About 1000 bytes with {@code %line}, {@code %column}, {@code %char} and {@code ^}.
+   */
+  static final int SCAN_LOOP_SIZE = 2000;
+
+  /** Bytecode of an action besides its code: case label, jumps, fixed length lookahead. */
+  static final int ACTION_OVERHEAD = 60;
+
+  /** Bytecode of the code for an action with general lookahead. */
+  static final int GENERAL_LOOK_SIZE = 300;
+
+  /** Bytecode of the {@code %debug} output of an action. */
+  static final int DEBUG_SIZE = 100;
+
+  /** Reduced transition table: rows[r][c] is the target for row r and reduced column c. */
+  private final int[][] rows;
+
+  /** stateRow[s] is the row of DFA state s. */
+  private final int[] stateRow;
+
+  /** output buffer */
+  private StringBuilder out;
+
+  /** indentation of the currently emitted code */
+  private String indent;
+
+  /** whether to emit a method with return statements or inline code assigning {@code zzNext} */
+  private boolean inline;
+
+  /** estimated size of the currently emitted code in bytes of bytecode */
+  private int size;
+
+  /**
+   * Create a new emitter for a row and column reduced transition table.
+   *
+   * @param rows the transition table, {@code rows[r][c]} is the target state for row {@code r} and
+   *     column {@code c}.
+   * @param stateRow {@code stateRow[s]} is the row in {@code rows} for DFA state {@code s}.
+   */
+  DirectEmitter(int[][] rows, int[] stateRow) {
+    this.rows = rows;
+    this.stateRow = stateRow;
+  }
+
+  /**
+   * Emits the transition function as static method {@link #METHOD}.
+   *
+   * @return the code of the method
+   */
+  String method() {
+    start(false, "");
+    println("  /**");
+    println("   * The transition function of the DFA.");
+    println("   *");
+    println("   * @param state the current DFA state");
+    println("   * @param input the character class of the next input character");
+    println("   * @return the next DFA state, or " + DFA.NO_TARGET + " if there is none");
+    println("   */");
+    println("  private static int " + METHOD + "(int state, int input) {");
+    indent = "    ";
+    emitSwitch("state", "input");
+    indent = "";
+    println("  }");
+    return out.toString();
+  }
+
+  /**
+   * Emits the transition function as code to be inlined into the scanning loop. The code declares
+   * and assigns {@code zzNext} from {@code zzState} and the given input column.
+   *
+   * @param column the expression for the column of the current input, e.g. {@code zzCMap(zzInput)}
+   * @return the inline code
+   */
+  String inline(String column) {
+    start(true, "          ");
+    println("int zzNext;");
+    emitSwitch("zzState", column);
+    return out.toString();
+  }
+
+  /**
+   * The estimated size in bytes of the bytecode javac will generate for the code emitted last.
+   *
+   * @return an upper bound of the code size in bytes
+   */
+  int estimatedSize() {
+    return size;
+  }
+
+  /**
+   * Estimates the bytecode javac generates for user code, e.g. an action. Counts 3 bytes per
+   * character that is not whitespace: code that mostly accesses fields comes close to this, e.g.
+   * {@code x=y;} compiles to 8 bytes.
+   *
+   * @param code the Java code
+   * @return an upper bound of the code size in bytes
+   */
+  static int codeSize(String code) {
+    int size = 0;
+    for (int i = 0; i < code.length(); i++) {
+      if (!Character.isWhitespace(code.charAt(i))) size += 3;
+    }
+    return size;
+  }
+
+  private void start(boolean inline, String indent) {
+    this.inline = inline;
+    this.indent = indent;
+    this.out = new StringBuilder();
+    this.size = 0;
+  }
+
+  private void emitSwitch(String state, String input) {
+    // group states by row, in order of first occurrence
+    Map<Integer, List<Integer>> statesOfRow = new HashMap<>();
+    List<Integer> rowOrder = new ArrayList<>();
+    for (int s = 0; s < stateRow.length; s++) {
+      int r = stateRow[s];
+      if (isEmpty(rows[r])) continue;
+      List<Integer> states = statesOfRow.get(r);
+      if (states == null) {
+        states = new ArrayList<>();
+        statesOfRow.put(r, states);
+        rowOrder.add(r);
+      }
+      states.add(s);
+    }
+
+    List<Integer> stateLabels = new ArrayList<>();
+    for (int r : rowOrder) stateLabels.addAll(statesOfRow.get(r));
+    size += 1 + switchSize(stateLabels);
+
+    println("switch (" + state + ") {");
+    for (int r : rowOrder) {
+      for (int s : statesOfRow.get(r)) {
+        println("  case " + s + ":");
+      }
+      emitRow(rows[r], input);
+      if (inline) {
+        println("    break;");
+        size += 3;
+      }
+    }
+    println("  default:");
+    emitTarget("    ", DFA.NO_TARGET, false);
+    println("}");
+  }
+
+  /** Emits the inner switch for one row. Most frequent target becomes the default case. */
+  private void emitRow(int[] row, String input) {
+    Map<Integer, List<Integer>> inputsOfTarget = new HashMap<>();
+    List<Integer> targetOrder = new ArrayList<>();
+    for (int c = 0; c < row.length; c++) {
+      List<Integer> inputs = inputsOfTarget.get(row[c]);
+      if (inputs == null) {
+        inputs = new ArrayList<>();
+        inputsOfTarget.put(row[c], inputs);
+        targetOrder.add(row[c]);
+      }
+      inputs.add(c);
+    }
+
+    int defaultTarget = targetOrder.get(0);
+    for (int t : targetOrder) {
+      if (inputsOfTarget.get(t).size() > inputsOfTarget.get(defaultTarget).size()) {
+        defaultTarget = t;
+      }
+    }
+
+    if (targetOrder.size() == 1) {
+      emitTarget("    ", defaultTarget, false);
+      return;
+    }
+
+    List<Integer> inputLabels = new ArrayList<>();
+    println("    switch (" + input + ") {");
+    for (int t : targetOrder) {
+      if (t == defaultTarget) continue;
+      for (int c : inputsOfTarget.get(t)) {
+        println("      case " + c + ":");
+        inputLabels.add(c);
+      }
+      emitTarget("        ", t, true);
+    }
+    println("      default:");
+    emitTarget("        ", defaultTarget, false);
+    println("    }");
+    // load input (plus zzCMap call inline), switch
+    size += (inline ? 6 : 1) + switchSize(inputLabels);
+  }
+
+  /** Emits the code for reaching {@code target}, followed by a break if {@code jump} is set. */
+  private void emitTarget(String prefix, int target, boolean jump) {
+    if (inline) {
+      println(prefix + "zzNext = " + target + ";");
+      if (jump) println(prefix + "break;");
+      // push, store, goto
+      size += constSize(target) + 2 + (jump ? 3 : 0);
+    } else {
+      println(prefix + "return " + target + ";");
+      size += constSize(target) + 1;
+    }
+  }
+
+  private static boolean isEmpty(int[] row) {
+    for (int t : row) {
+      if (t != DFA.NO_TARGET) return false;
+    }
+    return true;
+  }
+
+  /**
+   * Size of a switch instruction as javac would generate it (choice between {@code tableswitch} and
+   * {@code lookupswitch} as in javac's {@code Gen.visitSwitch}).
+   */
+  private static int switchSize(List<Integer> labels) {
+    if (labels.isEmpty()) return 1 + 3 + 8;
+    long lo = Integer.MAX_VALUE;
+    long hi = Integer.MIN_VALUE;
+    for (int l : labels) {
+      lo = Math.min(lo, l);
+      hi = Math.max(hi, l);
+    }
+    long n = labels.size();
+    long tableSpace = 4 + (hi - lo + 1);
+    long lookupSpace = 3 + 2 * n;
+    boolean table = tableSpace + 3 * 3 <= lookupSpace + 3 * n;
+    // opcode, up to 3 bytes padding, 4 byte words
+    return (int)
+        Math.min(Integer.MAX_VALUE, 1 + 3 + 4 * (table ? tableSpace - 1 : lookupSpace - 1));
+  }
+
+  /** Size of the instruction pushing constant {@code value} on the stack. */
+  private static int constSize(int value) {
+    if (value >= -1 && value <= 5) return 1; // iconst
+    if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) return 2; // bipush
+    return 3; // sipush or ldc_w
+  }
+
+  private void println(String line) {
+    out.append(indent);
+    out.append(line);
+    out.append(Out.NL);
+  }
+}
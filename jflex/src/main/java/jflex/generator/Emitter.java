@@ -10,7 +10,10 @@
 package jflex.generator;
 
 import java.io.File;
+import java.io.IOException;
 import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.regex.Matcher;
@@ -19,6 +22,7 @@ import jflex.base.Build;
 import jflex.base.Pair;
 import jflex.core.AbstractLexScan;
 import jflex.core.Action;
+import jflex.core.CodeGenMethod;
 import jflex.core.EOFActions;
 import jflex.core.LexParse;
 import jflex.core.LexScan;
@@ -54,6 +58,14 @@ public final class Emitter {
           Pattern.DOTALL | Pattern.CASE_INSENSITIVE | Pattern.COMMENTS);
 
   // bit masks for state attributes
+  /**
+   * Actions that {@code yylexBatch} can run: code without {@code return}, optionally followed by
+   * {@code return <code>;} as last statement.
+   */
+  private static final Pattern BATCH_ACTION =
+      Pattern.compile(
+          "((?:(?!\\breturn\\b).)*?)(?:\\breturn\\b([^;]+);)?(?:\\s|//[^\n]*)*", Pattern.DOTALL);
+
   private static final int FINAL = 1;
   private static final int NOLOOK = 8;
 
@@ -61,7 +73,7 @@ public final class Emitter {
   final String outputFileName;
 
   private final PrintWriter out;
-  private final Skeleton skel;
+  private Skeleton skel;
   private final AbstractLexScan scanner;
   private final LexParse parser;
   private final DFA dfa;
@@ -77,6 +89,24 @@ public final class Emitter {
   private int[] colMap;
   private boolean[] colKilled;
 
+  /** direct-coded transition function, {@code null} if the table is used */
+  private DirectEmitter directCode;
+
+  /** whether the direct-coded transitions are inlined into the scanning loop */
+  private boolean directInline;
+
+  /** comb vector transition table, {@code null} if not requested by {@code %codegen comb} */
+  private CombTable combTable;
+
+  /** binary resource for the tables, {@code null} if not requested by {@code %tableresource} */
+  private TableResource tableResource;
+
+  /** block size of the two-level character map in bits */
+  private int cmapBits = CMapBlock.BLOCK_BITS;
+
+  /** element type of each emitted packed table, by constant name */
+  private final Map<String, String> tableTypes = new HashMap<>();
+
   /** maps actions to their switch label */
   private final Map<Action, Integer> actionTable = new LinkedHashMap<>();
 
@@ -100,7 +130,13 @@ public final class Emitter {
     this.visibility = scanner.visibility();
     this.inputFile = inputFile;
     this.dfa = dfa;
-    this.skel = new Skeleton(out);
+    if (scanner.utf8()) {
+      this.skel = new Skeleton(out, Skeleton.readUtf8(visibility.equals("private")));
+    } else if (scanner.push()) {
+      this.skel = new Skeleton(out, Skeleton.readPush(visibility.equals("private")));
+    } else {
+      this.skel = new Skeleton(out);
+    }
   }
 
   /**
@@ -134,7 +170,7 @@ public final class Emitter {
       else outputFile = new File(input.getParent(), name);
     else outputFile = new File(Options.getDir(), name);
 
-    if (outputFile.exists() && !Options.no_backup) {
+    if (outputFile.exists() && !Options.get().no_backup) {
       File backup = new File(outputFile.toString() + "~");
 
       if (backup.exists()) {
@@ -336,11 +372,31 @@ public final class Emitter {
     println("      }");
     println("      for (int i = firstFilePos; i < argv.length; i++) {");
     println("        " + className + " scanner = null;");
-    println("        try {");
-    println("          java.io.FileInputStream stream = new java.io.FileInputStream(argv[i]);");
-    println(
-        "          java.io.Reader reader = new java.io.InputStreamReader(stream, encodingName);");
-    println("          scanner = new " + className + "(reader);");
+    if (scanner.utf8()) {
+      // input is always UTF-8, the encoding option is only checked
+      println("        try (java.nio.channels.FileChannel channel =");
+      println(
+          "                 java.nio.channels.FileChannel.open(java.nio.file.Paths.get(argv[i]))) {");
+      println("          scanner = new " + className + "(channel.map(");
+      println(
+          "              java.nio.channels.FileChannel.MapMode.READ_ONLY, 0, channel.size()));");
+    } else {
+      println("        try {");
+      println("          java.io.FileInputStream stream = new java.io.FileInputStream(argv[i]);");
+      println(
+          "          java.io.Reader reader = new java.io.InputStreamReader(stream, encodingName);");
+      if (scanner.push()) {
+        println("          scanner = new " + className + "();");
+        println("          char[] chunk = new char[ZZ_BUFFERSIZE];");
+        println("          int length;");
+        println("          while ((length = reader.read(chunk)) != -1) {");
+        println("            scanner.feed(java.nio.CharBuffer.wrap(chunk, 0, length));");
+        println("          }");
+        println("          scanner.endOfInput();");
+      } else {
+        println("          scanner = new " + className + "(reader);");
+      }
+    }
     if (scanner.standalone()) {
       println("          while ( !scanner.zzAtEOF ) scanner." + functionName + "();");
     } else if (scanner.cupDebug()) {
@@ -353,7 +409,11 @@ public final class Emitter {
     }
 
     println("        }");
-    println("        catch (java.io.FileNotFoundException e) {");
+    if (scanner.utf8()) {
+      println("        catch (java.nio.file.NoSuchFileException e) {");
+    } else {
+      println("        catch (java.io.FileNotFoundException e) {");
+    }
     println("          System.out.println(\"File not found : \\\"\"+argv[i]+\"\\\"\");");
     println("        }");
     println("        catch (java.io.IOException e) {");
@@ -374,11 +434,78 @@ public final class Emitter {
     println("            zzScanError(ZZ_NO_MATCH);");
   }
 
+  /**
+   * Emits code reading the next code point at {@code zzCurrentPosL} into {@code zzInput}. Only high
+   * surrogates take the slow path through {@code Character.codePointAt}, all other chars (in
+   * particular ASCII and Latin-1) are their own code point.
+   *
+   * @param indent indentation of the emitted code
+   */
+  private void emitReadInput(String indent) {
+    println(indent + "zzInput = zzBufferL[zzCurrentPosL];");
+    println(indent + "if (zzInput < 0xD800 || zzInput > 0xDBFF) {");
+    println(indent + "  zzCurrentPosL++;");
+    println(indent + "}");
+    println(indent + "else {");
+    println(indent + "  zzInput = Character.codePointAt(zzBufferL, zzCurrentPosL, zzEndReadL);");
+    println(indent + "  zzCurrentPosL += Character.charCount(zzInput);");
+    println(indent + "}");
+  }
+
+  /**
+   * Emits code decoding the next character of UTF-8 input at {@code zzCurrentPosL} into its column
+   * in {@code zzInput}, by walking the byte-level automaton {@code ZZ_UTF8}. The whole input is in
+   * the buffer, there is no refill.
+   */
+  private void emitNextUtf8Input() {
+    println("          if (zzCurrentPosL < zzEndReadL) {");
+    println("            zzInput = ZZ_UTF8[zzBufferL.get(zzCurrentPosL++) & 0xFF];");
+    println("            while (zzInput > 0) {");
+    println(
+        "              int zzByte = zzCurrentPosL < zzEndReadL ? zzBufferL.get(zzCurrentPosL) : 0;");
+    println("              if ((zzByte & 0xC0) == 0x80");
+    println("                  && (zzInput = ZZ_UTF8[(zzInput << 6) | (zzByte & 0x3F)]) != 0) {");
+    println("                zzCurrentPosL++;");
+    println("              }");
+    println("              else {");
+    println("                zzInput = ZZ_UTF8_INVALID;");
+    println("              }");
+    println("            }");
+    println("            zzInput = ~zzInput;");
+    println("          }");
+    println("          else {");
+    println("            zzInput = YYEOF;");
+    println("            break zzForAction;");
+    println("          }");
+  }
+
   private void emitNextInput() {
+    if (scanner.utf8()) {
+      emitNextUtf8Input();
+      return;
+    }
+
     println("          if (zzCurrentPosL < zzEndReadL) {");
-    println("            zzInput = Character.codePointAt(zzBufferL, zzCurrentPosL, zzEndReadL);");
-    println("            zzCurrentPosL += Character.charCount(zzInput);");
+    emitReadInput("            ");
     println("          }");
+    if (scanner.push()) {
+      println("          else if (zzEndOfInput) {");
+      println("            // for the end of file check: whether the match is empty");
+      println("            zzCurrentPos = zzCurrentPosL;");
+      println("            zzInput = YYEOF;");
+      println("            break zzForAction;");
+      println("          }");
+      println("          else {");
+      println("            // out of input: keep the match, the next call continues it");
+      println("            zzCurrentPos  = zzCurrentPosL;");
+      println("            zzMarkedPos   = zzMarkedPosL;");
+      println("            zzPushAction  = zzAction;");
+      println("            zzPushResume  = true;");
+      println("            return " + needMoreInput() + ";");
+      println("          }");
+      return;
+    }
+
     println("          else if (zzAtEOF) {");
     println("            zzInput = YYEOF;");
     println("            break zzForAction;");
@@ -398,8 +525,7 @@ public final class Emitter {
     println("              break zzForAction;");
     println("            }");
     println("            else {");
-    println("              zzInput = Character.codePointAt(zzBufferL, zzCurrentPosL, zzEndReadL);");
-    println("              zzCurrentPosL += Character.charCount(zzInput);");
+    emitReadInput("              ");
     println("            }");
     println("          }");
   }
@@ -413,6 +539,26 @@ public final class Emitter {
     return path.replace("\\", "\\\\");
   }
 
+  /**
+   * Returns the value the scanning method of a {@code %push} scanner returns when it needs more
+   * input: {@code NEED_MORE_INPUT} for integer token codes, {@code null} for token objects.
+   */
+  private String needMoreInput() {
+    String type = scanner.tokenType();
+    if (type == null) {
+      return scanner.isInteger() || scanner.isIntWrap() ? "NEED_MORE_INPUT" : "null";
+    }
+    switch (type) {
+      case "int":
+      case "long":
+      case "Integer":
+      case "java.lang.Integer":
+        return "NEED_MORE_INPUT";
+      default:
+        return "null";
+    }
+  }
+
   private void emitHeader() {
     println("// DO NOT EDIT");
     println("// Generated by JFlex " + Build.VERSION + " http://jflex.de/");
@@ -540,7 +686,59 @@ public final class Emitter {
     e.emit(count, value);
     e.emitUnpack();
 
-    println(e.toString());
+    emitTable(e);
+  }
+
+  /**
+   * Emits the declaration of a packed table, either with its unpacking code or, with {@code
+   * %tableresource}, read from the binary table resource.
+   */
+  private void emitTable(PackEmitter e) {
+    if (tableResource == null) {
+      tableTypes.put(e.constName(), e.elementType());
+      println(e.toString());
+    } else {
+      tableTypes.put(e.constName(), "int");
+      int index = tableResource.add(e.values());
+      println(
+          "  private static final int [] "
+              + e.constName()
+              + " = "
+              + TableResource.HOLDER
+              + ".TABLES["
+              + index
+              + "];");
+      println();
+    }
+  }
+
+  /**
+   * The declaration of a local variable caching a packed table in the scanning method.
+   *
+   * @param local the name of the local variable
+   * @param table the constant name of the table
+   * @return the declaration
+   */
+  private String tableLocal(String local, String table) {
+    return "    " + tableTypes.get(table) + " [] " + local + " = " + table + ";";
+  }
+
+  /** Emits the holder class for the table resource and writes the resource next to the output. */
+  private void emitTableResource() {
+    String name = getBaseName(scanner.className()) + ".tables";
+    byte[] content = tableResource.toByteArray();
+    println();
+    print(tableResource.holder(name, content.length));
+
+    if (outputFileName == null) return;
+    File file = normalize(name, inputFile);
+    Out.println("Writing tables to \"" + file + "\"");
+    try {
+      Files.write(file.toPath(), content);
+    } catch (IOException e) {
+      Out.error(ErrorMessages.FILE_WRITE, file);
+      throw new GeneratorException(e);
+    }
   }
 
   private void emitCharMapArrayUnPacked() {
@@ -596,34 +794,85 @@ public final class Emitter {
   private void emitCharMapTables() {
     CharClasses cl = parser.getCharClasses();
 
-    if (cl.getMaxCharCode() < 256) {
+    if (scanner.utf8()) {
+      emitUtf8Table();
+    } else if (cl.getMaxCharCode() < 256) {
       emitCharMapArrayUnPacked();
     } else {
-      Pair<int[], int[]> tables = cl.getTables();
+      if (scanner.cmapBits() == 0) {
+        cmapBits = cl.smallestBlockBits();
+        Out.println("Character map uses blocks of " + (1 << cmapBits) + " characters.");
+      } else {
+        cmapBits = scanner.cmapBits();
+      }
+      Pair<int[], int[]> tables = cl.getTables(cmapBits);
       mapColMap(tables.snd);
 
       println("");
       println("  /**");
       println("   * Top-level table for translating characters to character classes");
       println("   */");
-      CountEmitter e = new CountEmitter("cmap_top");
-      e.emitInit();
-      e.emitCountValueString(tables.fst);
-      e.emitUnpack();
-      println(e.toString());
+      int maxTop = 0;
+      for (int top : tables.fst) maxTop = Math.max(maxTop, top);
+      if (maxTop > 0xFFFF) {
+        // block offsets do not fit into the count/value encoding
+        HiLowEmitter h = new HiLowEmitter("cmap_top");
+        h.emitInit();
+        for (int top : tables.fst) h.emit(top);
+        h.emitUnpack();
+        emitTable(h);
+      } else {
+        CountEmitter e = new CountEmitter("cmap_top");
+        e.emitInit();
+        e.emitCountValueString(tables.fst);
+        e.emitUnpack();
+        emitTable(e);
+      }
 
       println("");
       println("  /**");
       println("   * Second-level tables for translating characters to character classes");
       println("   */");
-      e = new CountEmitter("cmap_blocks");
+      CountEmitter e = new CountEmitter("cmap_blocks");
       e.emitInit();
       e.emitCountValueString(tables.snd);
       e.emitUnpack();
-      println(e.toString());
+      emitTable(e);
     }
   }
 
+  /**
+   * Emits the byte-level automaton of a UTF-8 scanner, which translates UTF-8 encoded input to the
+   * column in the generated DFA table.
+   *
+   * @see Utf8Table
+   */
+  private void emitUtf8Table() {
+    Pair<int[], int[]> tables = parser.getCharClasses().getTables();
+    mapColMap(tables.snd);
+    Utf8Table utf8 = new Utf8Table(tables.fst, tables.snd);
+
+    println("");
+    println("  /**");
+    println("   * Translates UTF-8 encoded input to character classes. Entry e of node n is at");
+    println("   * ZZ_UTF8[n << 6 | i]. The first 4 nodes are indexed by the lead byte, all other");
+    println(
+        "   * nodes by the low 6 bits of a continuation byte. e < 0 is the character class ~e,");
+    println("   * e > 0 is the node for the next continuation byte, e == 0 means invalid input.");
+    println("   */");
+    CountEmitter e = new CountEmitter("Utf8");
+    // allow values in [-numCols, 0xFFFF-numCols]
+    e.setValTranslation(numCols);
+    e.emitInit();
+    e.emitCountValueString(utf8.table());
+    e.emitUnpack();
+    emitTable(e);
+
+    println("");
+    println("  /** The entry for ill-formed input, i.e. the character class of U+FFFD. */");
+    println("  private static final int ZZ_UTF8_INVALID = " + utf8.invalidEntry() + ";");
+  }
+
   private void emitRowMapArray() {
     println("");
     println("  /**");
@@ -636,7 +885,7 @@ public final class Emitter {
       e.emit(rowMap[i] * numCols);
     }
     e.emitUnpack();
-    println(e.toString());
+    emitTable(e);
   }
 
   private void emitAttributes() {
@@ -670,7 +919,7 @@ public final class Emitter {
     e.emit(count, value);
     e.emitUnpack();
 
-    println(e.toString());
+    emitTable(e);
   }
 
   private void emitClassCode() {
@@ -708,7 +957,13 @@ public final class Emitter {
     println("  /**");
     println("   * Creates a new scanner");
     println("   *");
-    println("   * @param   in  the java.io.Reader to read input from.");
+    if (scanner.push()) {
+      println("   * <p>Its input is passed in with the {@code feed} methods.");
+    } else if (scanner.utf8()) {
+      println("   * @param   in  the UTF-8 encoded input, from its position to its limit.");
+    } else {
+      println("   * @param   in  the java.io.Reader to read input from.");
+    }
     println("   */");
 
     String warn =
@@ -721,8 +976,9 @@ public final class Emitter {
 
     if (scanner.isPublic()) print("public ");
     print(getBaseName(scanner.className()));
-    print("(java.io.Reader in");
-    if (printCtorArgs) emitCtorArgs();
+    if (scanner.push()) print("(");
+    else print(scanner.utf8() ? "(java.nio.ByteBuffer in" : "(java.io.Reader in");
+    if (printCtorArgs) emitCtorArgs(!scanner.push());
     print(")");
 
     if (scanner.initThrow() != null && printCtorArgs) {
@@ -737,15 +993,25 @@ public final class Emitter {
       print(scanner.initCode());
     }
 
-    println("    this.zzReader = in;");
+    if (scanner.utf8()) {
+      println("    yyreset(in);");
+    } else if (!scanner.push()) {
+      println("    this.zzReader = in;");
+    }
 
     println("  }");
     println();
   }
 
-  private void emitCtorArgs() {
+  /**
+   * Emits the custom constructor parameters.
+   *
+   * @param follows whether they follow another parameter
+   */
+  private void emitCtorArgs(boolean follows) {
     for (int i = 0; i < scanner.ctorArgsCount(); i++) {
-      print(", " + scanner.ctorType(i));
+      if (follows || i > 0) print(", ");
+      print(scanner.ctorType(i));
       print(" " + scanner.ctorArg(i));
     }
   }
@@ -777,9 +1043,67 @@ public final class Emitter {
     println("");
   }
 
-  private void emitLexFunctHeader(String functionName) {
+  /**
+   * Emits the scanning method, from its declaration to the end of the scanning loop.
+   *
+   * @param functionName the name of the method
+   * @param batch whether to emit {@code yylexBatch}, which stores tokens in arrays instead of
+   *     returning them
+   */
+  private void emitLexFunction(String functionName, boolean batch) {
+    emitLexFunctHeader(functionName, batch);
+
+    emitNextInput();
+
+    emitGetRowMapNext();
+
+    if (scanner.incremental()) {
+      println("      int zzReachL = (int) yychar + zzCurrentPosL - zzStartRead;");
+      println("      if (zzReachL > zzReach) zzReach = zzReachL;");
+      println();
+    }
+
+    skel.emitNext();
+
+    if (batch) emitBatchEOF();
+    else emitEOFVal();
 
-    if (scanner.cupCompatible() || scanner.cup2Compatible()) {
+    skel.emitNext();
+
+    emitActions(batch);
+
+    skel.emitNext();
+
+    emitNoMatch();
+
+    skel.emitNext();
+  }
+
+  private void emitLexFunctHeader(String functionName, boolean batch) {
+
+    if (batch) {
+      println("  /**");
+      println("   * Scans up to {@code max} tokens in one call.");
+      println("   *");
+      println(
+          "   * <p>For each token, the value of its action is stored in {@code kinds}, and the");
+      println("   * positions of its first and after its last character (as in {@code yychar}) in");
+      println("   * {@code starts} and {@code ends}. Actions without return value do not store a");
+      println(
+          "   * token. The end of input does not run {@code <<EOF>>} rules or {@code %eofval}.");
+      println("   *");
+      println("   * @param kinds the token codes, from index 0.");
+      println("   * @param starts the start positions of the tokens.");
+      println("   * @param ends the end positions of the tokens.");
+      println("   * @param max the maximum number of tokens to store.");
+      println(
+          "   * @return the number of tokens stored, less than {@code max} only at end of input.");
+      println("   * @exception java.io.IOException if any I/O-Error occurs.");
+      println("   * @exception IllegalStateException if a token ends after position 2^31-1.");
+      println("   */");
+      print("  " + visibility + " int " + functionName);
+      print("(int[] kinds, int[] starts, int[] ends, int max) throws java.io.IOException");
+    } else if (scanner.cupCompatible() || scanner.cup2Compatible()) {
       print("  @Override");
       // force public, because we have to implement cup/cup2 interface
       print("  public ");
@@ -787,17 +1111,19 @@ public final class Emitter {
       print("  " + visibility + " ");
     }
 
-    if (scanner.tokenType() == null) {
-      if (scanner.isInteger()) print("int");
-      else if (scanner.isIntWrap()) print("Integer");
-      else print("Yytoken");
-    } else print(scanner.tokenType());
+    if (!batch) {
+      if (scanner.tokenType() == null) {
+        if (scanner.isInteger()) print("int");
+        else if (scanner.isIntWrap()) print("Integer");
+        else print("Yytoken");
+      } else print(scanner.tokenType());
 
-    print(" ");
+      print(" ");
 
-    print(functionName);
+      print(functionName);
 
-    print("() throws java.io.IOException");
+      print("() throws java.io.IOException");
+    }
 
     if (scanner.lexThrow() != null) {
       print(", ");
@@ -811,28 +1137,58 @@ public final class Emitter {
 
     println(" {");
 
+    if (batch) {
+      println("    if (max <= 0) return 0;");
+      println("    int zzCount = 0;");
+    }
+
     skel.emitNext();
 
-    println("    int [] zzTransL = ZZ_TRANS;");
-    println("    int [] zzRowMapL = ZZ_ROWMAP;");
-    println("    int [] zzAttrL = ZZ_ATTRIBUTE;");
+    if (combTable != null) {
+      println(tableLocal("zzBaseL", "ZZ_BASE"));
+      println(tableLocal("zzNextL", "ZZ_NEXT"));
+      println(tableLocal("zzCheckL", "ZZ_CHECK"));
+      println(tableLocal("zzDefaultL", "ZZ_DEFAULT"));
+    } else if (directCode == null) {
+      println(tableLocal("zzTransL", "ZZ_TRANS"));
+      println(tableLocal("zzRowMapL", "ZZ_ROWMAP"));
+    }
+    println(tableLocal("zzAttrL", "ZZ_ATTRIBUTE"));
 
     skel.emitNext();
 
+    if (scanner.push() && (scanner.lineCount() || scanner.bolUsed())) {
+      println(
+          "      if (zzMarkedPosL > zzStartRead && zzMarkedPosL == zzEndReadL && !zzEndOfInput");
+      println("          && zzBufferL[zzMarkedPosL-1] == '\\r') {");
+      println("        // whether the last match ends a line depends on the next character");
+      println("        return " + needMoreInput() + ";");
+      println("      }");
+      println();
+    }
+
     if (scanner.charCount()) {
       println("      yychar+= zzMarkedPosL-zzStartRead;");
       println("");
     }
 
-    if (scanner.lineCount() || scanner.columnCount()) {
+    if ((scanner.lineCount() || scanner.columnCount()) && scanner.utf8()) {
+      emitUtf8LineCount();
+    } else if (scanner.lineCount() || scanner.columnCount()) {
       println("      boolean zzR = false;");
       println("      int zzCh;");
       println("      int zzCharCount;");
       println("      for (zzCurrentPosL = zzStartRead  ;");
       println("           zzCurrentPosL < zzMarkedPosL ;");
       println("           zzCurrentPosL += zzCharCount ) {");
-      println("        zzCh = Character.codePointAt(zzBufferL, zzCurrentPosL, zzMarkedPosL);");
-      println("        zzCharCount = Character.charCount(zzCh);");
+      println("        zzCh = zzBufferL[zzCurrentPosL];");
+      println("        if (zzCh < 0xD800 || zzCh > 0xDBFF) {");
+      println("          zzCharCount = 1;");
+      println("        }");
+      println("        else {");
+      println("          zzCh = Character.codePointAt(zzBufferL, zzCurrentPosL, zzMarkedPosL);");
+      println("          zzCharCount = Character.charCount(zzCh);");
+      println("        }");
       println("        switch (zzCh) {");
       println("        case '\\u000B':  // fall through");
       println("        case '\\u000C':  // fall through");
@@ -870,24 +1226,31 @@ public final class Emitter {
         println("        boolean zzPeek;");
         println("        if (zzMarkedPosL < zzEndReadL)");
         println("          zzPeek = zzBufferL[zzMarkedPosL] == '\\n';");
-        println("        else if (zzAtEOF)");
-        println("          zzPeek = false;");
-        println("        else {");
-        println("          boolean eof = zzRefill();");
-        println("          zzEndReadL = zzEndRead;");
-        println("          zzMarkedPosL = zzMarkedPos;");
-        println("          zzBufferL = zzBuffer;");
-        println("          if (eof)");
-        println("            zzPeek = false;");
-        println("          else");
-        println("            zzPeek = zzBufferL[zzMarkedPosL] == '\\n';");
-        println("        }");
+        if (scanner.push()) {
+          println("        else // end of input, see above");
+          println("          zzPeek = false;");
+        } else {
+          println("        else if (zzAtEOF)");
+          println("          zzPeek = false;");
+          println("        else {");
+          println("          boolean eof = zzRefill();");
+          println("          zzEndReadL = zzEndRead;");
+          println("          zzMarkedPosL = zzMarkedPos;");
+          println("          zzBufferL = zzBuffer;");
+          println("          if (eof)");
+          println("            zzPeek = false;");
+          println("          else");
+          println("            zzPeek = zzBufferL[zzMarkedPosL] == '\\n';");
+          println("        }");
+        }
         println("        if (zzPeek) yyline--;");
         println("      }");
       }
     }
 
-    if (scanner.bolUsed()) {
+    if (scanner.bolUsed() && scanner.utf8()) {
+      emitUtf8AtBOL();
+    } else if (scanner.bolUsed()) {
       // zzMarkedPos > zzStartRead <=> last match was not empty
       // if match was empty, last value of zzAtBOL can be used
       // zzStartRead is always >= 0
@@ -904,18 +1267,23 @@ public final class Emitter {
       println("        case '\\r': ");
       println("          if (zzMarkedPosL < zzEndReadL)");
       println("            zzAtBOL = zzBufferL[zzMarkedPosL] != '\\n';");
-      println("          else if (zzAtEOF)");
-      println("            zzAtBOL = false;");
-      println("          else {");
-      println("            boolean eof = zzRefill();");
-      println("            zzMarkedPosL = zzMarkedPos;");
-      println("            zzEndReadL = zzEndRead;");
-      println("            zzBufferL = zzBuffer;");
-      println("            if (eof) ");
-      println("              zzAtBOL = false;");
-      println("            else ");
-      println("              zzAtBOL = zzBufferL[zzMarkedPosL] != '\\n';");
-      println("          }");
+      if (scanner.push()) {
+        println("          else // end of input, see above");
+        println("            zzAtBOL = false;");
+      } else {
+        println("          else if (zzAtEOF)");
+        println("            zzAtBOL = false;");
+        println("          else {");
+        println("            boolean eof = zzRefill();");
+        println("            zzMarkedPosL = zzMarkedPos;");
+        println("            zzEndReadL = zzEndRead;");
+        println("            zzBufferL = zzBuffer;");
+        println("            if (eof) ");
+        println("              zzAtBOL = false;");
+        println("            else ");
+        println("              zzAtBOL = zzBufferL[zzMarkedPosL] != '\\n';");
+        println("          }");
+      }
       println("          break;");
       println("        default:");
       println("          zzAtBOL = false;");
@@ -937,7 +1305,8 @@ public final class Emitter {
     }
 
     println("      // set up zzAction for empty match case:");
-    println("      int zzAttributes = zzAttrL[zzState];");
+    // push scanners declare zzAttributes before the code that continues an interrupted match
+    println("      " + (scanner.push() ? "" : "int ") + "zzAttributes = zzAttrL[zzState];");
     println("      if ( (zzAttributes & 1) == 1 ) {");
     println("        zzAction = zzState;");
     println("      }");
@@ -946,7 +1315,111 @@ public final class Emitter {
     skel.emitNext();
   }
 
+  /**
+   * Emits line and column counting on UTF-8 input. Counts bytes instead of decoding: multi-byte
+   * line terminators are recognised by their last byte, columns by the bytes that start a
+   * character.
+   */
+  private void emitUtf8LineCount() {
+    println("      boolean zzR = false;");
+    println("      int zzB;");
+    println("      for (zzCurrentPosL = zzStartRead  ;");
+    println("           zzCurrentPosL < zzMarkedPosL ;");
+    println("           zzCurrentPosL++ ) {");
+    println("        zzB = zzBufferL.get(zzCurrentPosL) & 0xFF;");
+    println("        switch (zzB) {");
+    println("        case '\\u000B':  // fall through");
+    println("        case '\\u000C':");
+    emitNewLine("          ");
+    println("          zzR = false;");
+    println("          break;");
+    println("        case 0x85:  // U+0085 is C2 85");
+    println("          if (zzCurrentPosL > zzStartRead");
+    println("              && (zzBufferL.get(zzCurrentPosL-1) & 0xFF) == 0xC2) {");
+    emitNewLine("            ");
+    println("          }");
+    println("          zzR = false;");
+    println("          break;");
+    println("        case 0xA8:  // U+2028 is E2 80 A8, fall through");
+    println("        case 0xA9:  // U+2029 is E2 80 A9");
+    println("          if (zzCurrentPosL > zzStartRead + 1");
+    println("              && (zzBufferL.get(zzCurrentPosL-1) & 0xFF) == 0x80");
+    println("              && (zzBufferL.get(zzCurrentPosL-2) & 0xFF) == 0xE2) {");
+    emitNewLine("            ");
+    println("          }");
+    println("          zzR = false;");
+    println("          break;");
+    println("        case '\\r':");
+    emitNewLine("          ");
+    println("          zzR = true;");
+    println("          break;");
+    println("        case '\\n':");
+    println("          if (zzR)");
+    println("            zzR = false;");
+    println("          else {");
+    emitNewLine("            ");
+    println("          }");
+    println("          break;");
+    println("        default:");
+    println("          zzR = false;");
+    if (scanner.columnCount()) {
+      println("          if ((zzB & 0xC0) != 0x80) yycolumn++;");
+    }
+    println("        }");
+    println("      }");
+    println();
+
+    if (scanner.lineCount()) {
+      println("      if (zzR) {");
+      println("        // peek one character ahead if it is");
+      println("        // (if we have counted one line too much)");
+      println("        if (zzMarkedPosL < zzEndReadL && zzBufferL.get(zzMarkedPosL) == '\\n')");
+      println("          yyline--;");
+      println("      }");
+    }
+  }
+
+  /** Emits the line and column update for a line terminator. */
+  private void emitNewLine(String indent) {
+    if (scanner.lineCount()) println(indent + "yyline++;");
+    if (scanner.columnCount()) println(indent + "yycolumn = 0;");
+  }
+
+  /** Emits the update of {@code zzAtBOL} from the last character of the match on UTF-8 input. */
+  private void emitUtf8AtBOL() {
+    println("      if (zzMarkedPosL > zzStartRead) {");
+    println("        switch (zzBufferL.get(zzMarkedPosL-1) & 0xFF) {");
+    println("        case '\\n':");
+    println("        case '\\u000B':  // fall through");
+    println("        case '\\u000C':");
+    println("          zzAtBOL = true;");
+    println("          break;");
+    println("        case 0x85:  // U+0085 is C2 85");
+    println("          zzAtBOL = zzMarkedPosL > zzStartRead + 1");
+    println("              && (zzBufferL.get(zzMarkedPosL-2) & 0xFF) == 0xC2;");
+    println("          break;");
+    println("        case 0xA8:  // U+2028 is E2 80 A8, fall through");
+    println("        case 0xA9:  // U+2029 is E2 80 A9");
+    println("          zzAtBOL = zzMarkedPosL > zzStartRead + 2");
+    println("              && (zzBufferL.get(zzMarkedPosL-2) & 0xFF) == 0x80");
+    println("              && (zzBufferL.get(zzMarkedPosL-3) & 0xFF) == 0xE2;");
+    println("          break;");
+    println("        case '\\r':");
+    println(
+        "          zzAtBOL = zzMarkedPosL < zzEndReadL && zzBufferL.get(zzMarkedPosL) != '\\n';");
+    println("          break;");
+    println("        default:");
+    println("          zzAtBOL = false;");
+    println("        }");
+    println("      }");
+  }
+
   private void emitCMapAccess() {
+    if (scanner.utf8()) {
+      emitUtf8Access();
+      return;
+    }
+
     println("  /**");
     println("   * Translates raw input code points to DFA table row");
     println("   */");
@@ -954,17 +1427,76 @@ public final class Emitter {
     if (parser.getCharClasses().getMaxCharCode() <= 0xFF) {
       println("    return ZZ_CMAP[input];");
     } else {
-      println("    int offset = input & " + (CMapBlock.BLOCK_SIZE - 1) + ";");
+      println("    int offset = input & " + ((1 << cmapBits) - 1) + ";");
       println(
           "    return offset == input ? ZZ_CMAP_BLOCKS[offset] : ZZ_CMAP_BLOCKS[ZZ_CMAP_TOP[input >> "
-              + CMapBlock.BLOCK_BITS
+              + cmapBits
               + "] | offset];");
     }
     println("  }");
   }
 
+  /**
+   * Emits {@code zzNextPos} for stepping over one character of UTF-8 input, if lookahead actions
+   * need it.
+   */
+  private void emitUtf8Access() {
+    boolean fixedLookahead = false;
+    for (Action action : actionTable.keySet()) {
+      int kind = action.lookAhead();
+      fixedLookahead |=
+          kind == Action.FIXED_BASE || kind == Action.FIXED_LOOK || kind == Action.FINITE_CHOICE;
+    }
+    if (!fixedLookahead) return;
+
+    println("  /**");
+    println("   * Returns the position after the character at {@code pos}, decoded as in the");
+    println("   * scanning loop. Requires {@code pos < end}.");
+    println("   */");
+    println("  private static int zzNextPos(java.nio.ByteBuffer buffer, int pos, int end) {");
+    println("    int node = ZZ_UTF8[buffer.get(pos++) & 0xFF];");
+    println("    while (node > 0 && pos < end) {");
+    println("      int b = buffer.get(pos);");
+    println("      if ((b & 0xC0) != 0x80 || (node = ZZ_UTF8[(node << 6) | (b & 0x3F)]) == 0) {");
+    println("        break;");
+    println("      }");
+    println("      pos++;");
+    println("    }");
+    println("    return pos;");
+    println("  }");
+  }
+
+  /**
+   * Returns the expression for the DFA transition from {@code state} under the current {@code
+   * zzInput}.
+   */
+  private String nextState(String state) {
+    if (directCode == null && combTable == null) {
+      return "zzTransL[ zzRowMapL[" + state + "] + " + inputColumn() + " ]";
+    } else {
+      return DirectEmitter.METHOD + "(" + state + ", " + inputColumn() + ")";
+    }
+  }
+
+  /**
+   * Returns the expression for the column of {@code zzInput} in the transition table. UTF-8
+   * scanners already decode their input to the column.
+   */
+  private String inputColumn() {
+    return scanner.utf8() ? "zzInput" : "zzCMap(zzInput)";
+  }
+
   private void emitGetRowMapNext() {
-    println("          int zzNext = zzTransL[ zzRowMapL[zzState] + zzCMap(zzInput) ];");
+    if (combTable != null) {
+      println("          int zzColumn = " + inputColumn() + ";");
+      println("          int zzIndex = zzBaseL[zzState] + zzColumn;");
+      println(
+          "          int zzNext = zzCheckL[zzIndex] == zzColumn ? zzNextL[zzIndex] : zzDefaultL[zzState];");
+    } else if (directCode == null || !directInline) {
+      println("          int zzNext = " + nextState("zzState") + ";");
+    } else {
+      print(directCode.inline(inputColumn()));
+    }
     println("          if (zzNext == " + DFA.NO_TARGET + ") break zzForAction;");
     println("          zzState = zzNext;");
     println();
@@ -1057,10 +1589,10 @@ public final class Emitter {
     if (count > 0) e.emit(count, value);
 
     e.emitUnpack();
-    println(e.toString());
+    emitTable(e);
   }
 
-  private void emitActions() {
+  private void emitActions(boolean batch) {
     println("        switch (zzAction < 0 ? zzAction : ZZ_ACTION[zzAction]) {");
 
     int i = actionTable.size() + 1;
@@ -1071,7 +1603,9 @@ public final class Emitter {
 
       println("          case " + label + ":");
 
-      if (action.lookAhead() == Action.FIXED_BASE) {
+      if (scanner.utf8()) {
+        emitUtf8Lookahead(action);
+      } else if (action.lookAhead() == Action.FIXED_BASE) {
         println("            // lookahead expression with fixed base length");
         println("            zzMarkedPos = Character.offsetByCodePoints");
         println(
@@ -1080,7 +1614,9 @@ public final class Emitter {
                 + ");");
       }
 
-      if (action.lookAhead() == Action.FIXED_LOOK || action.lookAhead() == Action.FINITE_CHOICE) {
+      if (!scanner.utf8()
+          && (action.lookAhead() == Action.FIXED_LOOK
+              || action.lookAhead() == Action.FINITE_CHOICE)) {
         println("            // lookahead expression with fixed lookahead length");
         println("            zzMarkedPos = Character.offsetByCodePoints");
         println(
@@ -1101,7 +1637,7 @@ public final class Emitter {
         println("                zzFinL[zzFPos] = ((zzAttrL[zzFState] & 1) == 1);");
         println("                zzInput = Character.codePointAt(zzBufferL, zzFPos, zzMarkedPos);");
         println("                zzFPos += Character.charCount(zzInput);");
-        println("                zzFState = zzTransL[ zzRowMapL[zzFState] + zzCMap(zzInput) ];");
+        println("                zzFState = " + nextState("zzFState") + ";");
         println("              }");
         println("              if (zzFState != -1) {");
         println("                zzFinL[zzFPos++] = ((zzAttrL[zzFState] & 1) == 1);");
@@ -1116,7 +1652,7 @@ public final class Emitter {
         println(
             "                zzInput = Character.codePointBefore(zzBufferL, zzFPos, zzStartRead);");
         println("                zzFPos -= Character.charCount(zzInput);");
-        println("                zzFState = zzTransL[ zzRowMapL[zzFState] + zzCMap(zzInput) ];");
+        println("                zzFState = " + nextState("zzFState") + ";");
         println("              };");
         println("              zzMarkedPos = zzFPos;");
         println("            }");
@@ -1133,13 +1669,218 @@ public final class Emitter {
         println(" }\");");
       }
 
-      println("            { " + action.content);
-      println("            }");
+      Matcher batchAction = batch ? BATCH_ACTION.matcher(action.content) : null;
+      if (batchAction != null && batchAction.matches() && batchAction.group(2) != null) {
+        String code = batchAction.group(1).trim();
+        println("            {" + (code.isEmpty() ? "" : " " + code));
+        println("              kinds[zzCount] = " + batchAction.group(2).trim() + ";");
+        println("              if (yychar + zzMarkedPos - zzStartRead > Integer.MAX_VALUE) {");
+        println("                throw new IllegalStateException(");
+        println("                    \"Token position does not fit into an int: \" + yychar);");
+        println("              }");
+        println("              starts[zzCount] = (int) yychar;");
+        println("              ends[zzCount] = (int) yychar + zzMarkedPos - zzStartRead;");
+        println("              if (++zzCount == max) return zzCount;");
+        println("            }");
+      } else {
+        println("            { " + action.content);
+        println("            }");
+      }
       println("            // fall through");
       println("          case " + (i++) + ": break;");
     }
   }
 
+  /** Emits the code that sets {@code zzMarkedPos} for a fixed length lookahead on UTF-8 input. */
+  private void emitUtf8Lookahead(Action action) {
+    if (action.lookAhead() == Action.FIXED_BASE) {
+      println("            // lookahead expression with fixed base length");
+      println("            zzMarkedPos = zzStartRead;");
+      println("            for (int zzI = 0; zzI < " + action.getLookLength() + "; zzI++) {");
+      println("              zzMarkedPos = zzNextPos(zzBufferL, zzMarkedPos, zzEndRead);");
+      println("            }");
+    }
+
+    if (action.lookAhead() == Action.FIXED_LOOK || action.lookAhead() == Action.FINITE_CHOICE) {
+      println("            // lookahead expression with fixed lookahead length");
+      println("            { int zzLen = -" + action.getLookLength() + ";");
+      println("              for (int zzPos = zzStartRead; zzPos < zzMarkedPos; zzLen++) {");
+      println("                zzPos = zzNextPos(zzBufferL, zzPos, zzMarkedPos);");
+      println("              }");
+      println("              int zzEnd = zzMarkedPos;");
+      println("              zzMarkedPos = zzStartRead;");
+      println("              for (int zzI = 0; zzI < zzLen; zzI++) {");
+      println("                zzMarkedPos = zzNextPos(zzBufferL, zzMarkedPos, zzEnd);");
+      println("              }");
+      println("            }");
+    }
+  }
+
+  /**
+   * Returns the throws clause of the methods that call the scanning method.
+   *
+   * @param init whether the method also creates scanners
+   */
+  private String scanThrows(boolean init) {
+    String result = " throws java.io.IOException";
+    if (scanner.lexThrow() != null) result += ", " + scanner.lexThrow();
+    if (scanner.scanErrorException() != null) result += ", " + scanner.scanErrorException();
+    if (init && scanner.initThrow() != null) result += ", " + scanner.initThrow();
+    return result;
+  }
+
+  /**
+   * Emits {@code yylexParallel}, which scans chunks of an in-place input concurrently and stitches
+   * their tokens, and the class {@code ZzChunk} for the tokens of a chunk.
+   *
+   * @param functionName the name of the scanning method
+   */
+  private void emitParallel(String functionName) {
+    String className = getBaseName(scanner.className());
+    Skeleton parallel = new Skeleton(out, Skeleton.readParallel());
+
+    parallel.emitNext();
+    if (scanner.utf8()) {
+      println(
+          "   * Scans the UTF-8 encoded bytes of {@code input} from its position to its limit in");
+      println("   * {@code numChunks} chunks on {@code executor}, and returns the tokens that");
+    } else {
+      println(
+          "   * Scans the characters {@code buf[off]} to {@code buf[off+len-1]} in {@code numChunks}");
+      println("   * chunks on {@code executor}, and returns the tokens that");
+    }
+    println("   * {@link #" + functionName + "()} returns for the whole input.");
+    parallel.emitNext();
+    if (scanner.utf8()) {
+      println("   * @param input the UTF-8 encoded input, its position and limit are not changed.");
+    } else {
+      println("   * @param buf the characters to scan, they are not copied.");
+      println("   * @param off the position of the first character to scan.");
+      println("   * @param len the number of characters to scan.");
+    }
+    parallel.emitNext();
+    if (scanner.utf8()) {
+      println("  public static int[][] yylexParallel(java.nio.ByteBuffer input, int numChunks,");
+      println("      java.util.concurrent.Executor executor)" + scanThrows(true) + " {");
+      println("    int off = input.position();");
+      println("    int end = input.limit();");
+      println("    int len = end - off;");
+    } else {
+      println("  public static int[][] yylexParallel(char[] buf, int off, int len, int numChunks,");
+      println("      java.util.concurrent.Executor executor)" + scanThrows(true) + " {");
+      println("    if (off < 0 || len < 0 || off > buf.length - len) {");
+      println("      throw new IndexOutOfBoundsException(");
+      println("          \"off: \" + off + \", len: \" + len + \", length: \" + buf.length);");
+      println("    }");
+      println("    int end = off + len;");
+    }
+    parallel.emitNext();
+    if (scanner.utf8()) {
+      println("      while (pos < end && input.get(pos - 1) != '\\n') pos++;");
+    } else {
+      println("      while (pos < end && buf[pos - 1] != '\\n') pos++;");
+    }
+    parallel.emitNext();
+    if (scanner.utf8()) {
+      println("      java.nio.ByteBuffer view = input.duplicate();");
+      println("      // via Buffer: the covariant overrides of Java 9 don't exist on Java 8");
+      println("      ((java.nio.Buffer) view).position(bounds[i]);");
+      println("      " + className + " scanner = new " + className + "(view);");
+    } else {
+      println("      " + className + " scanner = new " + className + "((java.io.Reader) null);");
+      println("      scanner.yyreset(buf, bounds[i], end - bounds[i]);");
+    }
+    parallel.emitNext();
+    println("    final " + className + " scanner;");
+    parallel.emitNext();
+    println("    ZzChunk(" + className + " scanner, int start, int limit) {");
+    parallel.emitNext();
+    println("    void next()" + scanThrows(false) + " {");
+    println("      int kind = scanner." + functionName + "();");
+    parallel.emitNext();
+  }
+
+  /**
+   * Emits {@code yylexTokens} and {@code yyrelex}, which scan a text and update its tokens after
+   * edits, and the class {@code YyTokens} for the tokens.
+   *
+   * @param functionName the name of the scanning method
+   */
+  private void emitIncremental(String functionName) {
+    String className = getBaseName(scanner.className());
+    boolean line = scanner.lineCount();
+    boolean column = scanner.columnCount();
+    Skeleton incremental = new Skeleton(out, Skeleton.readIncremental());
+
+    // yylexTokens
+    incremental.emitNext();
+    println(
+        "  public static YyTokens yylexTokens(char[] buf, int off, int len)"
+            + scanThrows(true)
+            + " {");
+    println("    YyTokens tokens = new YyTokens(new " + className + "((java.io.Reader) null));");
+
+    // yyrelex
+    incremental.emitNext();
+    println("      int removed, int inserted)" + scanThrows(false) + " {");
+    incremental.emitNext();
+    println("    " + className + " scanner = tokens.scanner;");
+    incremental.emitNext();
+    incremental.emitNextIf(line);
+    incremental.emitNextIf(column);
+    incremental.emitNext();
+    println("      int kind = scanner." + functionName + "();");
+    incremental.emitNext();
+    incremental.emitNextIf(line);
+    incremental.emitNextIf(column);
+    incremental.emitNext();
+    println(
+        "      tokens.add(kind, start, end, scanner.zzReach, state"
+            + (line ? ", scanner.yyline" : "")
+            + (column ? ", scanner.yycolumn" : "")
+            + ");");
+
+    // YyTokens
+    incremental.emitNext();
+    println("    final " + className + " scanner;");
+    incremental.emitNext();
+    incremental.emitNextIf(line);
+    incremental.emitNextIf(column);
+    incremental.emitNext();
+    incremental.emitNextIf(line);
+    incremental.emitNext();
+    println("    YyTokens(" + className + " scanner) {");
+    incremental.emitNext();
+    incremental.emitNextIf(line);
+    incremental.emitNextIf(column);
+    incremental.emitNext();
+    incremental.emitNextIf(line);
+    incremental.emitNextIf(column);
+    incremental.emitNext();
+    incremental.emitNextIf(line);
+    incremental.emitNext();
+    println(
+        "    void add(int kind, int start, int end, int reach, int state"
+            + (line ? ", int line" : "")
+            + (column ? ", int column" : "")
+            + ") {");
+    incremental.emitNext();
+    incremental.emitNextIf(line);
+    incremental.emitNextIf(column);
+    incremental.emitNext();
+    incremental.emitNextIf(line);
+    incremental.emitNextIf(column);
+    incremental.emitNext();
+    incremental.emitNextIf(column);
+    incremental.emitNext();
+  }
+
+  /** Emits the end of input of {@code yylexBatch}, which returns the tokens stored so far. */
+  private void emitBatchEOF() {
+    if (eofCode != null) println("            zzDoEOF();");
+    println("            return zzCount;");
+  }
+
   private void emitEOFVal() {
     EOFActions eofActions = parser.getEOFActions();
 
@@ -1219,64 +1960,270 @@ public final class Emitter {
     colMap = new int[dfa.numInput()];
     colKilled = new boolean[dfa.numInput()];
 
-    int i, j, k;
-    int translate = 0;
-    boolean equal;
+    // first column with the given content
+    Map<TableLineKey, Integer> columns = new HashMap<>();
 
-    numCols = dfa.numInput();
+    numCols = 0;
 
-    for (i = 0; i < dfa.numInput(); i++) {
+    for (int i = 0; i < dfa.numInput(); i++) {
+      Integer j = columns.putIfAbsent(new TableLineKey(dfa, false, i), i);
+      if (j == null) {
+        colMap[i] = numCols++;
+      } else {
+        colMap[i] = colMap[j];
+        colKilled[i] = true;
+      }
+    }
+  }
 
-      colMap[i] = i - translate;
+  private void reduceRows() {
+    rowMap = new int[dfa.numStates()];
+    rowKilled = new boolean[dfa.numStates()];
 
-      for (j = 0; j < i; j++) {
+    // first state with the given row
+    Map<TableLineKey, Integer> rows = new HashMap<>();
 
-        // test for equality:
-        k = -1;
-        equal = true;
-        while (equal && ++k < dfa.numStates()) equal = dfa.table(k, i) == dfa.table(k, j);
+    int numRows = 0;
 
-        if (equal) {
-          translate++;
-          colMap[i] = colMap[j];
-          colKilled[i] = true;
-          numCols--;
-          break;
-        } // if
-      } // for j
-    } // for i
+    for (int i = 0; i < dfa.numStates(); i++) {
+      Integer j = rows.putIfAbsent(new TableLineKey(dfa, true, i), i);
+      if (j == null) {
+        rowMap[i] = numRows++;
+      } else {
+        rowMap[i] = rowMap[j];
+        rowKilled[i] = true;
+      }
+    }
   }
 
-  private void reduceRows() {
-    rowMap = new int[dfa.numStates()];
-    rowKilled = new boolean[dfa.numStates()];
+  /**
+   * Set up the direct-coded transition function if requested by {@code %codegen direct}. The
+   * transitions are inlined into the scanning loop if the scanning method stays below the JVM limit
+   * with them, and emitted as separate method otherwise. Falls back to the transition table if the
+   * transitions alone would be too large for a method.
+   */
+  private void setupDirectCode() {
+    if (scanner.codeGen() != CodeGenMethod.DIRECT) return;
+
+    DirectEmitter e = new DirectEmitter(reducedTable(), rowMap);
+    e.inline(inputColumn());
+    int size = e.estimatedSize() + scanMethodSize();
+    directInline = size <= DirectEmitter.MAX_METHOD_SIZE;
+    if (!directInline) {
+      Out.warning(ErrorMessages.get(ErrorMessages.DIRECT_METHOD, size));
+      e.method();
+      size = e.estimatedSize();
+      if (size > DirectEmitter.MAX_METHOD_SIZE) {
+        Out.warning(ErrorMessages.get(ErrorMessages.DIRECT_TOO_LARGE, size));
+        return;
+      }
+    }
+    if (size > DirectEmitter.HUGE_METHOD_SIZE) {
+      Out.warning(ErrorMessages.get(ErrorMessages.DIRECT_NOT_COMPILED, size));
+    }
+    directCode = e;
+  }
+
+  /**
+   * Estimates the bytecode of the scanning method apart from the transition code: the skeleton's
+   * scanning loop, the actions and the {@code <<EOF>>} actions.
+   */
+  private int scanMethodSize() {
+    int size = DirectEmitter.SCAN_LOOP_SIZE;
+    for (Action action : actionTable.keySet()) {
+      size += DirectEmitter.ACTION_OVERHEAD + DirectEmitter.codeSize(action.content);
+      if (action.lookAhead() == Action.GENERAL_LOOK) size += DirectEmitter.GENERAL_LOOK_SIZE;
+      if (scanner.debugOption()) size += DirectEmitter.DEBUG_SIZE;
+    }
+
+    EOFActions eofActions = parser.getEOFActions();
+    for (String name : scanner.stateNames()) {
+      size += eofActionSize(eofActions.getAction(scanner.getStateNumber(name)));
+    }
+    size += eofActionSize(eofActions.getDefault());
+    if (scanner.eofVal() != null) size += DirectEmitter.codeSize(scanner.eofVal());
+    return size;
+  }
+
+  /** Estimates the bytecode of an {@code <<EOF>>} action, 0 for {@code null}. */
+  private int eofActionSize(Action action) {
+    if (action == null) return 0;
+    int size = DirectEmitter.ACTION_OVERHEAD + DirectEmitter.codeSize(action.content);
+    if (scanner.debugOption()) size += DirectEmitter.DEBUG_SIZE;
+    return size;
+  }
+
+  /** The row and column reduced transition table, indexed by {@code rowMap} and {@code colMap}. */
+  private int[][] reducedTable() {
+    int numRows = 0;
+    for (int i = 0; i < dfa.numStates(); i++) {
+      if (!rowKilled[i]) numRows++;
+    }
 
-    int i, j, k;
-    int translate = 0;
-    boolean equal;
+    int[][] rows = new int[numRows][];
+    for (int i = 0; i < dfa.numStates(); i++) {
+      if (!rowKilled[i]) {
+        int[] row = new int[numCols];
+        for (int c = 0; c < dfa.numInput(); c++) {
+          if (!colKilled[c]) row[colMap[c]] = dfa.table(i, c);
+        }
+        rows[rowMap[i]] = row;
+      }
+    }
+    return rows;
+  }
 
-    // i is the state to add to the new table
-    for (i = 0; i < dfa.numStates(); i++) {
+  /** Emits the transition table as comb vector if requested by {@code %codegen comb}. */
+  private void emitCombTable() {
+    combTable = new CombTable(reducedTable());
 
-      rowMap[i] = i - translate;
+    println("");
+    println("  /**");
+    println("   * Translates a state to the index of its row in ZZ_NEXT and ZZ_CHECK");
+    println("   */");
 
-      // check if state i can be removed (i.e. already
-      // exists in entries 0..i-1)
-      for (j = 0; j < i; j++) {
+    HiLowEmitter b = new HiLowEmitter("Base");
+    b.emitInit();
+    for (int i = 0; i < dfa.numStates(); i++) {
+      b.emit(combTable.base(rowMap[i]));
+    }
+    b.emitUnpack();
+    emitTable(b);
 
-        // test for equality:
-        k = -1;
-        equal = true;
-        while (equal && ++k < dfa.numInput()) equal = dfa.table(i, k) == dfa.table(j, k);
+    println("  /**");
+    println("   * The target of each state for all inputs without entry in ZZ_NEXT");
+    println("   */");
 
-        if (equal) {
-          translate++;
-          rowMap[i] = rowMap[j];
-          rowKilled[i] = true;
-          break;
-        } // if
-      } // for j
-    } // for i
+    CountEmitter d = new CountEmitter("Default");
+    d.setValTranslation(+1); // allow vals in [-1, 0xFFFE]
+    d.emitInit();
+    int[] defaults = new int[dfa.numStates()];
+    for (int i = 0; i < dfa.numStates(); i++) {
+      defaults[i] = combTable.defaultTarget(rowMap[i]);
+    }
+    d.emitCountValueString(defaults);
+    d.emitUnpack();
+    emitTable(d);
+
+    println("  /**");
+    println("   * The transitions of all states, overlaid in one vector");
+    println("   */");
+
+    CountEmitter n = new CountEmitter("Next");
+    n.setValTranslation(+1); // allow vals in [-1, 0xFFFE]
+    n.emitInit();
+    n.emitCountValueString(combTable.next());
+    n.emitUnpack();
+    emitTable(n);
+
+    println("  /**");
+    println("   * The input column of each entry in ZZ_NEXT, -1 if the entry is unused");
+    println("   */");
+
+    CountEmitter c = new CountEmitter("Check");
+    c.setValTranslation(+1);
+    c.emitInit();
+    c.emitCountValueString(combTable.check());
+    c.emitUnpack();
+    emitTable(c);
+
+    if (hasGenLookAhead()) {
+      println("  /**");
+      println("   * The transition function of the DFA.");
+      println("   *");
+      println("   * @param state the current DFA state");
+      println("   * @param input the character class of the next input character");
+      println("   * @return the next DFA state, or " + DFA.NO_TARGET + " if there is none");
+      println("   */");
+      println("  private static int " + DirectEmitter.METHOD + "(int state, int input) {");
+      println("    int index = ZZ_BASE[state] + input;");
+      println("    return ZZ_CHECK[index] == input ? ZZ_NEXT[index] : ZZ_DEFAULT[state];");
+      println("  }");
+      println("");
+    }
+  }
+
+  /** Checks that the specification can be compiled to a scanner on UTF-8 input. */
+  private void checkUtf8() {
+    if (parser.getCharClasses().getMaxCharCode() < 0x10FFFF) {
+      Out.error(ErrorMessages.UTF8_NOT_UNICODE);
+      throw new GeneratorException();
+    }
+    if (hasGenLookAhead()) {
+      Out.error(ErrorMessages.UTF8_GENERAL_LOOK);
+      throw new GeneratorException();
+    }
+  }
+
+  /** Checks that the token type is int and that all actions only return a token code. */
+  private void checkBatch() {
+    String type = scanner.tokenType();
+    if (type == null ? !scanner.isInteger() : !type.equals("int")) {
+      Out.error(ErrorMessages.BATCH_NOT_INT);
+      throw new GeneratorException();
+    }
+
+    Map<Action, Action> checked = new HashMap<>();
+    boolean ok = true;
+    for (int i = 0; i < dfa.numStates(); i++) {
+      Action action = dfa.action(i);
+      if (!dfa.isFinal(i) || !action.isEmittable() || checked.put(action, action) != null) {
+        continue;
+      }
+      if (!BATCH_ACTION.matcher(action.content).matches()) {
+        Out.error(inputFile, ErrorMessages.BATCH_ACTION, action.priority - 1, -1);
+        ok = false;
+      }
+    }
+    if (!ok) throw new GeneratorException();
+  }
+
+  /**
+   * Checks that a {@code %push} scanner can return {@link #needMoreInput()}: its token type must be
+   * {@code int}, {@code long} or a reference type.
+   */
+  private void checkPush() {
+    if (scanner.utf8() || scanner.batch()) {
+      Out.error(ErrorMessages.PUSH_INCOMPATIBLE);
+      throw new GeneratorException();
+    }
+
+    String type = scanner.tokenType();
+    if (type == null) return;
+    switch (type) {
+      case "boolean":
+      case "byte":
+      case "short":
+      case "char":
+      case "float":
+      case "double":
+        Out.error(ErrorMessages.PUSH_TYPE, type);
+        throw new GeneratorException();
+      default:
+    }
+  }
+
+  /** Checks that the scanner returns int token codes and can be created without arguments. */
+  private void checkParallel() {
+    String type = scanner.tokenType();
+    if ((type == null ? !scanner.isInteger() : !type.equals("int"))
+        || scanner.ctorArgsCount() > 0
+        || scanner.push()) {
+      Out.error(ErrorMessages.PARALLEL_INCOMPATIBLE);
+      throw new GeneratorException();
+    }
+  }
+
+  /** Checks that the scanner returns int token codes and scans arrays without arguments. */
+  private void checkIncremental() {
+    String type = scanner.tokenType();
+    if ((type == null ? !scanner.isInteger() : !type.equals("int"))
+        || scanner.ctorArgsCount() > 0
+        || scanner.push()
+        || scanner.utf8()) {
+      Out.error(ErrorMessages.INCREMENTAL_INCOMPATIBLE);
+      throw new GeneratorException();
+    }
   }
 
   /** Set up EOF code section according to scanner.eofcode */
@@ -1331,6 +2278,12 @@ public final class Emitter {
     }
     println("  private boolean zzEOFDone;");
     println();
+
+    if (scanner.incremental()) {
+      println("  /** The position after the last character examined by the matches so far. */");
+      println("  private int zzReach;");
+      println();
+    }
   }
 
   /** Main Emitter method. */
@@ -1339,6 +2292,18 @@ public final class Emitter {
 
     setupEOFCode();
 
+    if (scanner.push()) checkPush();
+
+    if (scanner.parallel()) checkParallel();
+
+    if (scanner.incremental()) checkIncremental();
+
+    if (scanner.utf8()) checkUtf8();
+
+    if (scanner.batch()) checkBatch();
+
+    if (scanner.tableResource()) tableResource = new TableResource();
+
     reduceColumns();
     findActionStates();
 
@@ -1364,9 +2329,15 @@ public final class Emitter {
 
     reduceRows();
 
-    emitRowMapArray();
+    setupDirectCode();
+
+    if (scanner.codeGen() == CodeGenMethod.COMB) {
+      emitCombTable();
+    } else if (directCode == null) {
+      emitRowMapArray();
 
-    emitDynamicInit();
+      emitDynamicInit();
+    }
 
     skel.emitNext();
 
@@ -1406,35 +2377,38 @@ public final class Emitter {
 
     emitCMapAccess();
 
-    skel.emitNext();
+    if (directCode != null && (hasGenLookAhead() || !directInline)) {
+      println();
+      print(directCode.method());
+    }
 
-    emitScanError();
+    if (tableResource != null) emitTableResource();
 
     skel.emitNext();
 
-    emitDoEOF();
+    emitScanError();
 
     skel.emitNext();
 
-    emitLexFunctHeader(functionName);
-
-    emitNextInput();
-
-    emitGetRowMapNext();
+    emitDoEOF();
 
     skel.emitNext();
 
-    emitEOFVal();
+    Skeleton batchSkel = scanner.batch() ? skel.fork() : null;
 
-    skel.emitNext();
+    emitLexFunction(functionName, false);
 
-    emitActions();
+    if (batchSkel != null) {
+      // the batch method is a second copy of the scanning loop, from the same skeleton parts
+      Skeleton mainSkel = skel;
+      skel = batchSkel;
+      emitLexFunction("yylexBatch", true);
+      skel = mainSkel;
+    }
 
-    skel.emitNext();
+    if (scanner.parallel()) emitParallel(functionName);
 
-    emitNoMatch();
-
-    skel.emitNext();
+    if (scanner.incremental()) emitIncremental(functionName);
 
     emitMain(functionName);
 
@@ -48,7 +48,7 @@ public final class Emitters {
     PrintWriter out =
         new PrintWriter(
             new BufferedWriter(
-                new OutputStreamWriter(new FileOutputStream(outputFile), Options.encoding)));
+                new OutputStreamWriter(new FileOutputStream(outputFile), Options.get().encoding)));
 
     return new Emitter(outputFileName, inputLexFile, parser, dfa, out);
   }
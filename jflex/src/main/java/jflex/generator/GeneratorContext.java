@@ -0,0 +1,143 @@
+/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+ * JFlex 1.9.0-SNAPSHOT                                                    *
+ * Copyright (C) 1998-2018  Gerwin Klein <lsf@jflex.de>                    *
+ * All rights reserved.                                                    *
+ *                                                                         *
+ * License: BSD                                                            *
+ *                                                                         *
+ * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+package jflex.generator;
+
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.util.function.Supplier;
+import jflex.logging.Out;
+import jflex.logging.StdOutWriter;
+import jflex.option.Options;
+import jflex.skeleton.Skeleton;
+
+/**
+ * The state of generator runs: options, skeleton, output device, and error and warning counters.
+ *
+ * <p>All parts of JFlex access this state through the static methods of {@link Options}, {@link
+ * Skeleton} and {@link Out}. By default, these work on one global state, which is what the command
+ * line and the GUI use. A context has its own state, which {@link #call(Supplier)} binds to the
+ * current thread. Different contexts can therefore generate scanners concurrently on different
+ * threads.
+ *
+ * @version JFlex 1.9.0-SNAPSHOT
+ */
+public final class GeneratorContext {
+
+  /** The options of this context */
+  private final Options options;
+
+  /** The skeleton of this context */
+  private String[] skeleton;
+
+  /** Output device and counters of this context */
+  private final Out.State state;
+
+  /** The messages of this context, if they are not written to a stream */
+  private final StringWriter messages;
+
+  /**
+   * Creates a context with a copy of the current options and skeleton. Messages of the context are
+   * collected in memory, see {@link #getMessages()}.
+   */
+  public GeneratorContext() {
+    this.options = new Options(Options.get());
+    this.skeleton = Skeleton.get();
+    this.messages = new StringWriter();
+    this.state = new Out.State(new StdOutWriter(messages));
+  }
+
+  /**
+   * Creates a context with a copy of the current options and skeleton.
+   *
+   * @param out the stream to write messages of the context to
+   */
+  public GeneratorContext(OutputStream out) {
+    this.options = new Options(Options.get());
+    this.skeleton = Skeleton.get();
+    this.messages = null;
+    this.state = new Out.State(new StdOutWriter(out));
+  }
+
+  /**
+   * The options of this context. They can be changed directly, or by {@link jflex.core.OptionUtils}
+   * within {@link #call(Supplier)}.
+   *
+   * @return the options of this context
+   */
+  public Options getOptions() {
+    return options;
+  }
+
+  /** @return the number of errors of the last generator run in this context */
+  public int getErrors() {
+    return state.getErrors();
+  }
+
+  /** @return the number of warnings of the last generator run in this context */
+  public int getWarnings() {
+    return state.getWarnings();
+  }
+
+  /**
+   * Returns and clears the messages collected so far.
+   *
+   * @return the messages, or the empty string if they are written to a stream
+   */
+  public String getMessages() {
+    if (messages == null) return "";
+    StringBuffer buffer = messages.getBuffer();
+    String result = buffer.toString();
+    buffer.setLength(0);
+    return result;
+  }
+
+  /**
+   * Reports the messages and counters of this context to the current output, see {@link
+   * Out#report(String, Out.State)}.
+   */
+  void report() {
+    Out.report(getMessages(), state);
+  }
+
+  /**
+   * Runs a task in this context. While the task runs, the state of this context is bound to the
+   * current thread. A context must not run tasks on several threads at the same time.
+   *
+   * @param task the task to run
+   * @param <T> the result type of the task
+   * @return the result of the task
+   */
+  public <T> T call(Supplier<T> task) {
+    Options previousOptions = Options.bind(options);
+    String[] previousSkeleton = Skeleton.bind(skeleton);
+    Out.State previousState = Out.bind(state);
+    try {
+      return task.get();
+    } finally {
+      // reading a skeleton replaces the bound one
+      skeleton = Skeleton.bind(previousSkeleton);
+      Options.bind(previousOptions);
+      Out.bind(previousState);
+    }
+  }
+
+  /**
+   * Runs a task without result in this context, see {@link #call(Supplier)}.
+   *
+   * @param task the task to run
+   */
+  public void run(Runnable task) {
+    call(
+        () -> {
+          task.run();
+          return null;
+        });
+  }
+}
@@ -0,0 +1,41 @@
+/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+ * JFlex 1.9.0-SNAPSHOT                                                    *
+ * Copyright (C) 1998-2018  Gerwin Klein <lsf@jflex.de>                    *
+ * All rights reserved.                                                    *
+ *                                                                         *
+ * License: BSD                                                            *
+ *                                                                         *
+ * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+package jflex.generator;
+
+import java.util.Arrays;
+
+/**
+ * An int array with value equality, for use as hash key in table compression.
+ *
+ * <p>The array must not be modified while the key is in use.
+ *
+ * @version JFlex 1.9.0-SNAPSHOT
+ */
+final class IntArrayKey {
+  private final int[] entries;
+  private final int hash;
+
+  IntArrayKey(int[] entries) {
+    this.entries = entries;
+    this.hash = Arrays.hashCode(entries);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    return o instanceof IntArrayKey
+        && hash == ((IntArrayKey) o).hash
+        && Arrays.equals(entries, ((IntArrayKey) o).entries);
+  }
+
+  @Override
+  public int hashCode() {
+    return hash;
+  }
+}
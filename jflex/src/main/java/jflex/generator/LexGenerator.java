@@ -45,7 +45,7 @@ public class LexGenerator {
 
   public LexGenerator(File inputFile) {
     this.inputFile = inputFile;
-    if (Options.encoding == null) {
+    if (Options.get().encoding == null) {
       OptionUtils.setDefaultOptions();
     }
   }
@@ -65,7 +65,7 @@ public class LexGenerator {
 
     try (Reader inputReader =
         new InputStreamReader(
-            Files.newInputStream(Paths.get(inputFile.toString())), Options.encoding)) {
+            Files.newInputStream(Paths.get(inputFile.toString())), Options.get().encoding)) {
       Out.println(ErrorMessages.READING, inputFile.toString());
       LexScan scanner = new LexScan(inputReader);
       scanner.setFile(inputFile);
@@ -75,9 +75,10 @@ public class LexGenerator {
 
       Out.checkErrors();
 
-      if (Options.dump) Out.dump(ErrorMessages.get(ErrorMessages.NFA_IS) + Out.NL + nfa + Out.NL);
+      if (Options.get().dump)
+        Out.dump(ErrorMessages.get(ErrorMessages.NFA_IS) + Out.NL + nfa + Out.NL);
 
-      if (Options.dot) nfa.writeDot(Emitter.normalize("nfa.dot", null)); // $NON-NLS-1$
+      if (Options.get().dot) nfa.writeDot(Emitter.normalize("nfa.dot", null)); // $NON-NLS-1$
 
       Out.println(ErrorMessages.NFA_STATES, nfa.numStates());
 
@@ -88,9 +89,10 @@ public class LexGenerator {
 
       dfa.checkActions(scanner, parser);
 
-      if (Options.dump) Out.dump(ErrorMessages.get(ErrorMessages.DFA_IS) + Out.NL + dfa + Out.NL);
+      if (Options.get().dump)
+        Out.dump(ErrorMessages.get(ErrorMessages.DFA_IS) + Out.NL + dfa + Out.NL);
 
-      if (Options.dot) dfa.writeDot(Emitter.normalize("dfa-big.dot", null)); // $NON-NLS-1$
+      if (Options.get().dot) dfa.writeDot(Emitter.normalize("dfa-big.dot", null)); // $NON-NLS-1$
 
       Out.checkErrors();
 
@@ -105,9 +107,9 @@ public class LexGenerator {
 
       Out.time(ErrorMessages.MIN_TOOK, time);
 
-      if (Options.dump) Out.dump(ErrorMessages.get(ErrorMessages.MIN_DFA_IS) + Out.NL + dfa);
+      if (Options.get().dump) Out.dump(ErrorMessages.get(ErrorMessages.MIN_DFA_IS) + Out.NL + dfa);
 
-      if (Options.dot) dfa.writeDot(Emitter.normalize("dfa-min.dot", null)); // $NON-NLS-1$
+      if (Options.get().dot) dfa.writeDot(Emitter.normalize("dfa-min.dot", null)); // $NON-NLS-1$
 
       time.start();
 
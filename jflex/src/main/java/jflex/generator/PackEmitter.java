@@ -9,6 +9,7 @@
 
 package jflex.generator;
 
+import java.util.Arrays;
 import java.util.Locale;
 import jflex.logging.Out;
 
@@ -53,6 +54,18 @@ public abstract class PackEmitter {
   /** indent for string lines */
   private static final String indent = "    ";
 
+  /** the unpacked values emitted so far */
+  private int[] values = new int[64];
+
+  /** number of entries in {@link #values} */
+  private int numValues;
+
+  /** position of the element type in the declaration emitted by {@link #emitInit()} */
+  private int typePos = -1;
+
+  /** element type in the declaration emitted by {@link #emitInit()} */
+  private String declaredType = "int";
+
   /**
    * Create new emitter for an array.
    *
@@ -84,7 +97,10 @@ public abstract class PackEmitter {
 
   /** Emit declaration of decoded member and open first chunk. */
   public void emitInit() {
-    out.append("  private static final int [] ");
+    out.append("  private static final ");
+    typePos = out.length();
+    out.append(declaredType);
+    out.append(" [] ");
     out.append(constName());
     out.append(" = zzUnpack");
     out.append(name);
@@ -136,6 +152,70 @@ public abstract class PackEmitter {
   /** Emit the unpacking code. */
   public abstract void emitUnpack();
 
+  /**
+   * Record {@code count} copies of an unpacked value of the generated array.
+   *
+   * @param count the number of entries
+   * @param value the (untranslated) value of the entries
+   */
+  protected void record(int count, int value) {
+    if (numValues + count > values.length) {
+      values = Arrays.copyOf(values, Math.max(2 * values.length, numValues + count));
+    }
+    Arrays.fill(values, numValues, numValues + count, value);
+    numValues += count;
+  }
+
+  /**
+   * The narrowest Java element type that can hold all values emitted so far. Prefers {@code byte},
+   * then {@code char} over {@code short} for values that fit into both.
+   *
+   * @return {@code "byte"}, {@code "char"}, {@code "short"}, or {@code "int"}
+   */
+  public String elementType() {
+    int min = 0;
+    int max = 0;
+    for (int i = 0; i < numValues; i++) {
+      min = Math.min(min, values[i]);
+      max = Math.max(max, values[i]);
+    }
+    if (min >= Byte.MIN_VALUE && max <= Byte.MAX_VALUE) return "byte";
+    if (min >= Character.MIN_VALUE && max <= Character.MAX_VALUE) return "char";
+    if (min >= Short.MIN_VALUE && max <= Short.MAX_VALUE) return "short";
+    return "int";
+  }
+
+  /**
+   * Changes the element type of the array declared by {@link #emitInit()}, if already emitted.
+   *
+   * @param type the new element type
+   */
+  protected void declareElementType(String type) {
+    if (typePos >= 0) {
+      out.replace(typePos, typePos + declaredType.length(), type);
+    }
+    declaredType = type;
+  }
+
+  /**
+   * The cast of an {@code int} value to {@code type} in generated code.
+   *
+   * @param type the element type of the generated array
+   * @return the cast, empty for {@code int}
+   */
+  protected static String cast(String type) {
+    return type.equals("int") ? "" : "(" + type + ") ";
+  }
+
+  /**
+   * The unpacked array, i.e. the values the generated unpacking code produces.
+   *
+   * @return a copy of all values emitted so far
+   */
+  public int[] values() {
+    return Arrays.copyOf(values, numValues);
+  }
+
   /** emit next chunk */
   private void nextChunk() {
     nl();
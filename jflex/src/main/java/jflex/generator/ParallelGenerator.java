@@ -0,0 +1,131 @@
+/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+ * JFlex 1.9.0-SNAPSHOT                                                    *
+ * Copyright (C) 1998-2018  Gerwin Klein <lsf@jflex.de>                    *
+ * All rights reserved.                                                    *
+ *                                                                         *
+ * License: BSD                                                            *
+ *                                                                         *
+ * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+package jflex.generator;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import jflex.exceptions.GeneratorException;
+
+/**
+ * Generates scanners for several specifications on a pool of threads.
+ *
+ * <p>Each specification is generated by its own {@link LexGenerator} in its own {@link
+ * GeneratorContext}. The messages of each run are written to the current output in the order in
+ * which the specifications were added, so that they do not interleave.
+ *
+ * @version JFlex 1.9.0-SNAPSHOT
+ */
+public final class ParallelGenerator {
+
+  /** number of threads */
+  private final int jobs;
+
+  /** the specifications to generate */
+  private final List<File> files = new ArrayList<>();
+
+  /** the contexts to generate the specifications in */
+  private final List<GeneratorContext> contexts = new ArrayList<>();
+
+  /**
+   * Creates a generator without specifications.
+   *
+   * @param jobs the number of specifications to generate at the same time, a positive number
+   */
+  public ParallelGenerator(int jobs) {
+    if (jobs < 1) throw new IllegalArgumentException("jobs must be positive: " + jobs);
+    this.jobs = jobs;
+  }
+
+  /**
+   * Adds a specification that is generated with a copy of the current options and skeleton.
+   *
+   * @param file the specification
+   * @return the context the specification will be generated in
+   */
+  public GeneratorContext add(File file) {
+    GeneratorContext context = new GeneratorContext();
+    add(file, context);
+    return context;
+  }
+
+  /**
+   * Adds a specification that is generated in the given context.
+   *
+   * @param file the specification
+   * @param context the context to generate it in, collecting its messages in memory
+   */
+  public void add(File file, GeneratorContext context) {
+    files.add(file);
+    contexts.add(context);
+  }
+
+  /**
+   * Generates all specifications added so far.
+   *
+   * <p>A failed run does not stop the other runs. The errors and warnings of all runs are added to
+   * the current counters.
+   *
+   * @return the file names of the generated Java sources, in the order of the specifications
+   * @throws GeneratorException the exception of the first failed run, after all runs have finished
+   */
+  public List<String> generate() {
+    ExecutorService pool = Executors.newFixedThreadPool(Math.min(jobs, Math.max(1, files.size())));
+    try {
+      List<Future<String>> results = new ArrayList<>(files.size());
+      for (int i = 0; i < files.size(); i++) {
+        File file = files.get(i);
+        GeneratorContext context = contexts.get(i);
+        results.add(pool.submit(() -> context.call(() -> new LexGenerator(file).generate())));
+      }
+
+      List<String> outputFiles = new ArrayList<>(files.size());
+      RuntimeException failure = null;
+      for (int i = 0; i < results.size(); i++) {
+        try {
+          outputFiles.add(getUninterruptibly(results.get(i)));
+        } catch (RuntimeException e) {
+          if (failure == null) failure = e;
+          outputFiles.add(null);
+        }
+        contexts.get(i).report();
+      }
+
+      if (failure != null) throw failure;
+      return outputFiles;
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  /** Waits for the result of a run and rethrows its exception. */
+  private static String getUninterruptibly(Future<String> result) {
+    boolean interrupted = false;
+    try {
+      while (true) {
+        try {
+          return result.get();
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+      throw new GeneratorException(cause, true);
+    } finally {
+      if (interrupted) Thread.currentThread().interrupt();
+    }
+  }
+}
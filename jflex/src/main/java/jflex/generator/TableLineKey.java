@@ -0,0 +1,65 @@
+/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+ * JFlex 1.9.0-SNAPSHOT                                                    *
+ * Copyright (C) 1998-2018  Gerwin Klein <lsf@jflex.de>                    *
+ * All rights reserved.                                                    *
+ *                                                                         *
+ * License: BSD                                                            *
+ *                                                                         *
+ * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+package jflex.generator;
+
+import jflex.dfa.DFA;
+
+/**
+ * A row or column of the transition table of a DFA with value equality, for use as hash key in
+ * table compression.
+ *
+ * <p>The key reads the entries from the DFA instead of copying them, so that hashing all rows and
+ * columns does not need a second table. The DFA must not be modified while the key is in use.
+ *
+ * @version JFlex 1.9.0-SNAPSHOT
+ */
+final class TableLineKey {
+  private final DFA dfa;
+  /** Whether this is the row of a state, or the column of an input. */
+  private final boolean row;
+  /** The state or input. */
+  private final int index;
+
+  private final int hash;
+
+  TableLineKey(DFA dfa, boolean row, int index) {
+    this.dfa = dfa;
+    this.row = row;
+    this.index = index;
+
+    int h = 1;
+    for (int k = 0; k < length(); k++) h = 31 * h + entry(k);
+    this.hash = h;
+  }
+
+  private int length() {
+    return row ? dfa.numInput() : dfa.numStates();
+  }
+
+  private int entry(int k) {
+    return row ? dfa.table(index, k) : dfa.table(k, index);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (!(o instanceof TableLineKey)) return false;
+    TableLineKey other = (TableLineKey) o;
+    if (hash != other.hash || dfa != other.dfa || row != other.row) return false;
+    for (int k = 0; k < length(); k++) {
+      if (entry(k) != other.entry(k)) return false;
+    }
+    return true;
+  }
+
+  @Override
+  public int hashCode() {
+    return hash;
+  }
+}
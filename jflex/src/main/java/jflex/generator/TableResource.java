@@ -0,0 +1,200 @@
+/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+ * JFlex 1.9.0-SNAPSHOT                                                    *
+ * Copyright (C) 1998-2018  Gerwin Klein <lsf@jflex.de>                    *
+ * All rights reserved.                                                    *
+ *                                                                         *
+ * License: BSD                                                            *
+ *                                                                         *
+ * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+package jflex.generator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import jflex.logging.Out;
+
+/**
+ * Collects the tables of a scanner into a binary resource, which the generated class reads in one
+ * go on first use, instead of unpacking them from string constants.
+ *
+ * <p>The resource is big-endian and starts with {@link #MAGIC} and the number of tables. Each table
+ * is stored as its length, its minimum value {@code min}, and the width {@code w} of its entries in
+ * bytes (1, 2, or 4), followed by runs of equal entries. A run of {@code count} entries {@code e}
+ * is stored as one unsigned byte {@code count} and the unsigned {@code w}-byte value {@code e -
+ * min}.
+ *
+ * @version JFlex 1.9.0-SNAPSHOT
+ */
+final class TableResource {
+
+  /** Marks the start of a table resource ("JFTB"). */
+  static final int MAGIC = 0x4A465442;
+
+  /** Maximum number of entries in one run. */
+  private static final int MAX_RUN = 0xFF;
+
+  /** Name of the generated holder class. */
+  static final String HOLDER = "ZzTables";
+
+  /** The tables, in order. */
+  private final List<int[]> tables = new ArrayList<>();
+
+  /**
+   * Adds a table to the resource.
+   *
+   * @param table the entries of the table
+   * @return the index of the table in the resource
+   */
+  int add(int[] table) {
+    tables.add(table);
+    return tables.size() - 1;
+  }
+
+  /**
+   * The number of tables added so far.
+   *
+   * @return number of tables
+   */
+  int size() {
+    return tables.size();
+  }
+
+  /**
+   * The width of the entries of a table in the resource.
+   *
+   * @param min the minimum entry of the table
+   * @param max the maximum entry of the table
+   * @return 1, 2, or 4 bytes
+   */
+  static int width(int min, int max) {
+    long range = (long) max - min;
+    if (range <= 0xFF) return 1;
+    if (range <= 0xFFFF) return 2;
+    return 4;
+  }
+
+  /**
+   * Encodes all tables in the binary format of the resource.
+   *
+   * @return the content of the resource
+   */
+  byte[] toByteArray() {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeInt(MAGIC);
+      out.writeInt(tables.size());
+      for (int[] table : tables) {
+        int min = 0;
+        int max = 0;
+        if (table.length > 0) {
+          min = Integer.MAX_VALUE;
+          max = Integer.MIN_VALUE;
+          for (int e : table) {
+            min = Math.min(min, e);
+            max = Math.max(max, e);
+          }
+        }
+        int width = width(min, max);
+        out.writeInt(table.length);
+        out.writeInt(min);
+        out.writeByte(width);
+        int i = 0;
+        while (i < table.length) {
+          int count = 1;
+          while (count < MAX_RUN && i + count < table.length && table[i + count] == table[i]) {
+            count++;
+          }
+          int v = table[i] - min;
+          out.writeByte(count);
+          if (width == 1) out.writeByte(v);
+          else if (width == 2) out.writeShort(v);
+          else out.writeInt(v);
+          i += count;
+        }
+      }
+    } catch (IOException e) {
+      // cannot happen for a ByteArrayOutputStream
+      throw new IllegalStateException(e);
+    }
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Emits the holder class that loads the tables from the resource on first use.
+   *
+   * @param resourceName the name of the resource, relative to the package of the scanner
+   * @param size the size of the resource in bytes
+   * @return the code of the holder class
+   */
+  String holder(String resourceName, int size) {
+    StringBuilder out = new StringBuilder();
+    println(out, "  /**");
+    println(out, "   * The tables of the scanner, read from resource " + resourceName);
+    println(out, "   * when first used.");
+    println(out, "   */");
+    println(out, "  private static final class " + HOLDER + " {");
+    println(out, "    static final int [][] TABLES = zzLoad();");
+    println(out, "");
+    println(out, "    private static int [][] zzLoad() {");
+    println(out, "      byte [] bytes = new byte[" + size + "];");
+    println(out, "      int length = 0;");
+    println(out, "      try (java.io.InputStream in =");
+    println(out, "          " + HOLDER + ".class.getResourceAsStream(\"" + resourceName + "\")) {");
+    println(out, "        if (in == null) {");
+    println(out, "          throw new Error(\"Resource " + resourceName + " not found\");");
+    println(out, "        }");
+    println(out, "        int n;");
+    println(out, "        while (length < bytes.length");
+    println(out, "               && (n = in.read(bytes, length, bytes.length - length)) >= 0) {");
+    println(out, "          length += n;");
+    println(out, "        }");
+    println(out, "      } catch (java.io.IOException e) {");
+    println(out, "        throw new Error(\"Cannot read resource " + resourceName + "\", e);");
+    println(out, "      }");
+    println(out, "      if (length < bytes.length || zzInt(bytes, 0) != " + MAGIC);
+    println(out, "          || zzInt(bytes, 4) != " + tables.size() + ") {");
+    println(out, "        throw new Error(\"Resource " + resourceName + " does not match\");");
+    println(out, "      }");
+    println(out, "      int [][] result = new int[" + tables.size() + "][];");
+    println(out, "      int p = 8;");
+    println(out, "      for (int t = 0; t < result.length; t++) {");
+    println(out, "        int [] table = new int[zzInt(bytes, p)];");
+    println(out, "        int min = zzInt(bytes, p + 4);");
+    println(out, "        int width = bytes[p + 8];");
+    println(out, "        p += 9;");
+    println(out, "        int i = 0;");
+    println(out, "        while (i < table.length) {");
+    println(out, "          int count = bytes[p++] & 0xFF;");
+    println(out, "          int value;");
+    println(out, "          if (width == 1) {");
+    println(out, "            value = bytes[p] & 0xFF;");
+    println(out, "          } else if (width == 2) {");
+    println(out, "            value = (bytes[p] & 0xFF) << 8 | bytes[p + 1] & 0xFF;");
+    println(out, "          } else {");
+    println(out, "            value = zzInt(bytes, p);");
+    println(out, "          }");
+    println(out, "          p += width;");
+    println(out, "          value += min;");
+    println(out, "          do table[i++] = value; while (--count > 0);");
+    println(out, "        }");
+    println(out, "        result[t] = table;");
+    println(out, "      }");
+    println(out, "      return result;");
+    println(out, "    }");
+    println(out, "");
+    println(out, "    private static int zzInt(byte [] bytes, int p) {");
+    println(out, "      return bytes[p] << 24 | (bytes[p + 1] & 0xFF) << 16");
+    println(out, "          | (bytes[p + 2] & 0xFF) << 8 | bytes[p + 3] & 0xFF;");
+    println(out, "    }");
+    println(out, "  }");
+    return out.toString();
+  }
+
+  private static void println(StringBuilder out, String line) {
+    out.append(line);
+    out.append(Out.NL);
+  }
+}
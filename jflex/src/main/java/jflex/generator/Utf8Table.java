@@ -0,0 +1,170 @@
+/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+ * JFlex 1.9.0-SNAPSHOT                                                    *
+ * Copyright (C) 1998-2018  Gerwin Klein <lsf@jflex.de>                    *
+ * All rights reserved.                                                    *
+ *                                                                         *
+ * License: BSD                                                            *
+ *                                                                         *
+ * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+package jflex.generator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import jflex.core.unicode.CMapBlock;
+
+/**
+ * Compiles the character map of a scanner into a byte-level automaton on UTF-8 input.
+ *
+ * <p>The automaton is a flat table of nodes with 64 entries each. Nodes 0 to 3 form the lead table,
+ * indexed by the first byte of a character. All other nodes are indexed by the low 6 bits of a
+ * continuation byte. An entry {@code e} is
+ *
+ * <ul>
+ *   <li>{@code e < 0}: the end of a character in character class {@code ~e},
+ *   <li>{@code e > 0}: a reference to node {@code e}, i.e. to the entries starting at {@code e <<
+ *       6}, which must be followed by another continuation byte,
+ *   <li>{@code e == 0}: the continuation byte is not valid at this point.
+ * </ul>
+ *
+ * <p>Ill-formed input is mapped to the class of U+FFFD: invalid lead bytes as one character,
+ * truncated or invalid sequences as one character up to (not including) the offending byte. This is
+ * the "maximal subpart" practice recommended by the Unicode standard.
+ *
+ * <p>Equal nodes are shared, so the table is small for the usual specifications that distinguish
+ * only few characters outside ASCII.
+ *
+ * @version JFlex 1.9.0-SNAPSHOT
+ */
+final class Utf8Table {
+
+  /** Number of entries per node. */
+  static final int NODE_SIZE = 64;
+
+  /** Number of nodes of the lead table. */
+  private static final int LEAD_NODES = 4;
+
+  /** The (column mapped) top level of the character map. */
+  private final int[] top;
+
+  /** The (column mapped) blocks of the character map. */
+  private final int[] blocks;
+
+  /** The nodes of the automaton, in order. */
+  private final List<int[]> nodes = new ArrayList<>();
+
+  /** Index of each node in {@link #nodes}, for sharing. */
+  private final Map<IntArrayKey, Integer> nodeIndex = new HashMap<>();
+
+  /**
+   * Builds the automaton for a two-level character map.
+   *
+   * @param top the top level table of {@code CharClasses.getTables()} for the full Unicode range
+   * @param blocks the second level blocks of {@code CharClasses.getTables()}, with the column
+   *     translation already applied
+   */
+  Utf8Table(int[] top, int[] blocks) {
+    this.top = top;
+    this.blocks = blocks;
+
+    int[] lead = new int[LEAD_NODES * NODE_SIZE];
+    int invalid = classEntry(0xFFFD);
+    for (int b = 0; b < lead.length; b++) {
+      if (b < 0x80) {
+        lead[b] = classEntry(b);
+      } else if (b >= 0xC2 && b <= 0xDF) {
+        lead[b] = leaf((b & 0x1F) << 6);
+      } else if (b >= 0xE0 && b <= 0xEF) {
+        lead[b] = threeByte(b);
+      } else if (b >= 0xF0 && b <= 0xF4) {
+        lead[b] = fourByte(b);
+      } else {
+        lead[b] = invalid;
+      }
+    }
+    for (int i = 0; i < LEAD_NODES; i++) {
+      nodes.add(i, Arrays.copyOfRange(lead, i * NODE_SIZE, (i + 1) * NODE_SIZE));
+    }
+  }
+
+  /**
+   * The automaton as one array.
+   *
+   * @return the entries of all nodes
+   */
+  int[] table() {
+    int[] result = new int[nodes.size() * NODE_SIZE];
+    for (int i = 0; i < nodes.size(); i++) {
+      System.arraycopy(nodes.get(i), 0, result, i * NODE_SIZE, NODE_SIZE);
+    }
+    return result;
+  }
+
+  /**
+   * The entry for ill-formed input.
+   *
+   * @return the entry for U+FFFD
+   */
+  int invalidEntry() {
+    return classEntry(0xFFFD);
+  }
+
+  private int classEntry(int codePoint) {
+    int offset = codePoint & (CMapBlock.BLOCK_SIZE - 1);
+    return ~blocks[top[codePoint >> CMapBlock.BLOCK_BITS] | offset];
+  }
+
+  /** Node for the last continuation byte of the 64 code points starting at {@code codePoint}. */
+  private int leaf(int codePoint) {
+    int[] node = new int[NODE_SIZE];
+    for (int i = 0; i < NODE_SIZE; i++) {
+      node[i] = classEntry(codePoint + i);
+    }
+    return intern(node);
+  }
+
+  /** Node for the second byte after lead byte {@code lead} of a three byte sequence. */
+  private int threeByte(int lead) {
+    int[] node = new int[NODE_SIZE];
+    for (int i = 0; i < NODE_SIZE; i++) {
+      int codePoint = (lead & 0x0F) << 12 | i << 6;
+      // overlong encodings and surrogates are invalid
+      boolean valid = codePoint >= 0x800 && (codePoint < 0xD800 || codePoint > 0xDFFF);
+      node[i] = valid ? leaf(codePoint) : 0;
+    }
+    return intern(node);
+  }
+
+  /** Node for the second byte after lead byte {@code lead} of a four byte sequence. */
+  private int fourByte(int lead) {
+    int[] node = new int[NODE_SIZE];
+    for (int i = 0; i < NODE_SIZE; i++) {
+      int codePoint = (lead & 0x07) << 18 | i << 12;
+      // overlong encodings and code points above U+10FFFF are invalid
+      if (codePoint >= 0x10000 && codePoint <= 0x10FFFF) {
+        int[] third = new int[NODE_SIZE];
+        for (int j = 0; j < NODE_SIZE; j++) {
+          third[j] = leaf(codePoint | j << 6);
+        }
+        node[i] = intern(third);
+      }
+    }
+    return intern(node);
+  }
+
+  /** Returns the reference to the node equal to {@code node}, adding it if necessary. */
+  private int intern(int[] node) {
+    IntArrayKey key = new IntArrayKey(node);
+    Integer index = nodeIndex.get(key);
+    if (index == null) {
+      // the lead table is added last, but takes the first nodes
+      index = LEAD_NODES + nodes.size();
+      nodes.add(node);
+      nodeIndex.put(key, index);
+    }
+    return index;
+  }
+}
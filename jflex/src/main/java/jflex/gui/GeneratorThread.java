@@ -14,7 +14,6 @@ import java.util.Objects;
 import jflex.core.OptionUtils;
 import jflex.exceptions.GeneratorException;
 import jflex.generator.LexGenerator;
-import jflex.l10n.ErrorMessages;
 import jflex.logging.Out;
 
 /**
@@ -25,9 +24,6 @@ import jflex.logging.Out;
  */
 public class GeneratorThread extends Thread {
 
-  /** there must be at most one instance of this Thread running */
-  private static volatile boolean running = false;
-
   /** input file setting from GUI */
   String inputFile;
 
@@ -50,28 +46,23 @@ public class GeneratorThread extends Thread {
     this.outputDir = outputDir;
   }
 
-  /** Runs the generator thread. Only one instance of it can run at any time. */
+  /**
+   * Runs the generator thread. The main frame does not start another generator thread before this
+   * one has finished.
+   */
   @Override
   public void run() {
-    if (running) {
-      Out.error(ErrorMessages.ALREADY_RUNNING);
-      parent.generationFinished(false);
-    } else {
-      running = true;
-      setPriority(MIN_PRIORITY);
-      try {
-        if (!Objects.equals(outputDir, "")) {
-          OptionUtils.setDir(outputDir);
-        }
-        new LexGenerator(new File(inputFile)).generate();
-        Out.statistics();
-        parent.generationFinished(true);
-      } catch (GeneratorException e) {
-        Out.statistics();
-        parent.generationFinished(false);
-      } finally {
-        running = false;
+    setPriority(MIN_PRIORITY);
+    try {
+      if (!Objects.equals(outputDir, "")) {
+        OptionUtils.setDir(outputDir);
       }
+      new LexGenerator(new File(inputFile)).generate();
+      Out.statistics();
+      parent.generationFinished(true);
+    } catch (GeneratorException e) {
+      Out.statistics();
+      parent.generationFinished(false);
     }
   }
 }
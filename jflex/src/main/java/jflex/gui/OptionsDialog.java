@@ -130,7 +130,7 @@ public class OptionsDialog extends Dialog {
         new ItemListener() {
           @Override
           public void itemStateChanged(ItemEvent e) {
-            Options.verbose = verbose.getState();
+            Options.get().verbose = verbose.getState();
           }
         });
 
@@ -138,7 +138,7 @@ public class OptionsDialog extends Dialog {
         new ItemListener() {
           @Override
           public void itemStateChanged(ItemEvent e) {
-            Options.dump = dump.getState();
+            Options.get().dump = dump.getState();
           }
         });
 
@@ -146,7 +146,7 @@ public class OptionsDialog extends Dialog {
         new ItemListener() {
           @Override
           public void itemStateChanged(ItemEvent e) {
-            Options.jlex = jlex.getState();
+            Options.get().jlex = jlex.getState();
             // JLex compatibility implies that dot (.) metachar matches [^\n]
             legacy_dot.setState(false);
             legacy_dot.setEnabled(!jlex.getState());
@@ -157,7 +157,7 @@ public class OptionsDialog extends Dialog {
         new ItemListener() {
           @Override
           public void itemStateChanged(ItemEvent e) {
-            Options.no_minimize = no_minimize.getState();
+            Options.get().no_minimize = no_minimize.getState();
           }
         });
 
@@ -165,7 +165,7 @@ public class OptionsDialog extends Dialog {
         new ItemListener() {
           @Override
           public void itemStateChanged(ItemEvent e) {
-            Options.no_backup = no_backup.getState();
+            Options.get().no_backup = no_backup.getState();
           }
         });
 
@@ -173,7 +173,7 @@ public class OptionsDialog extends Dialog {
         new ItemListener() {
           @Override
           public void itemStateChanged(ItemEvent e) {
-            Options.dot = dot.getState();
+            Options.get().dot = dot.getState();
           }
         });
 
@@ -181,7 +181,7 @@ public class OptionsDialog extends Dialog {
         new ItemListener() {
           @Override
           public void itemStateChanged(ItemEvent e) {
-            Options.legacy_dot = legacy_dot.getState();
+            Options.get().legacy_dot = legacy_dot.getState();
           }
         });
 
@@ -189,7 +189,7 @@ public class OptionsDialog extends Dialog {
         new ItemListener() {
           @Override
           public void itemStateChanged(ItemEvent e) {
-            Options.time = time.getState();
+            Options.get().time = time.getState();
           }
         });
 
@@ -238,17 +238,17 @@ public class OptionsDialog extends Dialog {
   }
 
   private void updateState() {
-    legacy_dot.setState(Options.legacy_dot);
+    legacy_dot.setState(Options.get().legacy_dot);
 
-    dump.setState(Options.dump);
-    verbose.setState(Options.verbose);
-    time.setState(Options.time);
+    dump.setState(Options.get().dump);
+    verbose.setState(Options.get().verbose);
+    time.setState(Options.get().time);
 
-    no_minimize.setState(Options.no_minimize);
-    no_backup.setState(Options.no_backup);
+    no_minimize.setState(Options.get().no_minimize);
+    no_backup.setState(Options.get().no_backup);
 
-    jlex.setState(Options.jlex);
-    dot.setState(Options.dot);
+    jlex.setState(Options.get().jlex);
+    dot.setState(Options.get().dot);
   }
 
   private void setDefaults() {
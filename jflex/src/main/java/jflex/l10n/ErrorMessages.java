@@ -114,8 +114,6 @@ public class ErrorMessages {
   public static ErrorMessage QUIL_CUPSYM = new ErrorMessage("QUIL_CUPSYM");
   /** Constant {@code CUPSYM_AFTER_CUP} */
   public static ErrorMessage CUPSYM_AFTER_CUP = new ErrorMessage("CUPSYM_AFTER_CUP");
-  /** Constant {@code ALREADY_RUNNING} */
-  public static ErrorMessage ALREADY_RUNNING = new ErrorMessage("ALREADY_RUNNING");
   /** Constant {@code CANNOT_READ_SKEL} */
   public static ErrorMessage CANNOT_READ_SKEL = new ErrorMessage("CANNOT_READ_SKEL");
   /** Constant {@code READING_SKEL} */
@@ -192,8 +190,40 @@ public class ErrorMessages {
   public static ErrorMessage CODEPOINT_OUT_OF_RANGE = new ErrorMessage("CODEPOINT_OUT_OF_RANGE");
   /** Constant {@code NO_ENCODING} */
   public static ErrorMessage NO_ENCODING = new ErrorMessage("NO_ENCODING");
+  /** Constant {@code NO_THREADS} */
+  public static ErrorMessage NO_THREADS = new ErrorMessage("NO_THREADS");
+  /** Constant {@code NO_JOBS} */
+  public static ErrorMessage NO_JOBS = new ErrorMessage("NO_JOBS");
   /** Constant {@code CHARSET_NOT_SUPPORTED} */
   public static ErrorMessage CHARSET_NOT_SUPPORTED = new ErrorMessage("CHARSET_NOT_SUPPORTED");
+  /** Constant {@code UNKNOWN_CODEGEN} */
+  public static ErrorMessage UNKNOWN_CODEGEN = new ErrorMessage("UNKNOWN_CODEGEN");
+  /** Constant {@code NO_CMAP_BITS} */
+  public static ErrorMessage NO_CMAP_BITS = new ErrorMessage("NO_CMAP_BITS");
+  /** Constant {@code DIRECT_TOO_LARGE} */
+  public static ErrorMessage DIRECT_TOO_LARGE = new ErrorMessage("DIRECT_TOO_LARGE");
+  /** Constant {@code DIRECT_NOT_COMPILED} */
+  public static ErrorMessage DIRECT_NOT_COMPILED = new ErrorMessage("DIRECT_NOT_COMPILED");
+  /** Constant {@code DIRECT_METHOD} */
+  public static ErrorMessage DIRECT_METHOD = new ErrorMessage("DIRECT_METHOD");
+  /** Constant {@code UTF8_NOT_UNICODE} */
+  public static ErrorMessage UTF8_NOT_UNICODE = new ErrorMessage("UTF8_NOT_UNICODE");
+  /** Constant {@code UTF8_GENERAL_LOOK} */
+  public static ErrorMessage UTF8_GENERAL_LOOK = new ErrorMessage("UTF8_GENERAL_LOOK");
+  /** Constant {@code BATCH_NOT_INT} */
+  public static ErrorMessage BATCH_NOT_INT = new ErrorMessage("BATCH_NOT_INT");
+  /** Constant {@code BATCH_ACTION} */
+  public static ErrorMessage BATCH_ACTION = new ErrorMessage("BATCH_ACTION");
+  /** Constant {@code PUSH_INCOMPATIBLE} */
+  public static ErrorMessage PUSH_INCOMPATIBLE = new ErrorMessage("PUSH_INCOMPATIBLE");
+
+  /** Constant {@code PUSH_TYPE} */
+  public static ErrorMessage PUSH_TYPE = new ErrorMessage("PUSH_TYPE");
+  /** Constant {@code PARALLEL_INCOMPATIBLE} */
+  public static ErrorMessage PARALLEL_INCOMPATIBLE = new ErrorMessage("PARALLEL_INCOMPATIBLE");
+  /** Constant {@code INCREMENTAL_INCOMPATIBLE} */
+  public static ErrorMessage INCREMENTAL_INCOMPATIBLE =
+      new ErrorMessage("INCREMENTAL_INCOMPATIBLE");
 
   /* not final static, because initializing here seems too early
    * for OS/2 JDK 1.1.8. See bug 1065521.
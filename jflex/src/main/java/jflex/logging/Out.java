@@ -42,14 +42,81 @@ public final class Out {
 
   private Out() {}
 
-  /** count total warnings */
-  private static int warnings;
+  /** Output device and message counters of one or more generator runs. */
+  public static final class State {
+    /** count total warnings */
+    private int warnings;
+
+    /** count total errors */
+    private int errors;
+
+    /** output device */
+    private StdOutWriter out;
+
+    /**
+     * Creates a state with zero counters.
+     *
+     * @param out the output device
+     */
+    public State(StdOutWriter out) {
+      this.out = out;
+    }
+
+    /** @return the number of warnings since the counters were reset */
+    public int getWarnings() {
+      return warnings;
+    }
+
+    /** @return the number of errors since the counters were reset */
+    public int getErrors() {
+      return errors;
+    }
+  }
 
-  /** count total errors */
-  private static int errors;
+  /** The state of all threads that are not bound to another state */
+  private static final State global = new State(new StdOutWriter());
 
-  /** output device */
-  private static StdOutWriter out = new StdOutWriter();
+  /** The state bound to the current thread, if any */
+  private static final ThreadLocal<State> bound = new ThreadLocal<>();
+
+  /**
+   * Returns the state that output of the current thread goes to. This is the global state, unless
+   * another state is bound to the thread with {@link #bind(State)}.
+   *
+   * @return the current state
+   */
+  public static State state() {
+    State state = bound.get();
+    return state == null ? global : state;
+  }
+
+  /**
+   * Binds a state to the current thread, so that all output of this thread goes to it.
+   *
+   * @param state the state to bind, or {@code null} to use the global state again
+   * @return the state that was bound before, or {@code null} if there was none
+   */
+  public static State bind(State state) {
+    State previous = bound.get();
+    if (state == null) bound.remove();
+    else bound.set(state);
+    return previous;
+  }
+
+  /**
+   * Reports a run that had its own state: writes its messages to the output device and adds its
+   * counters to the current ones.
+   *
+   * @param messages the messages of the run
+   * @param run the state of the run
+   */
+  public static void report(String messages, State run) {
+    State state = state();
+    state.out.print(messages);
+    state.out.flush();
+    state.warnings += run.warnings;
+    state.errors += run.errors;
+  }
 
   /**
    * Switches to GUI mode if {@code text</code> is not <code>null}
@@ -57,7 +124,7 @@ public final class Out {
    * @param text the message TextArea of the JFlex GUI
    */
   public static void setGUIMode(TextArea text) {
-    out.setGUIMode(text);
+    state().out.setGUIMode(text);
   }
 
   /**
@@ -66,8 +133,9 @@ public final class Out {
    * @param stream the new output stream
    */
   public static void setOutputStream(OutputStream stream) {
-    out = new StdOutWriter(stream);
-    out.setGUIMode(null);
+    State state = state();
+    state.out = new StdOutWriter(stream);
+    state.out.setGUIMode(null);
   }
 
   /**
@@ -77,9 +145,9 @@ public final class Out {
    * @param time elapsed time
    */
   public static void time(ErrorMessages.ErrorMessage message, Timer time) {
-    if (Options.time) {
+    if (Options.get().time) {
       String msg = ErrorMessages.get(message, time.toString());
-      out.println(msg);
+      state().out.println(msg);
     }
   }
 
@@ -89,8 +157,8 @@ public final class Out {
    * @param message the message to be printed
    */
   public static void time(String message) {
-    if (Options.time) {
-      out.println(message);
+    if (Options.get().time) {
+      state().out.println(message);
     }
   }
 
@@ -100,8 +168,8 @@ public final class Out {
    * @param message the message to be printed
    */
   public static void println(String message) {
-    if (Options.verbose) {
-      out.println(message);
+    if (Options.get().verbose) {
+      state().out.println(message);
     }
   }
 
@@ -112,8 +180,8 @@ public final class Out {
    * @param data data to be inserted into the message
    */
   public static void println(ErrorMessages.ErrorMessage message, String data) {
-    if (Options.verbose) {
-      out.println(ErrorMessages.get(message, data));
+    if (Options.get().verbose) {
+      state().out.println(ErrorMessages.get(message, data));
     }
   }
 
@@ -124,8 +192,8 @@ public final class Out {
    * @param data data to be inserted into the message
    */
   public static void println(ErrorMessages.ErrorMessage message, int data) {
-    if (Options.verbose) {
-      out.println(ErrorMessages.get(message, data));
+    if (Options.get().verbose) {
+      state().out.println(ErrorMessages.get(message, data));
     }
   }
 
@@ -135,8 +203,8 @@ public final class Out {
    * @param message the message to be printed
    */
   public static void print(String message) {
-    if (Options.verbose) {
-      out.print(message);
+    if (Options.get().verbose) {
+      state().out.print(message);
     }
   }
 
@@ -161,8 +229,8 @@ public final class Out {
    * @param message the message to be printed
    */
   public static void dump(String message) {
-    if (Options.dump) {
-      out.println(message);
+    if (Options.get().dump) {
+      state().out.println(message);
     }
   }
 
@@ -172,23 +240,24 @@ public final class Out {
    * @param message the message to be printed
    */
   public static void err(String message) {
-    out.println(message);
+    state().out.println(message);
   }
 
   /** throws a GeneratorException if there are any errors recorded */
   public static void checkErrors() {
-    if (errors > 0) {
+    if (state().errors > 0) {
       throw new GeneratorException();
     }
   }
 
   /** print error and warning statistics */
   public static void statistics() {
-    StringBuilder line = new StringBuilder(errors + " error");
-    if (errors != 1) line.append("s");
+    State state = state();
+    StringBuilder line = new StringBuilder(state.errors + " error");
+    if (state.errors != 1) line.append("s");
 
-    line.append(", ").append(warnings).append(" warning");
-    if (warnings != 1) line.append("s");
+    line.append(", ").append(state.warnings).append(" warning");
+    if (state.warnings != 1) line.append("s");
 
     line.append(".");
     err(line.toString());
@@ -196,8 +265,9 @@ public final class Out {
 
   /** reset error and warning counters */
   public static void resetCounters() {
-    errors = 0;
-    warnings = 0;
+    State state = state();
+    state.errors = 0;
+    state.warnings = 0;
   }
 
   /**
@@ -206,7 +276,7 @@ public final class Out {
    * @param message the warning message
    */
   public static void warning(String message) {
-    warnings++;
+    state().warnings++;
 
     err(NL + "Warning : " + message);
   }
@@ -229,7 +299,7 @@ public final class Out {
    * @see ErrorMessages
    */
   public static void warning(ErrorMessages.ErrorMessage message, int line) {
-    warnings++;
+    state().warnings++;
 
     String msg = NL + "Warning";
     if (line > 0) msg = msg + " in line " + (line + 1);
@@ -257,7 +327,7 @@ public final class Out {
       err(msg);
     }
 
-    warnings++;
+    state().warnings++;
 
     if (line >= 0) {
       if (column >= 0) showPosition(file, line, column);
@@ -271,7 +341,7 @@ public final class Out {
    * @param message the message to print
    */
   public static void error(String message) {
-    errors++;
+    state().errors++;
     err(NL + message);
   }
 
@@ -282,7 +352,7 @@ public final class Out {
    * @see ErrorMessages
    */
   public static void error(ErrorMessages.ErrorMessage message) {
-    errors++;
+    state().errors++;
     err(NL + "Error: " + ErrorMessages.get(message));
   }
 
@@ -294,7 +364,7 @@ public final class Out {
    * @see ErrorMessages
    */
   public static void error(ErrorMessages.ErrorMessage message, String data) {
-    errors++;
+    state().errors++;
     err(NL + "Error: " + ErrorMessages.get(message, data));
   }
 
@@ -305,7 +375,7 @@ public final class Out {
    * @param file the file it occurred for
    */
   public static void error(ErrorMessages.ErrorMessage message, File file) {
-    errors++;
+    state().errors++;
     err(NL + "Error: " + ErrorMessages.get(message) + " (" + file + ")");
   }
 
@@ -329,7 +399,7 @@ public final class Out {
       err(msg);
     }
 
-    errors++;
+    state().errors++;
 
     if (line >= 0) {
       if (column >= 0) showPosition(file, line, column);
@@ -385,7 +455,7 @@ public final class Out {
    * @throws IOException if any error occurs
    */
   private static String getLine(File file, int line) throws IOException {
-    BufferedReader reader = Files.newBufferedReader(file.toPath(), Options.encoding);
+    BufferedReader reader = Files.newBufferedReader(file.toPath(), Options.get().encoding);
 
     String msg = "";
 
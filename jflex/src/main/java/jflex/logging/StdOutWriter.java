@@ -14,6 +14,7 @@ import static jflex.logging.Out.NL;
 import java.awt.TextArea;
 import java.io.OutputStream;
 import java.io.PrintWriter;
+import java.io.Writer;
 
 /**
  * Convenience class for JFlex stdout, redirects output to a TextArea if in GUI mode.
@@ -49,6 +50,15 @@ public final class StdOutWriter extends PrintWriter {
     super(out, true);
   }
 
+  /**
+   * A StdOutWriter, attached to the specified writer, no gui mode
+   *
+   * @param out a {@link java.io.Writer} object.
+   */
+  public StdOutWriter(Writer out) {
+    super(out, true);
+  }
+
   /**
    * Set the TextArea to write text to. Will continue to write to System.out if text is <code>null
    * </code>.
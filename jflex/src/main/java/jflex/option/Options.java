@@ -13,9 +13,10 @@ import java.io.File;
 import java.nio.charset.Charset;
 
 /**
- * Collects all global JFlex options.
+ * Collects all JFlex options.
  *
- * <p>Can be set from command line parser, ant task, gui, etc.
+ * <p>Can be set from command line parser, ant task, gui, etc. The static accessors work on the
+ * options of the current thread, see {@link #get()}.
  *
  * @see jflex.core.OptionUtils
  * @author Gerwin Klein
@@ -23,45 +24,101 @@ import java.nio.charset.Charset;
  */
 public class Options {
 
+  /** The options of all threads that are not bound to other options */
+  private static final Options global = new Options();
+
+  /** The options bound to the current thread, if any */
+  private static final ThreadLocal<Options> bound = new ThreadLocal<>();
+
   /** output directory */
-  public static File directory;
+  public File directory;
   /**
    * The root source directory.
    *
    * <p>In a maven project, this is the directory that contains {@code src} and {@code target}.
    */
-  private static File rootDirectory;
+  private File rootDirectory;
   /** strict JLex compatibility */
-  public static boolean jlex;
+  public boolean jlex;
   /** don't run minimization algorithm if this is true */
-  public static boolean no_minimize;
+  public boolean no_minimize;
   /** don't write backup files if this is true */
-  public static boolean no_backup;
+  public boolean no_backup;
   /** If false, only error/warning output will be generated */
-  public static boolean verbose = true;
+  public boolean verbose = true;
   /** Whether to warn about unused macros. */
-  public static boolean unused_warning;
+  public boolean unused_warning;
   /** If true, progress dots will be printed */
-  public static boolean progress;
+  public boolean progress;
   /** If true, jflex will print time statistics about the generation process */
-  public static boolean time;
+  public boolean time;
   /** If true, jflex will write graphviz .dot files for generated automata */
-  public static boolean dot;
+  public boolean dot;
   /** If true, you will be flooded with information (e.g. dfa tables). */
-  public static boolean dump;
+  public boolean dump;
   /**
    * If true, dot (.) metachar matches [^\n] instead of [^\r\n\u000B\u000C\u0085\u2028\u2029]|"\r\n"
    */
-  public static boolean legacy_dot;
+  public boolean legacy_dot;
   /** The encoding to use for input and output files. */
-  public static Charset encoding;
+  public Charset encoding;
+  /** Number of threads for the NFA to DFA conversion. */
+  public int threads = 1;
+  /** Number of specifications that are generated in parallel. */
+  public int jobs = 1;
+
+  /** Creates options with the initial values of the fields. */
+  public Options() {}
 
-  /** Prevent instantiation of static-only calss */
-  // (to be changed to instances in thread-safety refactor)
-  private Options() {}
+  /**
+   * Creates a copy of other options.
+   *
+   * @param other the options to copy
+   */
+  public Options(Options other) {
+    directory = other.directory;
+    rootDirectory = other.rootDirectory;
+    jlex = other.jlex;
+    no_minimize = other.no_minimize;
+    no_backup = other.no_backup;
+    verbose = other.verbose;
+    unused_warning = other.unused_warning;
+    progress = other.progress;
+    time = other.time;
+    dot = other.dot;
+    dump = other.dump;
+    legacy_dot = other.legacy_dot;
+    encoding = other.encoding;
+    threads = other.threads;
+    jobs = other.jobs;
+  }
+
+  /**
+   * Returns the options in effect for the current thread. These are the global options, unless
+   * other options are bound to the thread with {@link #bind(Options)}.
+   *
+   * @return the current options
+   */
+  public static Options get() {
+    Options options = bound.get();
+    return options == null ? global : options;
+  }
+
+  /**
+   * Binds options to the current thread, so that {@link #get()} returns them on this thread.
+   *
+   * @param options the options to bind, or {@code null} to use the global options again
+   * @return the options that were bound before, or {@code null} if there were none
+   */
+  public static Options bind(Options options) {
+    Options previous = bound.get();
+    if (options == null) bound.remove();
+    else bound.set(options);
+    return previous;
+  }
 
   public static File getDir() {
-    return directory;
+    return get().directory;
   }
 
   /**
@@ -69,14 +126,14 @@ public class Options {
    * property {@code user.dir}) by default.
    */
   public static File getRootDirectory() {
-    return rootDirectory;
+    return get().rootDirectory;
   }
 
   public static void setRootDirectory(File rootDir) {
-    rootDirectory = rootDir;
+    get().rootDirectory = rootDir;
   }
 
   public static void resetRootDirectory() {
-    rootDirectory = new File("");
+    get().rootDirectory = new File("");
   }
 }
@@ -43,11 +43,32 @@ public class Skeleton {
   /** location of default skeleton */
   private static final String DEFAULT_LOC = "jflex/skeleton.default";
 
+  /** location of the skeleton for scanners on UTF-8 encoded bytes */
+  private static final String UTF8_LOC = "jflex/skeleton.utf8";
+
+  /** location of the skeleton for push scanners */
+  private static final String PUSH_LOC = "jflex/skeleton.push";
+
+  /** location of the code for {@code %parallel} */
+  private static final String PARALLEL_LOC = "jflex/skeleton.parallel";
+
+  /** location of the code for {@code %incremental} */
+  private static final String INCREMENTAL_LOC = "jflex/skeleton.incremental";
+
   /** expected number of sections in the skeleton file */
   private static final int size = 21;
 
-  /** The skeleton */
-  public static String[] line;
+  /** number of sections in the code for {@code %parallel} */
+  private static final int PARALLEL_SIZE = 9;
+
+  /** number of sections in the code for {@code %incremental} */
+  private static final int INCREMENTAL_SIZE = 36;
+
+  /** The skeleton of all threads that are not bound to another skeleton */
+  private static volatile String[] global;
+
+  /** The skeleton bound to the current thread, if any */
+  private static final ThreadLocal<String[]> bound = new ThreadLocal<>();
 
   static {
     readDefault();
@@ -61,18 +82,54 @@ public class Skeleton {
   /** The writer to write the skeleton-parts to */
   private final PrintWriter out;
 
+  /** The skeleton parts this instance emits */
+  private final String[] parts;
+
   /**
    * Creates a new skeleton (iterator) instance.
    *
    * @param out the writer to write the skeleton-parts to
    */
   public Skeleton(PrintWriter out) {
+    this(out, get());
+  }
+
+  /**
+   * Creates a new skeleton (iterator) instance for the given skeleton.
+   *
+   * @param out the writer to write the skeleton-parts to
+   * @param parts the skeleton, e.g. from {@link #readUtf8(boolean)}
+   */
+  public Skeleton(PrintWriter out, String[] parts) {
     this.out = out;
+    this.parts = parts;
   }
 
   /** Emits the next part of the skeleton */
   public void emitNext() {
-    out.print(line[pos++]);
+    out.print(parts[pos++]);
+  }
+
+  /**
+   * Emits the next part of the skeleton, or skips it, e.g. code that is only needed with an option.
+   *
+   * @param emit whether to emit the part
+   */
+  public void emitNextIf(boolean emit) {
+    if (emit) out.print(parts[pos]);
+    pos++;
+  }
+
+  /**
+   * Creates an iterator over the same skeleton that continues at the current part, e.g. to emit a
+   * section of the skeleton a second time.
+   *
+   * @return a new iterator at the current position of this one
+   */
+  public Skeleton fork() {
+    Skeleton copy = new Skeleton(out, parts);
+    copy.pos = pos;
+    return copy;
   }
 
   /**
@@ -81,9 +138,42 @@ public class Skeleton {
    * <p>Replaces all occurrences of " public " in the skeleton with " private ".
    */
   public static void makePrivate() {
+    String[] line = get().clone();
     for (int i = 0; i < line.length; i++) {
       line[i] = replace(" public ", " private ", line[i]);
     }
+    set(line);
+  }
+
+  /**
+   * Returns the skeleton of the current thread. This is the global skeleton, unless another
+   * skeleton is bound to the thread with {@link #bind(String[])}.
+   *
+   * @return the skeleton sections
+   */
+  public static String[] get() {
+    String[] line = bound.get();
+    return line == null ? global : line;
+  }
+
+  /** Replaces the skeleton of the current thread. */
+  private static void set(String[] line) {
+    if (bound.get() == null) global = line;
+    else bound.set(line);
+  }
+
+  /**
+   * Binds a skeleton to the current thread. Reading a skeleton on this thread then replaces the
+   * bound skeleton instead of the global one.
+   *
+   * @param line the skeleton sections to bind, or {@code null} to use the global skeleton again
+   * @return the skeleton that was bound before, or {@code null} if there was none
+   */
+  public static String[] bind(String[] line) {
+    String[] previous = bound.get();
+    if (line == null) bound.remove();
+    else bound.set(line);
+    return previous;
   }
 
   /**
@@ -118,6 +208,19 @@ public class Skeleton {
    * @throws GeneratorException if the number of skeleton sections does not match
    */
   public static void readSkel(BufferedReader reader) throws IOException {
+    set(parseSkel(reader, size));
+  }
+
+  /**
+   * Splits a skeleton into its sections.
+   *
+   * @param reader the reader to read from (must be != null)
+   * @param sections the expected number of sections
+   * @return the sections of the skeleton
+   * @throws java.io.IOException if an IO error occurs
+   * @throws GeneratorException if the number of skeleton sections does not match
+   */
+  private static String[] parseSkel(BufferedReader reader, int sections) throws IOException {
     List<String> lines = new ArrayList<>();
     StringBuilder section = new StringBuilder();
 
@@ -134,13 +237,12 @@ public class Skeleton {
 
     if (section.length() > 0) lines.add(section.toString());
 
-    if (lines.size() != size) {
+    if (lines.size() != sections) {
       Out.error(ErrorMessages.WRONG_SKELETON);
       throw new GeneratorException();
     }
 
-    line = new String[size];
-    for (int i = 0; i < size; i++) line[i] = lines.get(i);
+    return lines.toArray(new String[sections]);
   }
 
   /**
@@ -170,6 +272,66 @@ public class Skeleton {
 
   /** (Re)load the default skeleton. Looks in the current system class path. */
   public static void readDefault() {
+    set(readResource(DEFAULT_LOC, size));
+  }
+
+  /**
+   * Loads the skeleton for scanners that read UTF-8 encoded bytes ({@code %utf8}). This skeleton is
+   * not affected by {@link #readSkelFile(File)} and {@link #makePrivate()}.
+   *
+   * @param makePrivate whether to replace " public " by " private " as in {@link #makePrivate()}
+   * @return the skeleton sections, to be used with {@link #Skeleton(PrintWriter, String[])}
+   */
+  public static String[] readUtf8(boolean makePrivate) {
+    return readBuiltin(UTF8_LOC, makePrivate);
+  }
+
+  /**
+   * Loads the skeleton for push scanners ({@code %push}), which are fed their input instead of
+   * reading it from a {@code Reader}. This skeleton is not affected by {@link #readSkelFile(File)}
+   * and {@link #makePrivate()}.
+   *
+   * @param makePrivate whether to replace " public " by " private " as in {@link #makePrivate()}
+   * @return the skeleton sections, to be used with {@link #Skeleton(PrintWriter, String[])}
+   */
+  public static String[] readPush(boolean makePrivate) {
+    return readBuiltin(PUSH_LOC, makePrivate);
+  }
+
+  /**
+   * Loads the code for scanning chunks of the input concurrently ({@code %parallel}). The generator
+   * emits the parts that depend on the specification between its sections.
+   *
+   * @return the sections, to be used with {@link #Skeleton(PrintWriter, String[])}
+   */
+  public static String[] readParallel() {
+    return readResource(PARALLEL_LOC, PARALLEL_SIZE);
+  }
+
+  /**
+   * Loads the code for updating the tokens of an edited text ({@code %incremental}). The generator
+   * emits the parts that depend on the specification between its sections, and skips the sections
+   * for line and column counting if they are not enabled.
+   *
+   * @return the sections, to be used with {@link #Skeleton(PrintWriter, String[])}
+   */
+  public static String[] readIncremental() {
+    return readResource(INCREMENTAL_LOC, INCREMENTAL_SIZE);
+  }
+
+  /** Reads a skeleton from the class path, optionally making it private. */
+  private static String[] readBuiltin(String location, boolean makePrivate) {
+    String[] parts = readResource(location, size);
+    if (makePrivate) {
+      for (int i = 0; i < parts.length; i++) {
+        parts[i] = replace(" public ", " private ", parts[i]);
+      }
+    }
+    return parts;
+  }
+
+  /** Reads a skeleton with {@code sections} sections from the class path. */
+  private static String[] readResource(String location, int sections) {
     ClassLoader l = Skeleton.class.getClassLoader();
     URL url;
 
@@ -178,9 +340,9 @@ public class Skeleton {
      * Use system class loader in this case.
      */
     if (l != null) {
-      url = l.getResource(DEFAULT_LOC);
+      url = l.getResource(location);
     } else {
-      url = ClassLoader.getSystemResource(DEFAULT_LOC);
+      url = ClassLoader.getSystemResource(location);
     }
 
     if (url == null) {
@@ -190,7 +352,7 @@ public class Skeleton {
 
     try (BufferedReader reader =
         new BufferedReader(new InputStreamReader(url.openStream(), UTF_8))) {
-      readSkel(reader);
+      return parseSkel(reader, sections);
     } catch (IOException e) {
       Out.error(ErrorMessages.SKEL_IO_ERROR_DEFAULT);
       throw new GeneratorException(e);
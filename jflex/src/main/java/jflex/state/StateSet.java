@@ -8,6 +8,7 @@
  * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
 package jflex.state;
 
+import java.util.Arrays;
 import java.util.Iterator;
 import jflex.logging.Out;
 
@@ -20,6 +21,11 @@ import jflex.logging.Out;
  *
  * <p>Provides an Integer iterator and a native int enumerator.
  *
+ * <p>A set can be frozen into an immutable copy with {@link #frozenCopy()}. Frozen sets only store
+ * the words between their smallest and largest element and cache their hash code, so they are cheap
+ * to keep in large numbers, e.g. as keys of the subset construction or as epsilon closures shared
+ * via a {@link StateSetPool}.
+ *
  * @author Gerwin Klein
  * @version JFlex 1.9.0-SNAPSHOT
  * @see StateSetEnumerator
@@ -43,6 +49,15 @@ public final class StateSet implements Iterable<Integer> {
    */
   long[] bits;
 
+  /** The word {@code bits[0]} stands for. Only frozen sets may have {@code base > 0}. */
+  int base;
+
+  /** Whether this set is immutable. */
+  private boolean frozen;
+
+  /** The hash code of a frozen set. */
+  private int hash;
+
   /** Construct an empty StateSet with default memory backing. */
   public StateSet() {
     this(256);
@@ -76,8 +91,27 @@ public final class StateSet implements Iterable<Integer> {
    * @param set the {@link StateSet} object to copy.
    */
   public StateSet(StateSet set) {
-    bits = new long[set.bits.length];
-    System.arraycopy(set.bits, 0, bits, 0, set.bits.length);
+    bits = new long[set.base + set.bits.length];
+    System.arraycopy(set.bits, 0, bits, set.base, set.bits.length);
+  }
+
+  /** Construct a frozen StateSet from the given words. */
+  private StateSet(long[] bits, int base) {
+    this.bits = bits;
+    this.base = base;
+    this.hash = computeHash();
+    this.frozen = true;
+  }
+
+  /**
+   * Return a frozen StateSet with one element.
+   *
+   * @param state the element of the set
+   * @return the frozen set {@code {state}}
+   * @see #frozenCopy()
+   */
+  public static StateSet singleton(int state) {
+    return new StateSet(new long[] {1L << (state & MASK)}, state >> BITS);
   }
 
   /** Return a new StateSet of the specified length. */
@@ -93,6 +127,7 @@ public final class StateSet implements Iterable<Integer> {
    */
   public void addState(int state) {
     if (DEBUG) Out.debug("StateSet.addState(" + state + ") start to " + this);
+    checkMutable();
 
     int index = state >> BITS;
     if (index >= bits.length) resize(state);
@@ -143,6 +178,7 @@ public final class StateSet implements Iterable<Integer> {
 
   /** Remove all elements from this set. */
   public void clear() {
+    checkMutable();
     int l = bits.length;
     for (int i = 0; i < l; i++) bits[i] = 0;
   }
@@ -154,8 +190,8 @@ public final class StateSet implements Iterable<Integer> {
    * @return true iff this set has the element {@code state}.
    */
   public boolean hasElement(int state) {
-    int index = state >> BITS;
-    if (index >= bits.length) return false;
+    int index = (state >> BITS) - base;
+    if (index < 0 || index >= bits.length) return false;
     return (bits[index] & (1L << (state & MASK))) != 0;
   }
 
@@ -167,6 +203,7 @@ public final class StateSet implements Iterable<Integer> {
    * @return an element of the set.
    */
   public int getAndRemoveElement() {
+    checkMutable();
     int i = 0;
     int o = 0;
     long m = 1;
@@ -189,6 +226,7 @@ public final class StateSet implements Iterable<Integer> {
    * @param state the element to remove.
    */
   public void remove(int state) {
+    checkMutable();
     int index = state >> BITS;
     if (index >= bits.length) return;
     bits[index] &= ~(1L << (state & MASK));
@@ -203,9 +241,8 @@ public final class StateSet implements Iterable<Integer> {
     if (set == null) {
       clear();
     } else {
-      int l = Math.min(bits.length, set.bits.length);
-      for (int i = 0; i < l; i++) bits[i] &= set.bits[i];
-      for (int i = l; i < bits.length; i++) bits[i] = 0;
+      checkMutable();
+      for (int i = 0; i < bits.length; i++) bits[i] &= set.word(i);
     }
   }
 
@@ -222,15 +259,11 @@ public final class StateSet implements Iterable<Integer> {
   public StateSet complement(StateSet univ) {
     if (univ == null) return null;
 
-    StateSet result = emptySet(univ.bits.length);
-
-    int i;
-    int m = Math.min(bits.length, univ.bits.length);
-
-    for (i = 0; i < m; i++) result.bits[i] = ~bits[i] & univ.bits[i];
+    StateSet result = emptySet(univ.base + univ.bits.length);
 
-    if (bits.length < univ.bits.length)
-      System.arraycopy(univ.bits, m, result.bits, m, result.bits.length - m);
+    for (int i = 0; i < univ.bits.length; i++) {
+      result.bits[univ.base + i] = ~word(univ.base + i) & univ.bits[i];
+    }
 
     if (DEBUG) {
       Out.debug("Complement of " + this + Out.NL + "and " + univ + Out.NL + " is :" + result);
@@ -248,19 +281,21 @@ public final class StateSet implements Iterable<Integer> {
     if (DEBUG) Out.debug("StateSet.add(" + set + "), this = " + this);
 
     if (set == null) return;
+    checkMutable();
 
     long[] this_bits;
     long[] add_bits = set.bits;
+    int add_base = set.base;
     int add_bits_length = add_bits.length;
 
-    if (bits.length < add_bits_length) {
-      this_bits = new long[add_bits_length];
+    if (bits.length < add_base + add_bits_length) {
+      this_bits = new long[add_base + add_bits_length];
       System.arraycopy(bits, 0, this_bits, 0, bits.length);
     } else {
       this_bits = this.bits;
     }
 
-    for (int i = 0; i < add_bits_length; i++) this_bits[i] |= add_bits[i];
+    for (int i = 0; i < add_bits_length; i++) this_bits[add_base + i] |= add_bits[i];
 
     this.bits = this_bits;
 
@@ -273,27 +308,18 @@ public final class StateSet implements Iterable<Integer> {
       return false;
     }
 
-    int i = 0;
-    int l1, l2;
     StateSet set = (StateSet) b;
 
-    l1 = bits.length;
-    l2 = set.bits.length;
-
-    if (l1 <= l2) {
-      while (i < l1) {
-        if (bits[i] != set.bits[i]) return false;
-        i++;
-      }
-
-      while (i < l2) if (set.bits[i++] != 0) return false;
-    } else {
-      while (i < l2) {
-        if (bits[i] != set.bits[i]) return false;
-        i++;
-      }
+    if (set == this) return true;
+    if (frozen && set.frozen) {
+      // frozen sets are trimmed, so equal sets have the same representation
+      return hash == set.hash && base == set.base && Arrays.equals(bits, set.bits);
+    }
 
-      while (i < l1) if (bits[i++] != 0) return false;
+    int from = Math.min(base, set.base);
+    int to = Math.max(base + bits.length, set.base + set.bits.length);
+    for (int i = from; i < to; i++) {
+      if (word(i) != set.word(i)) return false;
     }
 
     return true;
@@ -301,6 +327,10 @@ public final class StateSet implements Iterable<Integer> {
 
   @Override
   public int hashCode() {
+    return frozen ? hash : computeHash();
+  }
+
+  private int computeHash() {
     long h = 1234;
     long[] _bits = bits;
     int i = bits.length - 1;
@@ -308,7 +338,11 @@ public final class StateSet implements Iterable<Integer> {
     // ignore zero high bits
     while (i >= 0 && _bits[i] == 0) i--;
 
-    while (i >= 0) h ^= _bits[i--] * i;
+    // same value for the same elements, independent of base
+    while (i >= 0) {
+      h ^= _bits[i] * (base + i - 1);
+      i--;
+    }
 
     return (int) ((h >> 32) ^ h);
   }
@@ -339,13 +373,9 @@ public final class StateSet implements Iterable<Integer> {
    * @return true iff {@code set} is contained in this set.
    */
   public boolean contains(StateSet set) {
-    if (set.bits.length > bits.length) {
-      for (int i = bits.length; i < set.bits.length; i++) {
-        if (set.bits[i] != 0) return false;
-      }
-    }
-    for (int i = 0; i < Math.min(bits.length, set.bits.length); i++) {
-      if ((bits[i] | set.bits[i]) != bits[i]) return false;
+    for (int i = 0; i < set.bits.length; i++) {
+      long w = word(set.base + i);
+      if ((w | set.bits[i]) != w) return false;
     }
     return true;
   }
@@ -356,8 +386,8 @@ public final class StateSet implements Iterable<Integer> {
    * @return a {@link StateSet} object with the same content as this.
    */
   public StateSet copy() {
-    StateSet set = emptySet(bits.length);
-    System.arraycopy(bits, 0, set.bits, 0, bits.length);
+    StateSet set = emptySet(base + bits.length);
+    System.arraycopy(bits, 0, set.bits, base, bits.length);
     return set;
   }
 
@@ -369,13 +399,57 @@ public final class StateSet implements Iterable<Integer> {
   public void copy(StateSet set) {
     if (set == null) clear();
     else {
-      if (bits.length < set.bits.length) bits = new long[set.bits.length];
-      else for (int i = set.bits.length; i < bits.length; i++) bits[i] = 0;
+      checkMutable();
+      int length = set.base + set.bits.length;
+      if (bits.length < length) bits = new long[length];
+      else for (int i = length; i < bits.length; i++) bits[i] = 0;
 
-      System.arraycopy(set.bits, 0, bits, 0, Math.min(bits.length, set.bits.length));
+      for (int i = 0; i < set.base; i++) bits[i] = 0;
+      System.arraycopy(set.bits, 0, bits, set.base, set.bits.length);
     }
   }
 
+  /**
+   * Return an immutable copy of this StateSet.
+   *
+   * <p>The copy only stores the words that contain elements and caches its hash code. Modifying it
+   * throws {@link UnsupportedOperationException}; {@link #StateSet(StateSet)} and {@link #copy()}
+   * return modifiable copies of it.
+   *
+   * @return a frozen {@link StateSet} with the same content as this, {@code this} if already frozen
+   */
+  public StateSet frozenCopy() {
+    if (frozen) return this;
+
+    int from = 0;
+    while (from < bits.length && bits[from] == 0) from++;
+    int to = bits.length;
+    while (to > from && bits[to - 1] == 0) to--;
+
+    // all empty sets share one representation, so that they are equal in equals()
+    if (from == to) return new StateSet(new long[0], 0);
+    return new StateSet(Arrays.copyOfRange(bits, from, to), from);
+  }
+
+  /**
+   * Determine if this set is immutable.
+   *
+   * @return true iff this set was created by {@link #frozenCopy()}.
+   */
+  public boolean isFrozen() {
+    return frozen;
+  }
+
+  /** The word that stands for elements {@code i << BITS} to {@code (i << BITS) + MASK}. */
+  private long word(int i) {
+    i -= base;
+    return i >= 0 && i < bits.length ? bits[i] : 0;
+  }
+
+  private void checkMutable() {
+    if (frozen) throw new UnsupportedOperationException("StateSet is frozen");
+  }
+
   @Override
   public String toString() {
     StateSetEnumerator set = states();
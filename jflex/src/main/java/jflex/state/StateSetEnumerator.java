@@ -37,6 +37,9 @@ public final class StateSetEnumerator implements PrimitiveIterator.OfInt {
   /** Reference to the array of the StateSet to iterate over */
   private long[] bits;
 
+  /** The word {@code bits[0]} stands for */
+  private int base;
+
   /**
    * Creates a new StateSetEnumerator that is not yet associated with a StateSet. {@link
    * #hasMoreElements()} and {@link #nextElement()} will throw {@link NullPointerException} when
@@ -62,6 +65,7 @@ public final class StateSetEnumerator implements PrimitiveIterator.OfInt {
    */
   public void reset(StateSet states) {
     this.bits = states.bits;
+    this.base = states.base;
     this.index = 0;
     this.offset = 0;
     this.mask = 1;
@@ -160,7 +164,7 @@ public final class StateSetEnumerator implements PrimitiveIterator.OfInt {
       Out.dump("nextElement, index = " + index + ", offset = " + offset);
     }
     if (index >= bits.length) throw new NoSuchElementException();
-    int x = (index << StateSet.BITS) + offset;
+    int x = ((base + index) << StateSet.BITS) + offset;
     advance();
     return x;
   }
@@ -0,0 +1,51 @@
+/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+ * JFlex 1.9.0-SNAPSHOT                                                    *
+ * Copyright (C) 1998-2018  Gerwin Klein <lsf@jflex.de>                    *
+ * All rights reserved.                                                    *
+ *                                                                         *
+ * License: BSD                                                            *
+ *                                                                         *
+ * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+package jflex.state;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A pool of canonical, frozen {@link StateSet} instances.
+ *
+ * <p>Interning a set returns the one frozen set in the pool equal to it, so that equal sets are
+ * stored only once and can be compared by their cached hash code.
+ *
+ * @version JFlex 1.9.0-SNAPSHOT
+ * @see StateSet#frozenCopy()
+ */
+public final class StateSetPool {
+
+  private final Map<StateSet, StateSet> pool = new HashMap<>();
+
+  /**
+   * Returns the canonical frozen set equal to {@code set}, adding a frozen copy of {@code set} to
+   * the pool if there is none yet.
+   *
+   * @param set the set to intern, is not modified.
+   * @return a frozen set equal to {@code set}.
+   */
+  public StateSet intern(StateSet set) {
+    StateSet result = pool.get(set);
+    if (result == null) {
+      result = set.frozenCopy();
+      pool.put(result, result);
+    }
+    return result;
+  }
+
+  /**
+   * Number of distinct sets in the pool.
+   *
+   * @return the number of interned sets.
+   */
+  public int size() {
+    return pool.size();
+  }
+}
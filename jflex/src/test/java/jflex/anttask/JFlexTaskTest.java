@@ -39,6 +39,10 @@ public class JFlexTaskTest {
     task = new JFlexTask();
   }
 
+  private Options options() {
+    return task.getContext().getOptions();
+  }
+
   @Test
   public void testPackageAndClass() throws IOException {
     task.setFile(new File(DIR_RESOURCES + FILE_LEXSCAN));
@@ -64,7 +68,7 @@ public class JFlexTaskTest {
     task.findPackageAndClass();
     task.normalizeOutdir();
     // not default jflex logic, but javac (uses package name)
-    assertThat(Options.getDir()).isEqualTo(new File(dir, "jflex"));
+    assertThat(options().directory).isEqualTo(new File(dir, "jflex"));
   }
 
   @Test
@@ -75,7 +79,7 @@ public class JFlexTaskTest {
     task.findPackageAndClass();
     task.normalizeOutdir();
     // this should be default jflex logic
-    assertThat(Options.getDir()).isEqualTo(dir);
+    assertThat(options().directory).isEqualTo(dir);
   }
 
   @Test
@@ -84,96 +88,107 @@ public class JFlexTaskTest {
     task.findPackageAndClass();
     task.normalizeOutdir();
     // this should be default jflex logic
-    assertThat(Options.getDir()).isEqualTo(new File(DIR_RESOURCES + "/jflex"));
+    assertThat(options().directory).isEqualTo(new File(DIR_RESOURCES + "/jflex"));
   }
 
   @Test
   public void testNomin() {
-    assertThat(!Options.no_minimize).isTrue();
+    assertThat(!options().no_minimize).isTrue();
     task.setNomin(true);
-    assertThat(Options.no_minimize).isTrue();
+    assertThat(options().no_minimize).isTrue();
   }
 
   @Test
   public void testSkipMinimization() {
-    assertThat(!Options.no_minimize).isTrue();
+    assertThat(!options().no_minimize).isTrue();
     task.setSkipMinimization(true);
-    assertThat(Options.no_minimize).isTrue();
+    assertThat(options().no_minimize).isTrue();
   }
 
   @Test
   public void testNobak() {
-    assertThat(!Options.no_backup).isTrue();
+    assertThat(!options().no_backup).isTrue();
     task.setNobak(true);
-    assertThat(Options.no_backup).isTrue();
+    assertThat(options().no_backup).isTrue();
   }
 
   @Test
   public void testSkel() {
     task.setVerbose(false); // avoid to java console pop up
     task.setSkeleton(new File("src/main/jflex/skeleton.nested"));
-    assertThat(Skeleton.line[3].indexOf("java.util.Deque") > 0).isTrue();
+    assertThat(task.getContext().call(Skeleton::get)[3].indexOf("java.util.Deque") > 0).isTrue();
   }
 
   @Test
   public void testVerbose() {
     task.setVerbose(false);
-    assertThat(!Options.verbose).isTrue();
+    assertThat(!options().verbose).isTrue();
     task.setVerbose(true);
-    assertThat(Options.verbose).isTrue();
+    assertThat(options().verbose).isTrue();
   }
 
   @Test
   public void testUnusedWarning() {
     // Defaults to true, for backward compatibility.
-    assertWithMessage("Defaults to true").that(Options.unused_warning).isTrue();
+    assertWithMessage("Defaults to true").that(options().unused_warning).isTrue();
     task.setUnusedWarning(false);
-    assertThat(Options.unused_warning).isFalse();
+    assertThat(options().unused_warning).isFalse();
   }
 
   @Test
   public void testUnusedWarning_Verbose() {
     task.setVerbose(false);
-    assertWithMessage("Disabled in quiet mode").that(Options.unused_warning).isFalse();
+    assertWithMessage("Disabled in quiet mode").that(options().unused_warning).isFalse();
   }
 
   @Test
   public void testTime() {
-    assertThat(!Options.time).isTrue();
+    assertThat(!options().time).isTrue();
     task.setTimeStatistics(true);
-    assertThat(Options.time).isTrue();
+    assertThat(options().time).isTrue();
     task.setTime(false);
-    assertThat(!Options.time).isTrue();
+    assertThat(!options().time).isTrue();
   }
 
   @Test
   public void testDot() {
-    assertThat(!Options.dot).isTrue();
+    assertThat(!options().dot).isTrue();
     task.setDot(true);
-    assertThat(Options.dot).isTrue();
+    assertThat(options().dot).isTrue();
     task.setGenerateDot(false);
-    assertThat(!Options.dot).isTrue();
+    assertThat(!options().dot).isTrue();
   }
 
   @Test
   public void testDump() {
-    assertThat(!Options.dump).isTrue();
+    assertThat(!options().dump).isTrue();
     task.setDump(true);
-    assertThat(Options.dump).isTrue();
+    assertThat(options().dump).isTrue();
   }
 
   @Test
   public void testJlex() {
-    assertThat(!Options.jlex).isTrue();
+    assertThat(!options().jlex).isTrue();
     task.setJLex(true);
-    assertThat(Options.jlex).isTrue();
+    assertThat(options().jlex).isTrue();
   }
 
   @Test
   public void testLegacyDot() {
-    assertThat(Options.legacy_dot).isFalse();
+    assertThat(options().legacy_dot).isFalse();
     task.setLegacyDot(true);
-    assertThat(Options.legacy_dot).isTrue();
+    assertThat(options().legacy_dot).isTrue();
+  }
+
+  @Test
+  public void testOptionsPerTask() {
+    JFlexTask other = new JFlexTask();
+    task.setNomin(true);
+    task.setSkeleton(new File("src/main/jflex/skeleton.nested"));
+    assertThat(other.getContext().getOptions().no_minimize).isFalse();
+    assertThat(Options.get().no_minimize).isFalse();
+    assertThat(other.getContext().call(Skeleton::get)[3]).doesNotContain("java.util.Deque");
+    assertThat(Skeleton.get()[3]).doesNotContain("java.util.Deque");
   }
 
   @Test
@@ -181,8 +196,8 @@ public class JFlexTaskTest {
     Charset defaultSet = Charset.defaultCharset();
     String name = "utf-8";
     Charset charset = Charset.forName(name);
-    assertThat(defaultSet).isEqualTo(Options.encoding);
+    assertThat(defaultSet).isEqualTo(options().encoding);
     task.setEncoding(name);
-    assertThat(charset).isEqualTo(Options.encoding);
+    assertThat(charset).isEqualTo(options().encoding);
   }
 }
@@ -0,0 +1,137 @@
+/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+ * JFlex 1.9.0-SNAPSHOT                                                    *
+ * Copyright (C) 1998-2018  Gerwin Klein <lsf@jflex.de>                    *
+ * All rights reserved.                                                    *
+ *                                                                         *
+ * License: BSD                                                            *
+ *                                                                         *
+ * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+package jflex.core;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.Random;
+import jflex.state.StateSet;
+import org.junit.Test;
+
+/**
+ * Unit tests for the transitions of {@link jflex.core.NFA}.
+ *
+ * @version JFlex 1.9.0-SNAPSHOT
+ */
+public class NfaTest {
+
+  private static StateSet targets(NFA.Moves moves, int i) {
+    StateSet set = new StateSet();
+    moves.addTargets(i, set);
+    return set;
+  }
+
+  @Test
+  public void consecutiveInputsShareAnEdge() {
+    NFA nfa = new NFA(10, 4);
+    for (int input = 2; input <= 6; input++) nfa.addTransition(0, input, 1);
+    nfa.addTransition(0, 4, 1); // duplicate
+    nfa.addTransition(0, 4, 2);
+    nfa.addTransition(0, 0, 2);
+
+    assertThat(nfa.numEdges(0)).isEqualTo(3);
+    assertThat(nfa.toString())
+        .isEqualTo(
+            ("State 0\n  with 0 in {2}\n  with 2 in {1}\n  with 3 in {1}\n  with 4 in {1, 2}\n"
+                    + "  with 5 in {1}\n  with 6 in {1}\nState 1\nState 2\n")
+                .replace("\n", jflex.logging.Out.NL));
+  }
+
+  @Test
+  public void moves() {
+    NFA nfa = new NFA(8, 4);
+    for (int input = 0; input < 8; input++) nfa.addTransition(0, input, 2);
+    nfa.addTransition(1, 3, 3);
+    nfa.addTransition(1, 7, 1);
+    nfa.addTransition(3, 5, 0);
+
+    NFA.Moves moves = new NFA.Moves(nfa.numInput());
+    nfa.moves(StateSet.singleton(1), moves);
+    assertThat(moves.numInputs()).isEqualTo(2);
+    assertThat(moves.input(0)).isEqualTo(3);
+    assertThat(targets(moves, 0)).isEqualTo(StateSet.singleton(3));
+    assertThat(moves.input(1)).isEqualTo(7);
+    assertThat(targets(moves, 1)).isEqualTo(StateSet.singleton(1));
+
+    StateSet set = new StateSet();
+    set.addState(0);
+    set.addState(1);
+    // the buffer is reused
+    nfa.moves(set, moves);
+    assertThat(moves.numInputs()).isEqualTo(8);
+    for (int i = 0; i < 8; i++) {
+      assertThat(moves.input(i)).isEqualTo(i);
+      StateSet expected = StateSet.singleton(2);
+      if (i == 3 || i == 7) {
+        expected = new StateSet(expected);
+        expected.addState(i == 3 ? 3 : 1);
+      }
+      assertThat(targets(moves, i)).isEqualTo(expected);
+    }
+  }
+
+  /** Epsilon closure of {@code state} in {@code eps} by plain graph search. */
+  private static StateSet closure(boolean[][] eps, int state) {
+    StateSet result = new StateSet(StateSet.singleton(state));
+    StateSet todo = new StateSet(result);
+    while (todo.containsElements()) {
+      int s = todo.getAndRemoveElement();
+      for (int t = 0; t < eps.length; t++) {
+        if (eps[s][t] && !result.hasElement(t)) {
+          result.addState(t);
+          todo.addState(t);
+        }
+      }
+    }
+    return result;
+  }
+
+  @Test
+  public void epsilonFillAgreesWithGraphSearch() {
+    Random random = new Random(7);
+    for (int round = 0; round < 200; round++) {
+      int numStates = 1 + random.nextInt(40);
+      double density = random.nextDouble() * 3 / numStates;
+      boolean[][] eps = new boolean[numStates][numStates];
+      NFA nfa = new NFA(2, numStates);
+      for (int s = 0; s < numStates; s++) {
+        for (int t = 0; t < numStates; t++) {
+          if (random.nextDouble() < density) {
+            eps[s][t] = true;
+            nfa.addEpsilonTransition(s, t);
+          }
+        }
+      }
+      // make sure all states exist in the NFA
+      nfa.addEpsilonTransition(numStates - 1, numStates - 1);
+
+      nfa.epsilonFill();
+
+      for (int s = 0; s < numStates; s++) {
+        assertThat(nfa.epsilon(s)).isEqualTo(closure(eps, s));
+      }
+    }
+  }
+
+  @Test
+  public void epsilonFillLongChain() {
+    int numStates = 20_000;
+    NFA nfa = new NFA(2, numStates);
+    for (int s = 0; s + 1 < numStates; s++) nfa.addEpsilonTransition(s, s + 1);
+    nfa.addEpsilonTransition(numStates - 1, numStates / 2);
+
+    nfa.epsilonFill();
+
+    assertThat(nfa.epsilon(0).hasElement(numStates - 1)).isTrue();
+    // the cycle shares one closure
+    assertThat(nfa.epsilon(numStates / 2)).isSameAs(nfa.epsilon(numStates - 1));
+    assertThat(nfa.epsilon(numStates / 2).hasElement(numStates / 2 - 1)).isFalse();
+  }
+}
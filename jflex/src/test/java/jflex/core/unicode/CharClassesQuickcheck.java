@@ -110,6 +110,29 @@ public class CharClassesQuickcheck {
     assertThat(others).isEqualTo(IntCharSet.complementOf(set));
   }
 
+  @Property
+  public void addSetNumbering(
+      CharClasses classes, @InRange(maxInt = CharClasses.maxChar) IntCharSet set) {
+
+    // reference: intersect set with every class in order, append the split off parts
+    List<IntCharSet> expected = classes.allClasses();
+    IntCharSet rest = IntCharSet.copyOf(set);
+    int oldSize = expected.size();
+    for (int i = 0; i < oldSize; i++) {
+      IntCharSet x = expected.get(i);
+      IntCharSet and = x.and(rest);
+      if (and.containsElements() && !and.equals(x)) {
+        x.sub(and);
+        expected.add(and);
+      }
+      rest.sub(and);
+    }
+
+    classes.makeClass(set, false);
+
+    assertThat(classes.allClasses()).isEqualTo(expected);
+  }
+
   @Property
   public void addString(
       CharClasses classes, String s, @InRange(minInt = 0, maxInt = CharClasses.maxChar) int c) {
@@ -157,6 +180,32 @@ public class CharClassesQuickcheck {
     }
   }
 
+  @Property(trials = 20)
+  public void getTablesBlockBits(
+      CharClasses classes,
+      @InRange(minInt = CharClasses.MIN_BLOCK_BITS, maxInt = CharClasses.MAX_BLOCK_BITS) int bits,
+      @Size(min = 100, max = 100)
+          ArrayList<@InRange(minInt = 0, maxInt = CharClasses.maxChar) Integer> inputs) {
+    Pair<int[], int[]> table = classes.getTables(bits);
+    assertThat(table.fst[0]).isEqualTo(0);
+    for (int input : inputs) {
+      int offset = input & ((1 << bits) - 1);
+      assertThat(table.snd[table.fst[input >> bits] | offset])
+          .isEqualTo(classes.getClassCode(input));
+    }
+  }
+
+  @Property(trials = 20)
+  public void smallestBlockBits(CharClasses classes) {
+    int best = classes.smallestBlockBits();
+    assertThat(best).isAtLeast(CharClasses.MIN_BLOCK_BITS);
+    assertThat(best).isAtMost(CharClasses.MAX_BLOCK_BITS);
+    Pair<int[], int[]> bestTable = classes.getTables(best);
+    Pair<int[], int[]> defaultTable = classes.getTables(CMapBlock.BLOCK_BITS);
+    assertThat(bestTable.fst.length + bestTable.snd.length)
+        .isAtMost(defaultTable.fst.length + defaultTable.snd.length);
+  }
+
   private static int translateFlat(Pair<int[], int[]> table, int input) {
     int top = table.fst[input >> CMapBlock.BLOCK_BITS];
     int offset = input & (CMapBlock.BLOCK_SIZE - 1);
@@ -3,6 +3,8 @@ package jflex.core.unicode;
 import static com.google.common.truth.Truth.assertThat;
 import static com.google.common.truth.Truth.assertWithMessage;
 
+import java.util.ArrayList;
+import java.util.List;
 import jflex.chars.Interval;
 import org.junit.Test;
 
@@ -70,9 +72,27 @@ public class IntCharSetTest {
   public void copy() {
     IntCharSet set = IntCharSet.of(new Interval('a', 'z'));
     IntCharSet copy = IntCharSet.copyOf(set);
+    set.add('0');
+    assertThat(copy).isNotEqualTo(set);
+    assertThat(copy).isEqualTo(IntCharSet.of(new Interval('a', 'z')));
+  }
+
+  @Test
+  public void getIntervalsIsCopy() {
+    IntCharSet set = IntCharSet.of(new Interval('a', 'z'));
     Interval i = set.getIntervals().get(0);
     i.end = 'X';
-    assertThat(copy).isNotEqualTo(set);
+    assertThat(set).isEqualTo(IntCharSet.of(new Interval('a', 'z')));
+  }
+
+  @Test
+  public void add_mergesSeveralIntervals() {
+    IntCharSet set =
+        IntCharSet.of(
+            new Interval(1, 2), new Interval(5, 6), new Interval(9, 10), new Interval(20, 21));
+    set.add(new Interval(3, 9));
+    assertThat(set).isEqualTo(IntCharSet.of(new Interval(1, 10), new Interval(20, 21)));
+    assertThat(set.invariants()).isTrue();
   }
 
   @Test
@@ -135,6 +155,31 @@ public class IntCharSetTest {
     assertThat(a).isEqualTo(IntCharSet.of(new Interval(1, 3), Interval.ofCharacter(42)));
   }
 
+  @Test
+  public void sub_notContained() {
+    IntCharSet a = IntCharSet.of(new Interval(1, 10), new Interval(20, 30));
+    a.sub(IntCharSet.of(new Interval(0, 2), new Interval(5, 5), new Interval(8, 22)));
+    assertThat(a)
+        .isEqualTo(IntCharSet.of(new Interval(3, 4), new Interval(6, 7), new Interval(23, 30)));
+  }
+
+  @Test
+  public void complementOf() {
+    IntCharSet a = IntCharSet.of(new Interval(0, 10), new Interval(20, 30));
+    assertThat(IntCharSet.complementOf(a))
+        .isEqualTo(IntCharSet.of(new Interval(11, 19), new Interval(31, CharClasses.maxChar)));
+    assertThat(IntCharSet.complementOf(IntCharSet.allChars()).containsElements()).isFalse();
+    assertThat(IntCharSet.complementOf(new IntCharSet())).isEqualTo(IntCharSet.allChars());
+  }
+
+  @Test
+  public void iterator() {
+    IntCharSet a = IntCharSet.of(new Interval(1, 3), Interval.ofCharacter(7));
+    List<Integer> elements = new ArrayList<>();
+    for (int c : a) elements.add(c);
+    assertThat(elements).containsExactly(1, 2, 3, 7).inOrder();
+  }
+
   @Test
   public void contains() {
     IntCharSet a = IntCharSet.of(new Interval(3, 7), new Interval(10, 15));
@@ -0,0 +1,106 @@
+/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+ * JFlex 1.9.0-SNAPSHOT                                                    *
+ * Copyright (C) 1998-2018  Gerwin Klein <lsf@jflex.de>                    *
+ * All rights reserved.                                                    *
+ *                                                                         *
+ * License: BSD                                                            *
+ *                                                                         *
+ * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+package jflex.dfa;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.StringReader;
+import java.util.Random;
+import jflex.core.LexParse;
+import jflex.core.LexScan;
+import jflex.core.NFA;
+import jflex.core.OptionUtils;
+import jflex.logging.Out;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests that the parallel subset construction produces the same DFA as the sequential one.
+ *
+ * @version JFlex 1.9.0-SNAPSHOT
+ */
+public class DfaFactoryTest {
+
+  @Before
+  public void setUp() {
+    OptionUtils.setDefaultOptions();
+  }
+
+  @After
+  public void tearDown() {
+    OptionUtils.setDefaultOptions();
+    Out.resetCounters();
+  }
+
+  /** Parses a specification with the given rules into an NFA. */
+  private static NFA nfa(String rules) throws Exception {
+    String spec = "%%\n%int\n%state A B\n%%\n" + rules + "\n";
+    LexParse parser = new LexParse(new LexScan(new StringReader(spec)));
+    return (NFA) parser.parse().value;
+  }
+
+  /** Converts the rules sequentially and with 4 threads, and checks that the DFAs are equal. */
+  private static DFA assertSameDfa(String rules) throws Exception {
+    DFA sequential = DfaFactory.createFromNfa(nfa(rules), 1);
+    DFA parallel = DfaFactory.createFromNfa(nfa(rules), 4);
+    assertThat(parallel.numStates()).isEqualTo(sequential.numStates());
+    assertThat(parallel).isEqualTo(sequential);
+    return sequential;
+  }
+
+  @Test
+  public void keywords() throws Exception {
+    assertSameDfa(
+        "\"if\" { return 1; }\n"
+            + "\"int\" { return 2; }\n"
+            + "\"interface\" { return 3; }\n"
+            + "<A> \"*/\" { return 4; }\n"
+            + "[a-z][a-z0-9]* { return 5; }\n"
+            + "^ [0-9]+ / \":\" { return 6; }\n"
+            + "[^] { return 7; }");
+  }
+
+  @Test
+  public void severalBatches() throws Exception {
+    // the DFA needs a state for each suffix of length 10, so thousands of states
+    DFA dfa =
+        assertSameDfa(
+            "[ab]* a [ab]{10} { return 1; }\n"
+                + "<B> [abc]* b [abc]{6} c { return 2; }\n"
+                + "[^] { return 3; }");
+    assertThat(dfa.numStates()).isGreaterThan(1000);
+  }
+
+  @Test
+  public void randomRules() throws Exception {
+    Random random = new Random(6);
+    String[] atoms = {"a", "b", "c", "[ab]", "[^a]", "\"ab\"", "(a|bc)"};
+    String[] suffixes = {"", "*", "+", "?", "{2}", "{1,3}"};
+    for (int run = 0; run < 20; run++) {
+      StringBuilder rules = new StringBuilder();
+      int numRules = 1 + random.nextInt(6);
+      for (int r = 0; r < numRules; r++) {
+        if (random.nextInt(3) == 0) rules.append(random.nextBoolean() ? "<A> " : "<B> ");
+        int length = 1 + random.nextInt(5);
+        for (int i = 0; i < length; i++) {
+          rules.append(atoms[random.nextInt(atoms.length)]);
+          rules.append(suffixes[random.nextInt(suffixes.length)]);
+          rules.append(' ');
+        }
+        // no rule matches the empty string
+        rules.append(atoms[random.nextInt(atoms.length)]);
+        rules.append(" { return ").append(r).append("; }\n");
+      }
+      rules.append("[^] { return -1; }");
+      assertSameDfa(rules.toString());
+    }
+  }
+}
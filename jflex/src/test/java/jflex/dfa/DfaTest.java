@@ -2,6 +2,8 @@ package jflex.dfa;
 
 import static com.google.common.truth.Truth.assertThat;
 
+import java.util.Random;
+import jflex.core.Action;
 import org.junit.Test;
 
 public class DfaTest {
@@ -12,4 +14,80 @@ public class DfaTest {
     DFA dfa2 = DeprecatedDfa.copyOf(dfa1);
     assertThat(dfa2).isEqualTo(dfa1);
   }
+
+  @Test
+  public void tableGrows() {
+    DFA dfa = new DFA(1, 3, 1);
+    for (int s = 0; s < 2000; s++) dfa.addTransition(s, s % 3, s + 1);
+    assertThat(dfa.numStates()).isEqualTo(2001);
+    for (int s = 0; s < 2000; s++) {
+      for (int c = 0; c < 3; c++) {
+        assertThat(dfa.table(s, c)).isEqualTo(c == s % 3 ? s + 1 : DFA.NO_TARGET);
+      }
+    }
+    assertThat(dfa.table(2000, 0)).isEqualTo(DFA.NO_TARGET);
+  }
+
+  /** A random partial DFA with a few distinct actions. */
+  private static DFA randomDfa(Random random, int numStates, int numInput, double density) {
+    DFA dfa = new DFA(2, numInput, 1);
+    Action[] actions = {new Action("a", 1), new Action("b", 2), new Action("c", 3)};
+    for (int s = 0; s < numStates; s++) {
+      for (int c = 0; c < numInput; c++) {
+        if (random.nextDouble() < density) dfa.addTransition(s, c, random.nextInt(numStates));
+      }
+    }
+    // make sure all states exist
+    dfa.addTransition(numStates - 1, 0, random.nextInt(numStates));
+    for (int s = 0; s < numStates; s++) {
+      if (random.nextInt(3) == 0) {
+        dfa.setFinal(s, true);
+        dfa.setAction(s, actions[random.nextInt(actions.length)]);
+      }
+    }
+    dfa.setEntryState(0, 0);
+    dfa.setEntryState(1, random.nextInt(numStates));
+    return dfa;
+  }
+
+  private static int countClasses(boolean[][] equiv) {
+    int classes = 0;
+    for (int i = 0; i < equiv.length; i++) {
+      boolean representative = true;
+      for (int j = 0; j < i; j++) representative &= !equiv[i][j];
+      if (representative) classes++;
+    }
+    return classes;
+  }
+
+  @Test
+  public void minimizeAgreesWithOldMinimize() {
+    Random random = new Random(42);
+    for (int run = 0; run < 50; run++) {
+      DFA dfa =
+          randomDfa(random, 2 + random.nextInt(60), 1 + random.nextInt(6), random.nextDouble());
+      DeprecatedDfa original = DeprecatedDfa.copyOf(dfa);
+      int classes = countClasses(original.old_minimize());
+
+      dfa.minimize();
+      assertThat(dfa.numStates()).isEqualTo(classes);
+      // no two states of the result are equivalent
+      assertThat(countClasses(DeprecatedDfa.copyOf(dfa).old_minimize())).isEqualTo(classes);
+
+      // the result accepts the same inputs with the same actions
+      for (int walk = 0; walk < 20; walk++) {
+        int e = random.nextInt(2);
+        int s = original.entryState(e);
+        int t = dfa.entryState(e);
+        for (int step = 0; step < 30 && s != DFA.NO_TARGET; step++) {
+          assertThat(dfa.isFinal(t)).isEqualTo(original.isFinal(s));
+          if (original.isFinal(s)) assertThat(dfa.action(t).isEquiv(original.action(s))).isTrue();
+          int c = random.nextInt(dfa.numInput());
+          s = original.table(s, c);
+          t = dfa.table(t, c);
+          assertThat(t == DFA.NO_TARGET).isEqualTo(s == DFA.NO_TARGET);
+        }
+      }
+    }
+  }
 }
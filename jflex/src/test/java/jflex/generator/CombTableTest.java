@@ -0,0 +1,88 @@
+/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+ * JFlex 1.9.0-SNAPSHOT                                                    *
+ * Copyright (C) 1998-2018  Gerwin Klein <lsf@jflex.de>                    *
+ * All rights reserved.                                                    *
+ *                                                                         *
+ * License: BSD                                                            *
+ *                                                                         *
+ * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+package jflex.generator;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import org.junit.Test;
+
+/**
+ * CombTableTest
+ *
+ * @version JFlex 1.9.0-SNAPSHOT
+ */
+public class CombTableTest {
+
+  /** Looks up a transition as the generated scanner does. */
+  private static int lookup(CombTable comb, int row, int column) {
+    int index = comb.base(row) + column;
+    return comb.check()[index] == column ? comb.next()[index] : comb.defaultTarget(row);
+  }
+
+  private static void assertSameTransitions(int[][] rows, CombTable comb) {
+    for (int r = 0; r < rows.length; r++) {
+      for (int c = 0; c < rows[r].length; c++) {
+        assertThat(lookup(comb, r, c)).isEqualTo(rows[r][c]);
+      }
+    }
+  }
+
+  @Test
+  public void small() {
+    int[][] rows = {{1, -1, 1}, {-1, -1, -1}, {2, 2, 2}, {-1, 0, -1}};
+    CombTable comb = new CombTable(rows);
+    assertSameTransitions(rows, comb);
+    assertThat(comb.next().length).isEqualTo(comb.check().length);
+  }
+
+  @Test
+  public void distinctBases() {
+    int[][] rows = {{-1, -1, 3}, {-1, 4, -1}, {5, -1, -1}, {-1, -1, -1}, {6, 6, 6}};
+    CombTable comb = new CombTable(rows);
+    Set<Integer> bases = new HashSet<>();
+    for (int r = 0; r < rows.length; r++) bases.add(comb.base(r));
+    assertThat(bases).hasSize(rows.length);
+    assertSameTransitions(rows, comb);
+  }
+
+  @Test
+  public void sparse() {
+    // one transition per row, or all but one to the same target:
+    // overlaid into little more than one entry per row
+    int numCols = 50;
+    int[][] rows = new int[200][numCols];
+    for (int r = 0; r < rows.length; r++) {
+      int other = r % 2 == 0 ? -1 : 1;
+      for (int c = 0; c < numCols; c++) rows[r][c] = c == r % numCols ? r : other;
+    }
+    CombTable comb = new CombTable(rows);
+    assertSameTransitions(rows, comb);
+    assertThat(comb.next().length).isLessThan(rows.length + 2 * numCols);
+  }
+
+  @Test
+  public void random() {
+    Random random = new Random(42);
+    for (int i = 0; i < 100; i++) {
+      int numCols = 1 + random.nextInt(20);
+      int[][] rows = new int[1 + random.nextInt(50)][numCols];
+      for (int[] row : rows) {
+        int density = random.nextInt(4);
+        for (int c = 0; c < numCols; c++) {
+          row[c] = random.nextInt(4) < density ? random.nextInt(rows.length) : -1;
+        }
+      }
+      assertSameTransitions(rows, new CombTable(rows));
+    }
+  }
+}
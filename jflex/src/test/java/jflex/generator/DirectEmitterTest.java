@@ -0,0 +1,142 @@
+/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+ * JFlex 1.9.0-SNAPSHOT                                                    *
+ * Copyright (C) 1998-2018  Gerwin Klein <lsf@jflex.de>                    *
+ * All rights reserved.                                                    *
+ *                                                                         *
+ * License: BSD                                                            *
+ *                                                                         *
+ * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+package jflex.generator;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Test;
+
+/**
+ * DirectEmitterTest
+ *
+ * @version JFlex 1.9.0-SNAPSHOT
+ */
+public class DirectEmitterTest {
+
+  private static final String NL = "\n";
+
+  /** rows: 0 -> {1, -1, 1}, 1 -> {-1, -1, -1}, 2 -> {2, 2, 2}; states 0 and 3 share row 0 */
+  private final DirectEmitter e =
+      new DirectEmitter(new int[][] {{1, -1, 1}, {-1, -1, -1}, {2, 2, 2}}, new int[] {0, 1, 2, 0});
+
+  @Test
+  public void method() {
+    assertThat(e.method())
+        .contains(
+            "  private static int zzTransition(int state, int input) {"
+                + NL
+                + "    switch (state) {"
+                + NL
+                + "      case 0:"
+                + NL
+                + "      case 3:"
+                + NL
+                + "        switch (input) {"
+                + NL
+                + "          case 1:"
+                + NL
+                + "            return -1;"
+                + NL
+                + "          default:"
+                + NL
+                + "            return 1;"
+                + NL
+                + "        }"
+                + NL
+                + "      case 2:"
+                + NL
+                + "        return 2;"
+                + NL
+                + "      default:"
+                + NL
+                + "        return -1;"
+                + NL
+                + "    }"
+                + NL
+                + "  }"
+                + NL);
+  }
+
+  @Test
+  public void inline() {
+    String code = e.inline("zzCMap(zzInput)");
+    assertThat(code).startsWith("          int zzNext;" + NL + "          switch (zzState) {" + NL);
+    assertThat(code).contains("            switch (zzCMap(zzInput)) {" + NL);
+    assertThat(code)
+        .contains("                  zzNext = -1;" + NL + "                  break;" + NL);
+    assertThat(code).doesNotContain("return");
+  }
+
+  @Test
+  public void estimatedSize() {
+    e.method();
+    int methodSize = e.estimatedSize();
+    e.inline("zzCMap(zzInput)");
+    assertThat(methodSize).isGreaterThan(0);
+    assertThat(e.estimatedSize()).isGreaterThan(methodSize);
+  }
+
+  @Test
+  public void largeTableExceedsMethodLimit() {
+    int states = 1000;
+    int cols = 50;
+    int[][] rows = new int[states][cols];
+    int[] stateRow = new int[states];
+    for (int s = 0; s < states; s++) {
+      stateRow[s] = s;
+      for (int c = 0; c < cols; c++) {
+        rows[s][c] = (s + c) % states;
+      }
+    }
+    DirectEmitter large = new DirectEmitter(rows, stateRow);
+    large.inline("zzCMap(zzInput)");
+    assertThat(large.estimatedSize()).isGreaterThan(DirectEmitter.MAX_METHOD_SIZE);
+  }
+
+  @Test
+  public void codeSize() {
+    assertThat(DirectEmitter.codeSize("x=y;")).isAtLeast(8);
+    assertThat(DirectEmitter.codeSize("x = y;\n")).isEqualTo(DirectEmitter.codeSize("x=y;"));
+  }
+
+  @Test
+  public void largeActionsNearMethodLimit() {
+    int states = 150;
+    int cols = 20;
+    int[][] rows = new int[states][cols];
+    int[] stateRow = new int[states];
+    for (int s = 0; s < states; s++) {
+      stateRow[s] = s;
+      for (int c = 0; c < cols; c++) {
+        rows[s][c] = (s + c) % states;
+      }
+    }
+    DirectEmitter medium = new DirectEmitter(rows, stateRow);
+    medium.inline("zzCMap(zzInput)");
+    int transitions = medium.estimatedSize();
+    assertThat(transitions).isLessThan(DirectEmitter.MAX_METHOD_SIZE);
+
+    // 50 actions of 10 statements each, as in a keyword scanner that counts tokens
+    StringBuilder action = new StringBuilder();
+    for (int i = 0; i < 10; i++) {
+      action.append("count").append(i % 4).append(" += yylength() * ").append(i).append("; ");
+    }
+    int actions = DirectEmitter.SCAN_LOOP_SIZE;
+    for (int a = 0; a < 50; a++) {
+      actions += DirectEmitter.ACTION_OVERHEAD + DirectEmitter.codeSize(action.toString());
+    }
+    assertThat(actions).isLessThan(DirectEmitter.MAX_METHOD_SIZE);
+    assertThat(transitions + actions).isGreaterThan(DirectEmitter.MAX_METHOD_SIZE);
+
+    // the transitions still fit into a method of their own
+    medium.method();
+    assertThat(medium.estimatedSize()).isLessThan(DirectEmitter.MAX_METHOD_SIZE);
+  }
+}
@@ -0,0 +1,136 @@
+/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+ * JFlex 1.9.0-SNAPSHOT                                                    *
+ * Copyright (C) 1998-2018  Gerwin Klein <lsf@jflex.de>                    *
+ * All rights reserved.                                                    *
+ *                                                                         *
+ * License: BSD                                                            *
+ *                                                                         *
+ * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+package jflex.generator;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import jflex.core.OptionUtils;
+import jflex.exceptions.GeneratorException;
+import jflex.logging.Out;
+import jflex.option.Options;
+import jflex.skeleton.Skeleton;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * GeneratorContextTest
+ *
+ * @version JFlex 1.9.0-SNAPSHOT
+ */
+public class GeneratorContextTest {
+
+  private File dir;
+
+  @Before
+  public void setUp() throws IOException {
+    OptionUtils.setDefaultOptions();
+    dir = Files.createTempDirectory("jflex-context").toFile();
+  }
+
+  @After
+  public void tearDown() {
+    OptionUtils.setDefaultOptions();
+    Out.resetCounters();
+  }
+
+  private File spec(String className, String rules) throws IOException {
+    File file = new File(dir, className + ".flex");
+    String spec = "%%\n%class " + className + "\n%int\n%%\n" + rules + "\n";
+    Files.write(file.toPath(), spec.getBytes(UTF_8));
+    return file;
+  }
+
+  @Test
+  public void optionsAreBound() {
+    GeneratorContext context = new GeneratorContext();
+    context.getOptions().jlex = true;
+    assertThat(context.call(() -> Options.get().jlex)).isTrue();
+    assertThat(Options.get().jlex).isFalse();
+
+    context.run(() -> OptionUtils.setThreads(3));
+    assertThat(context.getOptions().threads).isEqualTo(3);
+    assertThat(Options.get().threads).isEqualTo(1);
+  }
+
+  @Test
+  public void skeletonIsBound() {
+    int section = 0;
+    while (!Skeleton.get()[section].contains(" public ")) section++;
+
+    GeneratorContext context = new GeneratorContext();
+    context.run(Skeleton::makePrivate);
+    assertThat(context.call(Skeleton::get)[section]).doesNotContain(" public ");
+    assertThat(Skeleton.get()[section]).contains(" public ");
+    // the context keeps its skeleton between runs
+    assertThat(context.call(Skeleton::get)[section]).doesNotContain(" public ");
+  }
+
+  @Test
+  public void messagesAndCounters() {
+    GeneratorContext context = new GeneratorContext();
+    int globalWarnings = Out.state().getWarnings();
+    context.run(
+        () -> {
+          Out.resetCounters();
+          Out.println("hello");
+          Out.warning("careful");
+        });
+    assertThat(context.getWarnings()).isEqualTo(1);
+    assertThat(context.getErrors()).isEqualTo(0);
+    assertThat(Out.state().getWarnings()).isEqualTo(globalWarnings);
+    String messages = context.getMessages();
+    assertThat(messages).contains("hello");
+    assertThat(messages).contains("careful");
+    assertThat(context.getMessages()).isEmpty();
+  }
+
+  @Test
+  public void parallel() throws IOException {
+    Options.get().directory = dir;
+    Options.get().no_backup = true;
+    ParallelGenerator generator = new ParallelGenerator(4);
+    for (int i = 0; i < 8; i++) {
+      generator.add(spec("Scanner" + i, "[a-z]{" + (i + 1) + "}x { return " + i + "; }"));
+    }
+    List<String> outputFiles = generator.generate();
+    assertThat(outputFiles).hasSize(8);
+    for (int i = 0; i < 8; i++) {
+      File output = new File(outputFiles.get(i));
+      assertThat(output.getName()).isEqualTo("Scanner" + i + ".java");
+      assertThat(output.isFile()).isTrue();
+    }
+  }
+
+  @Test
+  public void parallelFailure() throws IOException {
+    Options.get().directory = dir;
+    Options.get().no_backup = true;
+    Out.resetCounters();
+    ParallelGenerator generator = new ParallelGenerator(2);
+    generator.add(spec("Broken", "[a-z { return 1; }"));
+    GeneratorContext good = generator.add(spec("Good", "[a-z] { return 1; }"));
+    try {
+      generator.generate();
+      fail("expected GeneratorException");
+    } catch (GeneratorException e) {
+      // the other specification is still generated
+      assertThat(new File(dir, "Good.java").isFile()).isTrue();
+      assertThat(good.getErrors()).isEqualTo(0);
+      assertThat(Out.state().getErrors()).isGreaterThan(0);
+    }
+  }
+}
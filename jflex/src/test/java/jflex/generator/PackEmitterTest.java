@@ -69,4 +69,32 @@ public class PackEmitterTest {
                 + NL
                 + "    \"\\40\\41\\42\\43");
   }
+
+  @Test
+  public void testElementType() {
+    CountEmitter e = new CountEmitter("Bla");
+    e.setValTranslation(1);
+    e.emitCountValueString(new int[] {-1, 0, 127});
+    assertThat(e.elementType()).isEqualTo("byte");
+    e.emit(1, 128);
+    assertThat(e.elementType()).isEqualTo("short");
+    e.emit(1, 0xFFFE);
+    assertThat(e.elementType()).isEqualTo("int");
+
+    CountEmitter c = new CountEmitter("Bla");
+    c.emitCountValueString(new int[] {0, 128, 0xFFFF});
+    assertThat(c.elementType()).isEqualTo("char");
+  }
+
+  @Test
+  public void testNarrowDeclaration() {
+    CountEmitter e = new CountEmitter("Bla");
+    e.setValTranslation(1);
+    e.emitInit();
+    e.emitCountValueString(new int[] {-1, -1, 5});
+    e.emitUnpack();
+    assertThat(e.toString()).startsWith("  private static final byte [] ZZ_BLA = zzUnpackBla();");
+    assertThat(e.toString()).contains("    byte [] result = new byte[3];");
+    assertThat(e.toString()).contains("do result[j++] = (byte) value; while (--count > 0);");
+  }
 }
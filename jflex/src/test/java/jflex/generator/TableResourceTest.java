@@ -0,0 +1,109 @@
+/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+ * JFlex 1.9.0-SNAPSHOT                                                    *
+ * Copyright (C) 1998-2018  Gerwin Klein <lsf@jflex.de>                    *
+ * All rights reserved.                                                    *
+ *                                                                         *
+ * License: BSD                                                            *
+ *                                                                         *
+ * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+package jflex.generator;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+/**
+ * TableResourceTest
+ *
+ * @version JFlex 1.9.0-SNAPSHOT
+ */
+public class TableResourceTest {
+
+  /** Decodes a resource the same way the generated holder class does. */
+  private static List<int[]> decode(byte[] bytes) throws IOException {
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+    assertThat(in.readInt()).isEqualTo(TableResource.MAGIC);
+    List<int[]> result = new ArrayList<>();
+    int numTables = in.readInt();
+    for (int t = 0; t < numTables; t++) {
+      int[] table = new int[in.readInt()];
+      int min = in.readInt();
+      int width = in.readByte();
+      int i = 0;
+      while (i < table.length) {
+        int count = in.readUnsignedByte();
+        int value;
+        if (width == 1) value = in.readUnsignedByte();
+        else if (width == 2) value = in.readUnsignedShort();
+        else value = in.readInt();
+        while (count-- > 0) table[i++] = value + min;
+      }
+      result.add(table);
+    }
+    assertThat(in.read()).isEqualTo(-1);
+    return result;
+  }
+
+  @Test
+  public void width() {
+    assertThat(TableResource.width(-1, 254)).isEqualTo(1);
+    assertThat(TableResource.width(-1, 255)).isEqualTo(2);
+    assertThat(TableResource.width(-300, 0xFFFF - 300)).isEqualTo(2);
+    assertThat(TableResource.width(0, 0x10000)).isEqualTo(4);
+    assertThat(TableResource.width(Integer.MIN_VALUE, Integer.MAX_VALUE)).isEqualTo(4);
+  }
+
+  @Test
+  public void roundTrip() throws IOException {
+    int[] bytes = {-1, 0, 5, 5, 5, 254};
+    int[] shorts = {-200, 7, 7, 1000};
+    int[] ints = {Integer.MIN_VALUE, 0, Integer.MAX_VALUE};
+    int[] empty = {};
+    int[] runs = new int[1000];
+    for (int i = 600; i < runs.length; i++) runs[i] = 3;
+
+    TableResource resource = new TableResource();
+    assertThat(resource.add(bytes)).isEqualTo(0);
+    assertThat(resource.add(shorts)).isEqualTo(1);
+    assertThat(resource.add(ints)).isEqualTo(2);
+    assertThat(resource.add(empty)).isEqualTo(3);
+    assertThat(resource.add(runs)).isEqualTo(4);
+    assertThat(resource.size()).isEqualTo(5);
+
+    List<int[]> tables = decode(resource.toByteArray());
+    assertThat(tables.get(0)).isEqualTo(bytes);
+    assertThat(tables.get(1)).isEqualTo(shorts);
+    assertThat(tables.get(2)).isEqualTo(ints);
+    assertThat(tables.get(3)).isEqualTo(empty);
+    assertThat(tables.get(4)).isEqualTo(runs);
+  }
+
+  @Test
+  public void runLengthEncoded() {
+    TableResource resource = new TableResource();
+    resource.add(new int[10000]);
+    // header, table header, 39 runs of 255 and one of 55 entries
+    assertThat(resource.toByteArray()).hasLength(8 + 9 + 40 * 2);
+  }
+
+  @Test
+  public void packEmitterValues() {
+    CountEmitter e = new CountEmitter("Bla");
+    e.setValTranslation(1);
+    e.emitInit();
+    e.emitCountValueString(new int[] {-1, -1, 3, 0x10000 - 2});
+    assertThat(e.values()).isEqualTo(new int[] {-1, -1, 3, 0x10000 - 2});
+
+    HiLowEmitter h = new HiLowEmitter("Bla");
+    h.emitInit();
+    h.emit(0x12345678);
+    h.emit(0);
+    assertThat(h.values()).isEqualTo(new int[] {0x12345678, 0});
+  }
+}
@@ -0,0 +1,120 @@
+/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+ * JFlex 1.9.0-SNAPSHOT                                                    *
+ * Copyright (C) 1998-2018  Gerwin Klein <lsf@jflex.de>                    *
+ * All rights reserved.                                                    *
+ *                                                                         *
+ * License: BSD                                                            *
+ *                                                                         *
+ * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+package jflex.generator;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import jflex.core.unicode.CMapBlock;
+import org.junit.Test;
+
+/**
+ * Utf8TableTest
+ *
+ * @version JFlex 1.9.0-SNAPSHOT
+ */
+public class Utf8TableTest {
+
+  /** Code points classified by the test character map. */
+  private static final int[] SPECIAL = {'a', 0xE9, 0x20AC, 0xFFFD, 0x1F600, 0x10FFFF};
+
+  /** Class 0 for unlisted code points, i+1 for {@code SPECIAL[i]}. */
+  private static int classOf(int codePoint) {
+    for (int i = 0; i < SPECIAL.length; i++) {
+      if (SPECIAL[i] == codePoint) return i + 1;
+    }
+    return 0;
+  }
+
+  private final Utf8Table utf8 = table();
+
+  private static Utf8Table table() {
+    int numBlocks = 0x110000 >> CMapBlock.BLOCK_BITS;
+    int[] top = new int[numBlocks];
+    int[] blocks = new int[0x110000];
+    for (int i = 0; i < numBlocks; i++) top[i] = i << CMapBlock.BLOCK_BITS;
+    for (int c = 0; c < blocks.length; c++) blocks[c] = classOf(c);
+    return new Utf8Table(top, blocks);
+  }
+
+  /** Decodes {@code bytes} to classes, as the generated scanning loop does. */
+  private List<Integer> decode(byte[] bytes) {
+    int[] table = utf8.table();
+    List<Integer> result = new ArrayList<>();
+    int pos = 0;
+    while (pos < bytes.length) {
+      int input = table[bytes[pos++] & 0xFF];
+      while (input > 0) {
+        int b = pos < bytes.length ? bytes[pos] : 0;
+        if ((b & 0xC0) == 0x80 && (input = table[(input << 6) | (b & 0x3F)]) != 0) {
+          pos++;
+        } else {
+          input = utf8.invalidEntry();
+        }
+      }
+      result.add(~input);
+    }
+    return result;
+  }
+
+  @Test
+  public void wellFormed() {
+    StringBuilder text = new StringBuilder("xa\u00e9\u20ac\ufffdb");
+    text.appendCodePoint(0x1F600).appendCodePoint(0x1F601).appendCodePoint(0x10FFFF).append('\n');
+    byte[] bytes = text.toString().getBytes(UTF_8);
+    assertThat(decode(bytes)).containsExactly(0, 1, 2, 3, 4, 0, 5, 0, 6, 0).inOrder();
+  }
+
+  @Test
+  public void illFormed() {
+    // maximal subparts are replaced by U+FFFD (class 4)
+    assertThat(decode(bytes(0xC0, 0xAF))).containsExactly(4, 4).inOrder(); // overlong
+    assertThat(decode(bytes(0xE0, 0x80, 0x80))).containsExactly(4, 4, 4).inOrder(); // overlong
+    assertThat(decode(bytes(0xED, 0xA0, 0x80))).containsExactly(4, 4, 4).inOrder(); // surrogate
+    assertThat(decode(bytes(0xF4, 0x90, 0x80, 0x80))).containsExactly(4, 4, 4, 4).inOrder();
+    assertThat(decode(bytes(0xE2, 0x82, 'a'))).containsExactly(4, 1).inOrder(); // truncated
+    assertThat(decode(bytes(0xF0, 0x9F, 0x98))).containsExactly(4); // truncated at end
+    assertThat(decode(bytes(0x80, 0xFF, 'a'))).containsExactly(4, 4, 1).inOrder(); // stray
+  }
+
+  @Test
+  public void random() {
+    Random random = new Random(42);
+    for (int i = 0; i < 1000; i++) {
+      StringBuilder text = new StringBuilder();
+      List<Integer> expected = new ArrayList<>();
+      for (int j = 0; j < 8; j++) {
+        int c =
+            random.nextBoolean()
+                ? SPECIAL[random.nextInt(SPECIAL.length)]
+                : random.nextInt(0x110000);
+        if (c >= 0xD800 && c <= 0xDFFF) continue;
+        text.appendCodePoint(c);
+        expected.add(classOf(c));
+      }
+      assertThat(decode(text.toString().getBytes(UTF_8))).isEqualTo(expected);
+    }
+  }
+
+  private static byte[] bytes(int... values) {
+    byte[] result = new byte[values.length];
+    for (int i = 0; i < values.length; i++) result[i] = (byte) values[i];
+    return result;
+  }
+
+  @Test
+  public void shared() {
+    // few distinct classes outside ASCII: far fewer nodes than the 17k blocks of 64 code points
+    assertThat(utf8.table().length / Utf8Table.NODE_SIZE).isLessThan(50);
+  }
+}
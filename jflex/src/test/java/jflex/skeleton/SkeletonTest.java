@@ -34,8 +34,8 @@ public class SkeletonTest {
   @Test
   public void testMakePrivate() {
     Skeleton.makePrivate();
-    for (int i = 0; i < Skeleton.line.length; i++) {
-      assertThat(Skeleton.line[i]).doesNotContain("public");
+    for (int i = 0; i < Skeleton.get().length; i++) {
+      assertThat(Skeleton.get()[i]).doesNotContain("public");
     }
   }
 
@@ -56,8 +56,8 @@ public class SkeletonTest {
   }
 
   private static void checkDefaultSkeleton() {
-    assertThat(Skeleton.line[3]).contains("java.util.Deque");
+    assertThat(Skeleton.get()[3]).contains("java.util.Deque");
     Skeleton.readDefault();
-    assertThat(Skeleton.line[3]).doesNotContain("java.util.Deque");
+    assertThat(Skeleton.get()[3]).doesNotContain("java.util.Deque");
   }
 }
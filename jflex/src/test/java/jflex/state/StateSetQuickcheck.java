@@ -11,6 +11,7 @@ package jflex.state;
 
 import static com.google.common.truth.Truth.assertThat;
 import static com.google.common.truth.Truth.assertWithMessage;
+import static org.junit.Assert.fail;
 import static org.junit.Assume.assumeTrue;
 
 import com.pholser.junit.quickcheck.Property;
@@ -294,4 +295,80 @@ public class StateSetQuickcheck {
       assertThat(s.nextElement()).isEqualTo(e);
     }
   }
+
+  @Property
+  public void frozenCopy(StateSet set) {
+    StateSet frozen = set.frozenCopy();
+    assertThat(frozen.isFrozen()).isTrue();
+    assertThat(frozen).isEqualTo(set);
+    assertThat(set).isEqualTo(frozen);
+    assertThat(frozen.hashCode()).isEqualTo(set.hashCode());
+    assertThat(frozen.toString()).isEqualTo(set.toString());
+    assertThat(frozen.frozenCopy() == frozen).isTrue();
+  }
+
+  @Property
+  public void frozenEmptyCopies(
+      @InRange(minInt = 0, maxInt = 1000) int size1,
+      @InRange(minInt = 0, maxInt = 1000) int size2) {
+    StateSet f1 = StateSet.emptySet(size1).frozenCopy();
+    StateSet f2 = StateSet.emptySet(size2).frozenCopy();
+    assertThat(f1).isEqualTo(f2);
+    assertThat(f1.hashCode()).isEqualTo(f2.hashCode());
+    assertThat(f1.base).isEqualTo(0);
+  }
+
+  @Property
+  public void frozenOperations(StateSet s1, StateSet s2) {
+    StateSet f1 = s1.frozenCopy();
+    StateSet f2 = s2.frozenCopy();
+
+    assertThat(f1.contains(f2)).isEqualTo(s1.contains(s2));
+    assertThat(f1.complement(f2)).isEqualTo(s1.complement(s2));
+    assertThat(f1.equals(f2)).isEqualTo(s1.equals(s2));
+
+    StateSet union1 = new StateSet(s1);
+    union1.add(f2);
+    StateSet union2 = new StateSet(f1);
+    union2.add(s2);
+    assertThat(union1).isEqualTo(union2);
+
+    StateSet inter1 = s1.copy();
+    inter1.intersect(f2);
+    StateSet inter2 = f1.copy();
+    inter2.intersect(s2);
+    assertThat(inter1).isEqualTo(inter2);
+
+    StateSet copy = new StateSet();
+    copy.copy(f2);
+    assertThat(copy).isEqualTo(s2);
+    assertThat(copy.isFrozen()).isFalse();
+  }
+
+  @Property
+  public void frozenElements(StateSet set, @InRange(minInt = 0, maxInt = 1100) int e) {
+    assertThat(set.frozenCopy().hasElement(e)).isEqualTo(set.hasElement(e));
+  }
+
+  @Property
+  public void frozenIsImmutable(StateSet set, @InRange(minInt = 0, maxInt = 1000) int e) {
+    StateSet frozen = set.frozenCopy();
+    try {
+      frozen.addState(e);
+      fail("addState on frozen set");
+    } catch (UnsupportedOperationException expected) {
+      assertThat(frozen).isEqualTo(set);
+    }
+  }
+
+  @Property
+  public void internShares(StateSet s1, StateSet s2) {
+    StateSetPool pool = new StateSetPool();
+    StateSet i1 = pool.intern(s1);
+    StateSet i2 = pool.intern(s2);
+    assertThat(i1).isEqualTo(s1);
+    assertThat(i2).isEqualTo(s2);
+    assertThat(i1 == i2).isEqualTo(s1.equals(s2));
+    assertThat(pool.intern(s1.copy()) == i1).isTrue();
+  }
 }
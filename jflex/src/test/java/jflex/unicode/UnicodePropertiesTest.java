@@ -12,6 +12,7 @@ package jflex.unicode;
 import static com.google.common.truth.Truth.assertWithMessage;
 import static org.junit.Assert.fail;
 
+import java.util.Arrays;
 import java.util.Objects;
 import jflex.core.unicode.IntCharSet;
 import jflex.core.unicode.UnicodeProperties;
@@ -456,4 +457,25 @@ public class UnicodePropertiesTest {
       fail("Version '6.0' not supported: " + e);
     }
   }
+
+  @Test
+  public void testLazyUnpacking() throws UnicodeProperties.UnsupportedUnicodeVersionException {
+    UnicodeProperties properties = new UnicodeProperties();
+    IntCharSet letter = properties.getIntCharSet("L");
+    assertWithMessage("\\p{L} is cached").that(properties.getIntCharSet("L") == letter).isTrue();
+    assertWithMessage("\\p{Letter} shares the set of \\p{L}")
+        .that(properties.getIntCharSet("Letter") == letter)
+        .isTrue();
+
+    IntCharSet union = new IntCharSet();
+    for (String category : new String[] {"Lu", "Ll", "Lt", "Lm", "Lo"}) {
+      union.add(properties.getIntCharSet(category));
+    }
+    assertWithMessage("\\p{L} is the union of its subcategories").that(letter).isEqualTo(union);
+
+    assertWithMessage("unknown property").that(properties.getIntCharSet("NoSuchProperty")).isNull();
+    assertWithMessage("property values include \\p{L} and \\p{ASCII}")
+        .that(properties.getPropertyValues().containsAll(Arrays.asList("l", "ascii")))
+        .isTrue();
+  }
 }